@@ -18,6 +18,7 @@
 package fr.cnes.sonar.plugin.settings;
 
 import org.sonar.api.config.PropertyDefinition;
+import org.sonar.api.PropertyType;
 import org.sonar.api.resources.Qualifiers;
 
 import java.util.Arrays;
@@ -83,6 +84,51 @@ public class ReportSonarPluginProperties {
 	 **/
 	public static final String XLSX_PATH_DESC = "Path to the spreadsheet template. " + PATH_DESC_SUFFIX;
 
+    /**
+	 * Key for the number of reports generated at the same time in background
+	 **/
+	public static final String JOBS_WORKERS_KEY = PROPERTIES_PREFIX + "jobs.workers";
+    /**
+	 * Default number of reports generated at the same time in background
+	 **/
+	public static final int JOBS_WORKERS_DEFAULT = 2;
+
+    /**
+	 * Key for the maximum number of reports waiting to be generated
+	 **/
+	public static final String JOBS_QUEUE_KEY = PROPERTIES_PREFIX + "jobs.queue";
+    /**
+	 * Default maximum number of reports waiting to be generated
+	 **/
+	public static final int JOBS_QUEUE_DEFAULT = 20;
+
+    /**
+	 * Key for the maximum number of reports in progress for a single user
+	 **/
+	public static final String JOBS_PER_USER_KEY = PROPERTIES_PREFIX + "jobs.perUser";
+    /**
+	 * Default maximum number of reports in progress for a single user
+	 **/
+	public static final int JOBS_PER_USER_DEFAULT = 2;
+
+    /**
+	 * Key for the time to live of the generated reports, in seconds
+	 **/
+	public static final String JOBS_TTL_KEY = PROPERTIES_PREFIX + "jobs.ttl";
+    /**
+	 * Default time to live of the generated reports, in seconds
+	 **/
+	public static final int JOBS_TTL_DEFAULT = 3600;
+
+    /**
+	 * Key for the maximum size of the cache of generated reports, in MB
+	 **/
+	public static final String CACHE_SIZE_KEY = PROPERTIES_PREFIX + "cache.size";
+    /**
+	 * Default maximum size of the cache of generated reports, in MB
+	 **/
+	public static final int CACHE_SIZE_DEFAULT = 512;
+
     /**
 	 * Private constructor because it is a utility class.
 	 */
@@ -116,6 +162,46 @@ public class ReportSonarPluginProperties {
 					.name(XLSX_PATH_NAME)
 					.description(XLSX_PATH_DESC)
 					.onQualifiers(Qualifiers.APP)
+					.build()
+            ,
+            PropertyDefinition.builder(JOBS_WORKERS_KEY)
+					.category(CNES_REPORT_NAME)
+					.name("Background workers")
+					.description("Number of reports generated at the same time by the submit web service.")
+					.type(PropertyType.INTEGER)
+					.defaultValue(String.valueOf(JOBS_WORKERS_DEFAULT))
+					.build()
+            ,
+            PropertyDefinition.builder(JOBS_QUEUE_KEY)
+					.category(CNES_REPORT_NAME)
+					.name("Background queue size")
+					.description("Maximum number of submitted reports waiting for a worker.")
+					.type(PropertyType.INTEGER)
+					.defaultValue(String.valueOf(JOBS_QUEUE_DEFAULT))
+					.build()
+            ,
+            PropertyDefinition.builder(JOBS_PER_USER_KEY)
+					.category(CNES_REPORT_NAME)
+					.name("Reports in progress per user")
+					.description("Maximum number of submitted reports waiting or being generated for a single token.")
+					.type(PropertyType.INTEGER)
+					.defaultValue(String.valueOf(JOBS_PER_USER_DEFAULT))
+					.build()
+            ,
+            PropertyDefinition.builder(JOBS_TTL_KEY)
+					.category(CNES_REPORT_NAME)
+					.name("Generated reports time to live")
+					.description("Number of seconds a generated report can be downloaded before it is deleted.")
+					.type(PropertyType.INTEGER)
+					.defaultValue(String.valueOf(JOBS_TTL_DEFAULT))
+					.build()
+            ,
+            PropertyDefinition.builder(CACHE_SIZE_KEY)
+					.category(CNES_REPORT_NAME)
+					.name("Reports cache size")
+					.description("Maximum size in MB of the reports kept to be downloaded again until the next analysis of their project. 0 disables the cache.")
+					.type(PropertyType.INTEGER)
+					.defaultValue(String.valueOf(CACHE_SIZE_DEFAULT))
 					.build());
     }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Cache of generated zips on disk
+ * A zip is found by the digest of everything its content depends on
+ * (e.g: project, branch, analysis date, parameters, templates).
+ * When the cache is too big, the least recently used zips are deleted.
+ */
+public class ReportCache {
+
+    /** Logger of this class */
+    private static final Logger LOGGER = Logger.getLogger(ReportCache.class.getName());
+
+    /**
+     * Extension of the cached files
+     */
+    private static final String ZIP_EXTENSION = ".zip";
+    /**
+     * Extension of the files being written
+     */
+    private static final String TMP_EXTENSION = ".tmp";
+    /**
+     * Separator of the parts of a key, it cannot be in a part
+     */
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * Directory of the cache
+     */
+    private final File directory;
+    /**
+     * Maximum size of the cache in bytes, 0 disables the cache
+     */
+    private final long maxSize;
+
+    /**
+     * Constructor
+     * @param pDirectory directory of the cache, created if needed
+     * @param pMaxSize maximum size of the cache in bytes, 0 disables the cache
+     */
+    public ReportCache(final File pDirectory, final long pMaxSize) {
+        this.directory = pDirectory;
+        this.maxSize = pMaxSize;
+    }
+
+    /**
+     * Tell if the cache can be used
+     * @return false if its size is 0
+     */
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Compute the key of a content
+     * @param parts everything the content depends on
+     * @return the key, a hexadecimal SHA-256 digest
+     */
+    public static String key(final List<String> parts) {
+        final StringBuilder text = new StringBuilder();
+        for (String part : parts) {
+            text.append(part).append(SEPARATOR);
+        }
+        return toHex(digest().digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Compute the checksum of a file
+     * @param file the file
+     * @return a hexadecimal SHA-256 digest, empty if the file does not exist
+     * @throws IOException when the file cannot be read
+     */
+    public static String checksum(final File file) throws IOException {
+        return file.isFile() ? toHex(digest().digest(Files.readAllBytes(file.toPath()))) : "";
+    }
+
+    /**
+     * Create a SHA-256 digest
+     * @return the digest
+     */
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Write bytes in hexadecimal
+     * @param bytes the bytes
+     * @return the hexadecimal text
+     */
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Open a cached zip, it becomes the most recently used.
+     * The zip is opened under the lock of the cache, so an eviction cannot delete it before it is read.
+     * @param key key of the zip
+     * @return the content of the zip, to be closed by the caller, null if it is not in the cache
+     * @throws IOException when the zip cannot be opened
+     */
+    public synchronized InputStream open(final String key) throws IOException {
+        final File zip = new File(directory, key + ZIP_EXTENSION);
+        InputStream result = null;
+        if (isEnabled() && zip.isFile()) {
+            if (!zip.setLastModified(System.currentTimeMillis())) {
+                LOGGER.fine(() -> "Unable to update the last use of " + zip.getName());
+            }
+            result = Files.newInputStream(zip.toPath());
+        }
+        return result;
+    }
+
+    /**
+     * Create a temporary file to be added to the cache later
+     * @return a new file in the directory of the cache
+     * @throws IOException when the file cannot be created
+     */
+    public File newFile() throws IOException {
+        Files.createDirectories(directory.toPath());
+        return File.createTempFile("cnesreport", TMP_EXTENSION, directory);
+    }
+
+    /**
+     * Add a zip to the cache, then delete the least recently used zips if the cache is too big
+     * @param key key of the zip
+     * @param zip the zip, created with newFile, it is moved to the cache
+     * @throws IOException when the zip cannot be moved
+     */
+    public synchronized void put(final String key, final File zip) throws IOException {
+        Files.move(zip.toPath(), new File(directory, key + ZIP_EXTENSION).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        evict();
+    }
+
+    /**
+     * Delete the least recently used zips until the cache fits its maximum size
+     */
+    private void evict() {
+        final File[] zips = directory.listFiles((dir, name) -> name.endsWith(ZIP_EXTENSION));
+        if (zips != null) {
+            long size = 0;
+            for (File zip : zips) {
+                size += zip.length();
+            }
+            Arrays.sort(zips, Comparator.comparingLong(File::lastModified));
+            for (int i = 0; i < zips.length && size > maxSize; i++) {
+                size -= zips[i].length();
+                try {
+                    Files.deleteIfExists(zips[i].toPath());
+                } catch (IOException e) {
+                    LOGGER.warning(e.getMessage());
+                }
+            }
+        }
+    }
+}
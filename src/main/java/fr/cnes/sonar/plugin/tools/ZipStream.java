@@ -0,0 +1,191 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.tools;
+
+import fr.cnes.sonar.report.factory.ReportFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Write generated files as entries of a zip sent to a stream
+ * Each file is added and deleted as soon as it is generated,
+ * the stream is opened with the first file.
+ */
+public class ZipStream implements ReportFactory.ArtifactListener, Closeable {
+
+    /**
+     * Extensions of the files which are already compressed (OOXML documents are zip files)
+     */
+    public static final Set<String> COMPRESSED_EXTENSIONS =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(".docx", ".xlsx")));
+
+    /**
+     * Size of the copy buffer
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Opens the destination of the zip
+     */
+    @FunctionalInterface
+    public interface Target {
+        /**
+         * Open the destination
+         * @return the stream receiving the zip
+         * @throws IOException when the stream cannot be opened
+         */
+        OutputStream open() throws IOException;
+    }
+
+    /**
+     * Directory containing the files, entries are named relatively to it
+     */
+    private final Path baseDirectory;
+    /**
+     * Destination of the zip
+     */
+    private final Target target;
+    /**
+     * Extensions of the files stored without compression
+     */
+    private final Set<String> storedExtensions;
+    /**
+     * The zip, null until the first file
+     */
+    private ZipOutputStream zip;
+    /**
+     * True once the zip is aborted, its end is never written
+     */
+    private boolean aborted;
+
+    /**
+     * Constructor
+     * @param baseDirectory directory containing the files
+     * @param target destination of the zip, opened with the first file
+     * @param storedExtensions extensions of the files to store without compression (e.g: ".docx")
+     */
+    public ZipStream(final File baseDirectory, final Target target, final Set<String> storedExtensions) {
+        this.baseDirectory = baseDirectory.toPath().toAbsolutePath();
+        this.target = target;
+        this.storedExtensions = storedExtensions;
+    }
+
+    /**
+     * Tell if the zip has been started, i.e. if something has been sent to the target
+     * @return true once the first file is added
+     */
+    public boolean isStarted() {
+        return zip != null;
+    }
+
+    /**
+     * Add a file as an entry of the zip, then delete it
+     * @param file the generated file
+     * @throws IOException when the file cannot be read or the zip cannot be written
+     */
+    @Override
+    public synchronized void generated(final File file) throws IOException {
+        if (aborted) {
+            throw new IOException("The zip has been aborted.");
+        }
+        if (zip == null) {
+            zip = new ZipOutputStream(new BufferedOutputStream(target.open(), BUFFER_SIZE));
+        }
+        final Path path = file.toPath().toAbsolutePath();
+        final ZipEntry entry = new ZipEntry(baseDirectory.relativize(path).toString().replace(File.separatorChar, '/'));
+        if (isStored(file.getName())) {
+            // a stored entry needs its size and checksum before its content
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(Files.size(path));
+            entry.setCompressedSize(entry.getSize());
+            entry.setCrc(checksum(path));
+        }
+        zip.putNextEntry(entry);
+        Files.copy(path, zip);
+        zip.closeEntry();
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Tell if a file is stored without compression
+     * @param name name of the file
+     * @return true if its extension is one of the stored ones
+     */
+    private boolean isStored(final String name) {
+        final int dot = name.lastIndexOf('.');
+        return dot >= 0 && storedExtensions.contains(name.substring(dot).toLowerCase());
+    }
+
+    /**
+     * Compute the CRC-32 of a file
+     * @param path the file
+     * @return its checksum
+     * @throws IOException when the file cannot be read
+     */
+    private static long checksum(final Path path) throws IOException {
+        final CRC32 crc = new CRC32();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = Files.newInputStream(path)) {
+            int read = input.read(buffer);
+            while (read >= 0) {
+                crc.update(buffer, 0, read);
+                read = input.read(buffer);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Stop the zip after a failure, nothing else is written to the target.
+     * The end of the zip (its central directory) is never written,
+     * so a started zip cannot be read as a complete one.
+     */
+    public synchronized void abort() {
+        aborted = true;
+    }
+
+    /**
+     * Finish the zip, an empty zip is written if no file was generated
+     * Nothing is written if the zip has been aborted.
+     * @throws IOException when the zip cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (aborted) {
+            return;
+        }
+        if (zip == null) {
+            zip = new ZipOutputStream(new BufferedOutputStream(target.open(), BUFFER_SIZE));
+        }
+        zip.close();
+    }
+}
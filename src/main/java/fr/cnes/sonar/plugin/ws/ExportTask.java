@@ -17,9 +17,11 @@
 
 package fr.cnes.sonar.plugin.ws;
 
+import fr.cnes.sonar.plugin.settings.ReportSonarPluginProperties;
 import fr.cnes.sonar.plugin.tools.PluginStringManager;
 import fr.cnes.sonar.plugin.tools.FileTools;
-import fr.cnes.sonar.plugin.tools.ZipFolder;
+import fr.cnes.sonar.plugin.tools.ReportCache;
+import fr.cnes.sonar.plugin.tools.ZipStream;
 import fr.cnes.sonar.report.ReportCommandLine;
 import fr.cnes.sonar.report.exceptions.BadExportationDataTypeException;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
@@ -27,7 +29,8 @@ import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
 import fr.cnes.sonar.report.factory.ReportFactory;
 import fr.cnes.sonar.report.utils.StringManager;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.TeeOutputStream;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.xmlbeans.XmlException;
 import org.sonar.api.config.Configuration;
@@ -37,23 +40,79 @@ import org.sonar.api.server.ws.Response;
 import org.sonarqube.ws.MediaTypes;
 import org.sonarqube.ws.client.WsClient;
 import org.sonarqube.ws.client.WsClientFactories;
+import org.sonarqube.ws.client.navigation.ComponentRequest;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.file.Files;
 import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.logging.Logger;
 
 public class ExportTask implements RequestHandler {
 
+    /** Logger of this class */
+    private static final Logger LOGGER = Logger.getLogger(ExportTask.class.getName());
+
+    /**
+     * Option of the report generation giving the token
+     */
+    private static final String TOKEN_OPTION = "-t";
+
+    /**
+     * Field of the component giving the date of its last analysis
+     */
+    private static final String ANALYSIS_DATE = "analysisDate";
+
+    /**
+     * Keys of the templates paths properties
+     */
+    private static final String[] TEMPLATES_KEYS = {
+        ReportSonarPluginProperties.DOCX_PATH_KEY,
+        ReportSonarPluginProperties.MD_PATH_KEY,
+        ReportSonarPluginProperties.XLSX_PATH_KEY
+    };
+
+    /**
+     * Generates the files of a report
+     */
+    @FunctionalInterface
+    interface Generation {
+        /**
+         * Generate the files of a report
+         * @param listener receives each generated file
+         * @throws BadExportationDataTypeException Caused by export.
+         * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+         * @throws IOException Caused by I/O.
+         * @throws UnknownQualityGateException if the quality gate is not found
+         * @throws OpenXML4JException Caused by Apache library.
+         * @throws XmlException Caused by XML error.
+         * @throws SonarQubeException When SonarQube server is not callable.
+         * @throws ParseException when the date of the report is not valid
+         */
+        void generate(ReportFactory.ArtifactListener listener)
+                throws BadExportationDataTypeException, BadSonarQubeRequestException, IOException,
+                UnknownQualityGateException, OpenXML4JException, XmlException, SonarQubeException, ParseException;
+    }
+
     // Sonarqube configuration
     private final Configuration config;
 
+    // Generated reports
+    private final ReportCache cache;
+
     /**
      * Value "false" of an api call parameter
      */
@@ -67,9 +126,11 @@ public class ExportTask implements RequestHandler {
     /**
      * public constructor
      * @param config sonarqube configuration
+     * @param cache generated reports
      */
-    ExportTask(Configuration config){
+    ExportTask(Configuration config, ReportCache cache){
         this.config = config;
+        this.cache = cache;
     }
 
     /**
@@ -79,7 +140,8 @@ public class ExportTask implements RequestHandler {
      */
     @Override
     public void handle(Request request, Response response) throws BadExportationDataTypeException, IOException,
-            UnknownQualityGateException, OpenXML4JException, XmlException, SonarQubeException, ParseException {
+            UnknownQualityGateException, OpenXML4JException, XmlException, SonarQubeException, ParseException,
+            BadSonarQubeRequestException {
 
         // Get project key
         String projectKey = request.getParam(PluginStringManager.getProperty("api.report.args.key")).getValue();
@@ -93,104 +155,62 @@ public class ExportTask implements RequestHandler {
         // Last line create file instead of folder, we delete file to put folder at the same place later
         Files.delete(outputDirectory.toPath());
 
-        // Start generation, re-using standalone script
-        try {
-            final Request.StringParam pBranch =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.branch"));
-            
-            final Request.StringParam pLanguage =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.language"));
-
-            final Request.StringParam pEnableDocx =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.enableDocx"));
-
-            final Request.StringParam pEnableMd =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.enableMd"));
-
-            final Request.StringParam pEnableXlsx =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.enableXlsx"));
+        // the zip being written for the cache, if any
+        File cacheFile = null;
 
-            final Request.StringParam pEnableCsv =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.enableCsv"));
-
-            final Request.StringParam pEnableConf =
-                    request.getParam(PluginStringManager.getProperty("api.report.args.enableConf"));
-
-            // Build SonarQube local URL
-            String port = config.get("sonar.web.port").orElse(PluginStringManager.getProperty("plugin.defaultPort"));
-            String context = config.get("sonar.web.context").orElse(PluginStringManager.getProperty("plugin.defaultContext"));
-            String sonarUrl = String.format(PluginStringManager.getProperty("plugin.defaultHost"), port, context);
-
-            // Get files templates paths if defined in the decicated SonarQube configuration panel
-            String docxPath = config.get("sonar.cnesreport.docx.path").orElse(null);
-            String mdPath = config.get("sonar.cnesreport.md.path").orElse(null);
-            String xlsxPath = config.get("sonar.cnesreport.xlsx.path").orElse(null);
+        // the zip sent in the response, null until the report is generated
+        ZipStream zip = null;
 
+        // Start generation, re-using standalone script
+        try {
             // prepare params for the report generation
-            List<String> reportParams = new ArrayList<>(Arrays.asList(
+            final List<String> params = getReportParams(config, request);
+            final List<String> reportParams = new ArrayList<>(Arrays.asList(
                     "report",
-                    "-o", outputDirectory.getAbsolutePath(),
-                    "-s", sonarUrl,
-                    "-p", projectKey,
-                    "-b", pBranch.isPresent()?pBranch.getValue(): StringManager.NO_BRANCH,
-                    "-a", request.getParam(PluginStringManager.getProperty("api.report.args.author")).getValue(),
-                    "-t", request.getParam(PluginStringManager.getProperty("api.report.args.token")).getValue(),
-                    "-l", pLanguage.isPresent()?pLanguage.getValue(): StringManager.getProperty(StringManager.DEFAULT_LANGUAGE)
-            ));
-
-            // add files templates paths to params if defined
-            if (docxPath != null) {
-                reportParams.add("-r");
-                reportParams.add(docxPath);
-            }
-            if (mdPath != null) {
-                reportParams.add("-n");
-                reportParams.add(mdPath);
-            }
-            if (xlsxPath != null) {
-                reportParams.add("-x");
-                reportParams.add(xlsxPath);
-            }
-
-            String pEnableDocxValue = pEnableDocx.getValue();
-            String pEnableMdValue = pEnableMd.getValue();
-            String pEnableXlsxValue = pEnableXlsx.getValue();
-            String pEnableCsvValue = pEnableCsv.getValue();
-            String pEnableConfValue = pEnableConf.getValue();
-
-            // add disable files generation params if requested
-            if(pEnableDocxValue != null && (pEnableDocxValue.equals(FALSE) || pEnableDocxValue.equals(NO))) {
-                reportParams.add("-w");
-            }
-            if(pEnableMdValue != null && (pEnableMdValue.equals(FALSE) || pEnableMdValue.equals(NO))) {
-                reportParams.add("-m");
-            }
-            if(pEnableXlsxValue != null && (pEnableXlsxValue.equals(FALSE) || pEnableXlsxValue.equals(NO))) {
-                reportParams.add("-e");
-            }
-            if(pEnableCsvValue != null && (pEnableCsvValue.equals(FALSE) || pEnableCsvValue.equals(NO))) {
-                reportParams.add("-f");
-            }
-            if(pEnableConfValue != null && (pEnableConfValue.equals(FALSE) || pEnableConfValue.equals(NO))) {
-                reportParams.add("-c");
-            }
+                    "-o", outputDirectory.getAbsolutePath()));
+            reportParams.addAll(params);
 
             // create a new client to talk with sonarqube's services
             WsClient wsClient = WsClientFactories.getLocal().newClient(request.localConnector());
 
-            ReportCommandLine.execute(reportParams.toArray(new String[reportParams.size()]), wsClient);
+            final String filename = ReportFactory.formatFilename("zip.report.output", "", "", projectKey);
 
-            stream.setMediaType("application/zip");
-            String filename = ReportFactory.formatFilename("zip.report.output", "", "", projectKey);
-            response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + '"');
+            // a report is the same as long as the project is not analysed again
+            final String cacheKey = getCacheKey(wsClient, request, params);
+            final InputStream cached = cacheKey == null ? null : cache.open(cacheKey);
 
+            if (cached != null) {
+                // send the zip generated by a previous call
+                try (InputStream input = cached) {
+                    stream.setMediaType("application/zip");
+                    response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + '"');
+                    IOUtils.copy(input, stream.output());
+                }
+            } else {
+                // each file is sent as an entry of the zip as soon as it is generated,
+                // the response starts with the first file and is copied in the cache
+                final File copy = cacheKey == null ? null : cache.newFile();
+                cacheFile = copy;
+                try (OutputStream copyOutput = copy == null ? null : Files.newOutputStream(copy.toPath())) {
+                    zip = new ZipStream(outputDirectory, () -> {
+                        stream.setMediaType("application/zip");
+                        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + '"');
+                        return copyOutput == null ? stream.output()
+                                : new TeeOutputStream(stream.output(), copyOutput);
+                    }, ZipStream.COMPRESSED_EXTENSIONS);
 
-            // generate zip output and send it
-            ZipFolder.pack(outputDirectory.getAbsolutePath(), outputDirectory.getAbsolutePath() + ".zip");
-            File zip = new File(outputDirectory.getAbsolutePath() + ".zip");
-            FileUtils.copyFile(zip, stream.output());
-            Files.deleteIfExists(zip.toPath());
-        } catch (BadSonarQubeRequestException e) {          
+                    final String[] args = reportParams.toArray(new String[reportParams.size()]);
+                    writeZip(zip, listener -> ReportCommandLine.execute(args, wsClient, listener));
+                }
+                if (copy != null) {
+                    cache.put(cacheKey, copy);
+                }
+            }
+        } catch (BadSonarQubeRequestException e) {
+            // once the zip is started, an error cannot be written in the middle of it
+            if (zip != null && zip.isStarted()) {
+                throw e;
+            }
             response.stream().setMediaType(MediaTypes.JSON);
             try (
                 OutputStreamWriter writer = new OutputStreamWriter(response.stream().output(), StandardCharsets.UTF_8);
@@ -201,8 +221,200 @@ public class ExportTask implements RequestHandler {
                 jsonWriter.endObject();
                 jsonWriter.flush();
             }
+        } finally {
+            // an unfinished zip is not cached
+            if (cacheFile != null) {
+                Files.deleteIfExists(cacheFile.toPath());
+            }
+            FileTools.deleteFolder(outputDirectory);
+        }
+    }
+
+    /**
+     * Generate the files of a report in a zip, then finish the zip.
+     * The response starts with the first file, so its status cannot be changed anymore
+     * when a later file fails: the zip is then aborted without its end and the error is thrown,
+     * the client cannot take the truncated zip for a complete report.
+     * @param zip the zip receiving the files
+     * @param generation generates the files of the report
+     * @throws BadExportationDataTypeException Caused by export.
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws IOException Caused by I/O.
+     * @throws UnknownQualityGateException if the quality gate is not found
+     * @throws OpenXML4JException Caused by Apache library.
+     * @throws XmlException Caused by XML error.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     * @throws ParseException when the date of the report is not valid
+     */
+    static void writeZip(final ZipStream zip, final Generation generation)
+            throws BadExportationDataTypeException, BadSonarQubeRequestException, IOException,
+            UnknownQualityGateException, OpenXML4JException, XmlException, SonarQubeException, ParseException {
+        try {
+            generation.generate(zip);
+        } catch (Exception e) {
+            zip.abort();
+            throw e;
+        }
+        zip.close();
+    }
+
+    /**
+     * Compute the key of the report of a request in the cache.
+     * The report depends on the analysis of the project, the parameters of the request,
+     * the templates and the day of the generation.
+     * @param wsClient client of the request
+     * @param request the request
+     * @param params arguments of the report generation
+     * @return the key, null if the report cannot be cached (e.g: the project has never been analysed)
+     * @throws IOException when a template cannot be read
+     */
+    private String getCacheKey(final WsClient wsClient, final Request request, final List<String> params)
+            throws IOException {
+        String key = null;
+        if (cache.isEnabled()) {
+            final String projectKey = request.getParam(PluginStringManager.getProperty("api.report.args.key")).getValue();
+            final Request.StringParam pBranch =
+                    request.getParam(PluginStringManager.getProperty("api.report.args.branch"));
+            // the request also checks that the user can see the project
+            final String analysisDate = getAnalysisDate(wsClient, projectKey,
+                    pBranch.isPresent() ? pBranch.getValue() : null);
+            if (analysisDate != null) {
+                final List<String> parts = new ArrayList<>();
+                parts.add(analysisDate);
+                parts.add(new SimpleDateFormat(StringManager.DATE_PATTERN).format(new Date()));
+                // the token does not change the report
+                for (int i = 0; i < params.size(); i++) {
+                    if (TOKEN_OPTION.equals(params.get(i))) {
+                        i++;
+                    } else {
+                        parts.add(params.get(i));
+                    }
+                }
+                for (String template : TEMPLATES_KEYS) {
+                    final String path = config.get(template).orElse(null);
+                    parts.add(path == null ? "" : ReportCache.checksum(new File(path)));
+                }
+                key = ReportCache.key(parts);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Get the date of the last analysis of a project
+     * @param wsClient client of the request
+     * @param projectKey key of the project
+     * @param branch branch of the project, null for the main branch
+     * @return the date, null if it is unknown
+     */
+    private static String getAnalysisDate(final WsClient wsClient, final String projectKey, final String branch) {
+        String date = null;
+        final ComponentRequest componentRequest = new ComponentRequest().setComponent(projectKey);
+        if (branch != null) {
+            componentRequest.setBranch(branch);
+        }
+        try {
+            final JsonObject component = new Gson().fromJson(wsClient.navigation().component(componentRequest),
+                    JsonObject.class);
+            final JsonElement analysisDate = component == null ? null : component.get(ANALYSIS_DATE);
+            if (analysisDate != null && !analysisDate.isJsonNull()) {
+                date = analysisDate.getAsString();
+            }
+        } catch (RuntimeException e) {
+            // the report is generated without cache, it reports the error if any
+            LOGGER.warning(e.getMessage());
+        }
+        return date;
+    }
+
+    /**
+     * Get the arguments of the report generation from the parameters of a request,
+     * except the command and the output directory.
+     * @param config sonarqube configuration
+     * @param request the request
+     * @return the arguments
+     */
+    static List<String> getReportParams(final Configuration config, final Request request) {
+        final String projectKey = request.getParam(PluginStringManager.getProperty("api.report.args.key")).getValue();
+
+        final Request.StringParam pBranch =
+                request.getParam(PluginStringManager.getProperty("api.report.args.branch"));
+        
+        final Request.StringParam pLanguage =
+                request.getParam(PluginStringManager.getProperty("api.report.args.language"));
+
+        final Request.StringParam pEnableDocx =
+                request.getParam(PluginStringManager.getProperty("api.report.args.enableDocx"));
+
+        final Request.StringParam pEnableMd =
+                request.getParam(PluginStringManager.getProperty("api.report.args.enableMd"));
+
+        final Request.StringParam pEnableXlsx =
+                request.getParam(PluginStringManager.getProperty("api.report.args.enableXlsx"));
+
+        final Request.StringParam pEnableCsv =
+                request.getParam(PluginStringManager.getProperty("api.report.args.enableCsv"));
+
+        final Request.StringParam pEnableConf =
+                request.getParam(PluginStringManager.getProperty("api.report.args.enableConf"));
+
+        // Build SonarQube local URL
+        String port = config.get("sonar.web.port").orElse(PluginStringManager.getProperty("plugin.defaultPort"));
+        String context = config.get("sonar.web.context").orElse(PluginStringManager.getProperty("plugin.defaultContext"));
+        String sonarUrl = String.format(PluginStringManager.getProperty("plugin.defaultHost"), port, context);
+
+        // Get files templates paths if defined in the decicated SonarQube configuration panel
+        String docxPath = config.get("sonar.cnesreport.docx.path").orElse(null);
+        String mdPath = config.get("sonar.cnesreport.md.path").orElse(null);
+        String xlsxPath = config.get("sonar.cnesreport.xlsx.path").orElse(null);
+
+        // prepare params for the report generation
+        final List<String> reportParams = new ArrayList<>(Arrays.asList(
+                "-s", sonarUrl,
+                "-p", projectKey,
+                "-b", pBranch.isPresent()?pBranch.getValue(): StringManager.NO_BRANCH,
+                "-a", request.getParam(PluginStringManager.getProperty("api.report.args.author")).getValue(),
+                "-t", request.getParam(PluginStringManager.getProperty("api.report.args.token")).getValue(),
+                "-l", pLanguage.isPresent()?pLanguage.getValue(): StringManager.getProperty(StringManager.DEFAULT_LANGUAGE)
+        ));
+
+        // add files templates paths to params if defined
+        if (docxPath != null) {
+            reportParams.add("-r");
+            reportParams.add(docxPath);
+        }
+        if (mdPath != null) {
+            reportParams.add("-n");
+            reportParams.add(mdPath);
+        }
+        if (xlsxPath != null) {
+            reportParams.add("-x");
+            reportParams.add(xlsxPath);
+        }
+
+        String pEnableDocxValue = pEnableDocx.getValue();
+        String pEnableMdValue = pEnableMd.getValue();
+        String pEnableXlsxValue = pEnableXlsx.getValue();
+        String pEnableCsvValue = pEnableCsv.getValue();
+        String pEnableConfValue = pEnableConf.getValue();
+
+        // add disable files generation params if requested
+        if(pEnableDocxValue != null && (pEnableDocxValue.equals(FALSE) || pEnableDocxValue.equals(NO))) {
+            reportParams.add("-w");
+        }
+        if(pEnableMdValue != null && (pEnableMdValue.equals(FALSE) || pEnableMdValue.equals(NO))) {
+            reportParams.add("-m");
+        }
+        if(pEnableXlsxValue != null && (pEnableXlsxValue.equals(FALSE) || pEnableXlsxValue.equals(NO))) {
+            reportParams.add("-e");
+        }
+        if(pEnableCsvValue != null && (pEnableCsvValue.equals(FALSE) || pEnableCsvValue.equals(NO))) {
+            reportParams.add("-f");
+        }
+        if(pEnableConfValue != null && (pEnableConfValue.equals(FALSE) || pEnableConfValue.equals(NO))) {
+            reportParams.add("-c");
         }
 
-        FileTools.deleteFolder(outputDirectory);
+        return reportParams;
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.RequestHandler;
+import org.sonar.api.server.ws.Response;
+
+import java.io.IOException;
+
+/**
+ * Send a report generated in background
+ */
+public class JobDownloadTask implements RequestHandler {
+
+    /**
+     * HTTP status of a job which is not finished or failed
+     */
+    private static final int CONFLICT = 409;
+
+    // Jobs of the plugin
+    private final ReportJobs jobs;
+
+    /**
+     * public constructor
+     * @param jobs jobs of the plugin
+     */
+    JobDownloadTask(ReportJobs jobs){
+        this.jobs = jobs;
+    }
+
+    /**
+     * handle a request, write the zip of the job in response stream.
+     * @param request
+     * @param response
+     */
+    @Override
+    public void handle(Request request, Response response) throws IOException {
+        final ReportJobs.Job job = JobStatusTask.getJob(jobs, request);
+        if (job == null) {
+            JobStatusTask.writeError(response, JobStatusTask.NOT_FOUND,
+                    PluginStringManager.getProperty("api.jobs.unknown"));
+        } else if (job.getState() != ReportJobs.State.SUCCESS) {
+            JobStatusTask.writeError(response, CONFLICT,
+                    String.format(PluginStringManager.getProperty("api.jobs.notReady"), job.getState()));
+        } else {
+            final Response.Stream stream = response.stream();
+            // the job may expire between its lookup and its download
+            final boolean sent = jobs.sendZip(job, () -> {
+                stream.setMediaType("application/zip");
+                response.setHeader("Content-Disposition", "attachment; filename=\"" + job.getName() + '"');
+                return stream.output();
+            });
+            if (!sent) {
+                JobStatusTask.writeError(response, JobStatusTask.NOT_FOUND,
+                        PluginStringManager.getProperty("api.jobs.unknown"));
+            }
+        }
+    }
+}
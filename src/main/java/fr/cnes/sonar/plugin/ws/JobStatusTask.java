@@ -0,0 +1,129 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.RequestHandler;
+import org.sonar.api.server.ws.Response;
+import org.sonarqube.ws.MediaTypes;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Give the state of a report generated in background
+ */
+public class JobStatusTask implements RequestHandler {
+
+    /**
+     * HTTP status of an unknown job
+     */
+    static final int NOT_FOUND = 404;
+
+    // Jobs of the plugin
+    private final ReportJobs jobs;
+
+    /**
+     * public constructor
+     * @param jobs jobs of the plugin
+     */
+    JobStatusTask(ReportJobs jobs){
+        this.jobs = jobs;
+    }
+
+    /**
+     * handle a request, write the state of the job in response stream.
+     * @param request
+     * @param response
+     */
+    @Override
+    public void handle(Request request, Response response) throws IOException {
+        final ReportJobs.Job job = getJob(jobs, request);
+        if (job == null) {
+            writeError(response, NOT_FOUND, PluginStringManager.getProperty("api.jobs.unknown"));
+        } else {
+            writeJob(response, job, jobs);
+        }
+    }
+
+    /**
+     * Get the job of a request, it must belong to the token of the request
+     * @param jobs jobs of the plugin
+     * @param request the request
+     * @return the job, null if unknown
+     */
+    static ReportJobs.Job getJob(final ReportJobs jobs, final Request request) {
+        final String id = request.getParam(PluginStringManager.getProperty("api.jobs.args.id")).getValue();
+        final String token = request.getParam(PluginStringManager.getProperty("api.report.args.token")).getValue();
+        return jobs.get(id, token);
+    }
+
+    /**
+     * Write the state of a job and of the queue
+     * @param response the response
+     * @param job the job
+     * @param jobs jobs of the plugin
+     * @throws IOException when the response cannot be written
+     */
+    static void writeJob(final Response response, final ReportJobs.Job job, final ReportJobs jobs)
+            throws IOException {
+        response.stream().setMediaType(MediaTypes.JSON);
+        try (
+            OutputStreamWriter writer = new OutputStreamWriter(response.stream().output(), StandardCharsets.UTF_8);
+            JsonWriter jsonWriter = new JsonWriter(writer);
+        ) {
+            jsonWriter.beginObject();
+            jsonWriter.name("id").value(job.getId());
+            jsonWriter.name("state").value(job.getState().name());
+            if (job.getError() != null) {
+                jsonWriter.name("error").value(job.getError());
+            }
+            jsonWriter.name("queue").beginObject();
+            jsonWriter.name("queued").value(jobs.getQueuedCount());
+            jsonWriter.name("running").value(jobs.getRunningCount());
+            jsonWriter.name("capacity").value(jobs.getQueueCapacity());
+            jsonWriter.endObject();
+            jsonWriter.endObject();
+            jsonWriter.flush();
+        }
+    }
+
+    /**
+     * Write an error
+     * @param response the response
+     * @param status HTTP status of the response
+     * @param message the error
+     * @throws IOException when the response cannot be written
+     */
+    static void writeError(final Response response, final int status, final String message) throws IOException {
+        response.stream().setStatus(status);
+        response.stream().setMediaType(MediaTypes.JSON);
+        try (
+            OutputStreamWriter writer = new OutputStreamWriter(response.stream().output(), StandardCharsets.UTF_8);
+            JsonWriter jsonWriter = new JsonWriter(writer);
+        ) {
+            jsonWriter.beginObject();
+            jsonWriter.name("error").value(message);
+            jsonWriter.endObject();
+            jsonWriter.flush();
+        }
+    }
+}
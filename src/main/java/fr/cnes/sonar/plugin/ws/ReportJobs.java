@@ -0,0 +1,351 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.FileTools;
+import fr.cnes.sonar.plugin.tools.ZipStream;
+import fr.cnes.sonar.report.factory.ReportFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reports generated in background by a bounded pool of workers
+ * Finished reports are kept on disk until their time to live is over.
+ */
+public class ReportJobs {
+
+    /** Logger of this class */
+    private static final Logger LOGGER = Logger.getLogger(ReportJobs.class.getName());
+
+    /**
+     * State of a job
+     */
+    public enum State {
+        /** Waiting for a worker */
+        QUEUED,
+        /** Being generated */
+        RUNNING,
+        /** Ready to be downloaded */
+        SUCCESS,
+        /** Generation failed */
+        FAILED
+    }
+
+    /**
+     * Generates the files of a report
+     */
+    @FunctionalInterface
+    public interface Generator {
+        /**
+         * Generate the files of a report
+         * @param outputDirectory directory where to write the files
+         * @param listener receives each generated file
+         * @throws Exception when the report cannot be generated
+         */
+        void generate(File outputDirectory, ReportFactory.ArtifactListener listener) throws Exception;
+    }
+
+    /**
+     * Thrown when a job cannot be accepted
+     */
+    public static class RejectedJobException extends Exception {
+        /**
+         * Constructor
+         * @param message the text to print (exception's details)
+         */
+        public RejectedJobException(final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A report generated in background
+     */
+    public static final class Job {
+        /** Identifier of the job */
+        private final String id;
+        /** Owner of the job, the only one who can see it */
+        private final String owner;
+        /** Name of the zip when it is downloaded */
+        private final String name;
+        /** The generated zip */
+        private final File zip;
+        /** Current state */
+        private volatile State state = State.QUEUED;
+        /** Message of the error if the generation failed */
+        private volatile String error;
+        /** End of the generation, in milliseconds, set before the final state */
+        private volatile long finishedAt;
+        /** Number of downloads in progress, guarded by the jobs */
+        private int downloads;
+
+        /**
+         * Constructor
+         * @param pId identifier of the job
+         * @param pOwner owner of the job
+         * @param pName name of the zip when it is downloaded
+         * @param pZip the zip to generate
+         */
+        private Job(final String pId, final String pOwner, final String pName, final File pZip) {
+            this.id = pId;
+            this.owner = pOwner;
+            this.name = pName;
+            this.zip = pZip;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public File getZip() {
+            return zip;
+        }
+
+        /**
+         * Tell if the job is waiting or running
+         * @return true until the job is finished
+         */
+        private boolean isActive() {
+            return state == State.QUEUED || state == State.RUNNING;
+        }
+    }
+
+    /**
+     * Maximum number of jobs waiting for a worker
+     */
+    private final int queueCapacity;
+    /**
+     * Maximum number of waiting or running jobs per owner
+     */
+    private final int perOwnerLimit;
+    /**
+     * Time to live of the finished jobs, in milliseconds
+     */
+    private final long timeToLive;
+    /**
+     * Workers generating the reports
+     */
+    private final ThreadPoolExecutor workers;
+    /**
+     * Jobs indexed by id
+     */
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    /**
+     * Directory containing the jobs files, created with the first job
+     */
+    private File directory;
+
+    /**
+     * Constructor
+     * @param workersCount number of reports generated at the same time
+     * @param pQueueCapacity maximum number of jobs waiting for a worker
+     * @param pPerOwnerLimit maximum number of waiting or running jobs per owner
+     * @param pTimeToLive time to live of the finished jobs, in seconds
+     */
+    public ReportJobs(final int workersCount, final int pQueueCapacity, final int pPerOwnerLimit,
+                      final long pTimeToLive) {
+        this.queueCapacity = pQueueCapacity;
+        this.perOwnerLimit = pPerOwnerLimit;
+        this.timeToLive = pTimeToLive * 1000L;
+        this.workers = new ThreadPoolExecutor(workersCount, workersCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(pQueueCapacity), runnable -> {
+            final Thread thread = new Thread(runnable, "cnesreport-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submit a report to generate
+     * @param owner owner of the job
+     * @param name name of the zip when it is downloaded
+     * @param generator generates the files of the report
+     * @return the new job
+     * @throws RejectedJobException when the owner or the queue has too many jobs
+     * @throws IOException when the job directory cannot be created
+     */
+    public synchronized Job submit(final String owner, final String name, final Generator generator)
+            throws RejectedJobException, IOException {
+        purge();
+
+        // limit the jobs of a single owner
+        int active = 0;
+        for (Job job : jobs.values()) {
+            if (job.owner.equals(owner) && job.isActive()) {
+                active++;
+            }
+        }
+        if (active >= perOwnerLimit) {
+            throw new RejectedJobException(String.format("Too many reports in progress for this user (%d).",
+                    perOwnerLimit));
+        }
+
+        if (directory == null) {
+            directory = Files.createTempDirectory("cnesreport-jobs").toFile();
+        }
+        final String id = UUID.randomUUID().toString();
+        final Job job = new Job(id, owner, name, new File(directory, id + ".zip"));
+        try {
+            workers.execute(() -> run(job, generator));
+        } catch (RejectedExecutionException e) {
+            throw new RejectedJobException(String.format("Too many reports in queue (%d).", queueCapacity));
+        }
+        jobs.put(id, job);
+        return job;
+    }
+
+    /**
+     * Generate the report of a job in a zip
+     * @param job the job
+     * @param generator generates the files of the report
+     */
+    private void run(final Job job, final Generator generator) {
+        job.state = State.RUNNING;
+        final File outputDirectory = new File(directory, job.id);
+        try {
+            Files.createDirectories(outputDirectory.toPath());
+            try (ZipStream zip = new ZipStream(outputDirectory, () -> Files.newOutputStream(job.zip.toPath()),
+                    ZipStream.COMPRESSED_EXTENSIONS)) {
+                generator.generate(outputDirectory, zip);
+            }
+            // a purge must never see a finished job without its end
+            job.finishedAt = System.currentTimeMillis();
+            job.state = State.SUCCESS;
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, e.getMessage(), e);
+            job.error = e.getMessage();
+            deleteZip(job);
+            job.finishedAt = System.currentTimeMillis();
+            job.state = State.FAILED;
+        } finally {
+            FileTools.deleteFolder(outputDirectory);
+        }
+    }
+
+    /**
+     * Get a job of an owner
+     * @param id identifier of the job
+     * @param owner owner of the job
+     * @return the job, null if it does not exist, belongs to someone else or expired
+     */
+    public Job get(final String id, final String owner) {
+        purge();
+        final Job job = id == null ? null : jobs.get(id);
+        return job != null && job.owner.equals(owner) ? job : null;
+    }
+
+    /**
+     * Send the zip of a job, the zip is not deleted by a purge while it is sent
+     * @param job the job, successfully finished
+     * @param target opens the destination of the zip, called only if the job still exists
+     * @return false if the job has been purged meanwhile, nothing is sent
+     * @throws IOException when the zip cannot be sent
+     */
+    public boolean sendZip(final Job job, final ZipStream.Target target) throws IOException {
+        synchronized (this) {
+            if (jobs.get(job.id) != job) {
+                return false;
+            }
+            job.downloads++;
+        }
+        try {
+            Files.copy(job.zip.toPath(), target.open());
+        } finally {
+            synchronized (this) {
+                job.downloads--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove the finished jobs which are too old, with their zip.
+     * The jobs being downloaded are kept until a later purge.
+     */
+    public synchronized void purge() {
+        final long now = System.currentTimeMillis();
+        final Iterator<Job> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            final Job job = iterator.next();
+            if (!job.isActive() && job.downloads == 0 && now - job.finishedAt > timeToLive) {
+                iterator.remove();
+                deleteZip(job);
+            }
+        }
+    }
+
+    /**
+     * Delete the zip of a job
+     * @param job the job
+     */
+    private static void deleteZip(final Job job) {
+        try {
+            Files.deleteIfExists(job.zip.toPath());
+        } catch (IOException e) {
+            LOGGER.warning(e.getMessage());
+        }
+    }
+
+    /**
+     * Number of jobs waiting for a worker
+     * @return the depth of the queue
+     */
+    public int getQueuedCount() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * Number of jobs being generated
+     * @return the number of busy workers
+     */
+    public int getRunningCount() {
+        return workers.getActiveCount();
+    }
+
+    /**
+     * Maximum number of jobs waiting for a worker
+     * @return the capacity of the queue
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+}
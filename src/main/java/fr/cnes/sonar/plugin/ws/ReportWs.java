@@ -18,20 +18,49 @@
 package fr.cnes.sonar.plugin.ws;
 
 import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import fr.cnes.sonar.plugin.settings.ReportSonarPluginProperties;
+import fr.cnes.sonar.plugin.tools.ReportCache;
 import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ws.RequestHandler;
 import org.sonar.api.server.ws.WebService;
 
+import java.io.File;
+
 public class ReportWs implements WebService {
 
     // Sonarqube configuration
     private final Configuration config;
 
+    // Reports generated in background
+    private final ReportJobs jobs;
+
+    // Reports already generated by the report action
+    private final ReportCache cache;
+
     /**
      * public constructor, called by sonarqube
      * @param config
      */
     public ReportWs(Configuration config){
         this.config = config;
+        this.jobs = new ReportJobs(
+                getInt(ReportSonarPluginProperties.JOBS_WORKERS_KEY, ReportSonarPluginProperties.JOBS_WORKERS_DEFAULT),
+                getInt(ReportSonarPluginProperties.JOBS_QUEUE_KEY, ReportSonarPluginProperties.JOBS_QUEUE_DEFAULT),
+                getInt(ReportSonarPluginProperties.JOBS_PER_USER_KEY, ReportSonarPluginProperties.JOBS_PER_USER_DEFAULT),
+                getInt(ReportSonarPluginProperties.JOBS_TTL_KEY, ReportSonarPluginProperties.JOBS_TTL_DEFAULT));
+        this.cache = new ReportCache(new File(System.getProperty("java.io.tmpdir"), "cnesreport-cache"),
+                getInt(ReportSonarPluginProperties.CACHE_SIZE_KEY, ReportSonarPluginProperties.CACHE_SIZE_DEFAULT)
+                        * 1024L * 1024L);
+    }
+
+    /**
+     * Get an integer property of the configuration
+     * @param key key of the property
+     * @param defaultValue value if the property is not set
+     * @return the value of the property
+     */
+    private int getInt(final String key, final int defaultValue) {
+        return config == null ? defaultValue : config.getInt(key).orElse(defaultValue);
     }
 
     /**
@@ -44,6 +73,9 @@ public class ReportWs implements WebService {
         controller.setSince(PluginStringManager.getProperty("plugin.since"));
         controller.setDescription(PluginStringManager.getProperty("api.description"));
         reportAction(controller);
+        submitAction(controller);
+        jobAction(controller, "api.status", new JobStatusTask(jobs));
+        jobAction(controller, "api.download", new JobDownloadTask(jobs));
         controller.done();
     }
 
@@ -58,8 +90,58 @@ public class ReportWs implements WebService {
         report.setSince(PluginStringManager.getProperty("plugin.since"));
 
         // Bind webservice to export task
-        report.setHandler(new ExportTask(config));
+        report.setHandler(new ExportTask(config, cache));
+
+        addReportParams(report);
+    }
+
+    /**
+     * Define action submitting a report to generate in background
+     * @param controller
+     */
+    private void submitAction(final WebService.NewController controller){
+        final WebService.NewAction submit = controller.createAction(PluginStringManager.getProperty("api.submit.actionKey"));
+        submit.setDescription(PluginStringManager.getProperty("api.submit.description"));
+        submit.setSince(PluginStringManager.getProperty("plugin.since"));
+        submit.setPost(true);
 
+        // Bind webservice to submit task
+        submit.setHandler(new SubmitTask(config, jobs));
+
+        addReportParams(submit);
+    }
+
+    /**
+     * Define action reading a job submitted in background
+     * @param controller
+     * @param prefix prefix of the properties of the action
+     * @param handler handler of the action
+     */
+    private void jobAction(final WebService.NewController controller, final String prefix,
+                           final RequestHandler handler){
+        final WebService.NewAction action = controller.createAction(PluginStringManager.getProperty(prefix + ".actionKey"));
+        action.setDescription(PluginStringManager.getProperty(prefix + ".description"));
+        action.setSince(PluginStringManager.getProperty("plugin.since"));
+        action.setHandler(handler);
+
+        // Adding id argument
+        WebService.NewParam idParam = action.createParam(PluginStringManager.getProperty("api.jobs.args.id"));
+        idParam.setDescription(PluginStringManager.getProperty("api.jobs.args.description.id"));
+        idParam.setRequired(true);
+        idParam.setExampleValue(PluginStringManager.getProperty("api.jobs.args.exampleValue.id"));
+
+        // Adding token argument, only the token which submitted the job can read it
+        WebService.NewParam tokenParam = action.createParam(PluginStringManager.getProperty("api.report.args.token"));
+        tokenParam.setDescription(PluginStringManager.getProperty("api.report.args.description.token"));
+        tokenParam.setRequired(true);
+        tokenParam.setExampleValue(PluginStringManager.getProperty("api.report.args.exampleValue.token"));
+    }
+
+    /**
+     * Add the parameters of a report generation to an action
+     * @param report the action
+     */
+    private static void addReportParams(final WebService.NewAction report){
         // Adding key argument
         WebService.NewParam keyParam = report.createParam(PluginStringManager.getProperty("api.report.args.key"));
         keyParam.setDescription(PluginStringManager.getProperty("api.report.args.description.key"));
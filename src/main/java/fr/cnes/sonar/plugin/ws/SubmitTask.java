@@ -0,0 +1,88 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.plugin.ws;
+
+import fr.cnes.sonar.plugin.tools.PluginStringManager;
+import fr.cnes.sonar.report.ReportCommandLine;
+import fr.cnes.sonar.report.factory.ReportFactory;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.RequestHandler;
+import org.sonar.api.server.ws.Response;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Submit a report to generate in background
+ * The web thread returns as soon as the job is queued.
+ */
+public class SubmitTask implements RequestHandler {
+
+    /**
+     * HTTP status of a rejected job
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    // Sonarqube configuration
+    private final Configuration config;
+
+    // Jobs of the plugin
+    private final ReportJobs jobs;
+
+    /**
+     * public constructor
+     * @param config sonarqube configuration
+     * @param jobs jobs of the plugin
+     */
+    SubmitTask(Configuration config, ReportJobs jobs){
+        this.config = config;
+        this.jobs = jobs;
+    }
+
+    /**
+     * handle a request, write the queued job in response stream.
+     * @param request
+     * @param response
+     */
+    @Override
+    public void handle(Request request, Response response) throws IOException, ParseException {
+        // parameters are read now, the request is over when the job runs
+        final List<String> params = ExportTask.getReportParams(config, request);
+        final String projectKey = request.getParam(PluginStringManager.getProperty("api.report.args.key")).getValue();
+        final String token = request.getParam(PluginStringManager.getProperty("api.report.args.token")).getValue();
+        final String filename = ReportFactory.formatFilename("zip.report.output", "", "", projectKey);
+
+        try {
+            // the job reaches the server with the token of the request, as in standalone mode
+            final ReportJobs.Job job = jobs.submit(token, filename, (outputDirectory, listener) -> {
+                final List<String> reportParams = new ArrayList<>(Arrays.asList(
+                        "report",
+                        "-o", outputDirectory.getAbsolutePath()));
+                reportParams.addAll(params);
+                ReportCommandLine.execute(reportParams.toArray(new String[reportParams.size()]), null, listener);
+            });
+            JobStatusTask.writeJob(response, job, jobs);
+        } catch (ReportJobs.RejectedJobException e) {
+            JobStatusTask.writeError(response, TOO_MANY_REQUESTS, e.getMessage());
+        }
+    }
+}
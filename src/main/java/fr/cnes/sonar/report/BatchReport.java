@@ -0,0 +1,241 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package fr.cnes.sonar.report;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.factory.ReportFactory;
+import fr.cnes.sonar.report.factory.StandaloneProviderFactory;
+import fr.cnes.sonar.report.providers.SharedResponses;
+import fr.cnes.sonar.report.providers.project.ProjectSearchProvider;
+import fr.cnes.sonar.report.utils.ReportConfiguration;
+import fr.cnes.sonar.report.utils.StringManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Generate the reports of several projects in a single process.
+ * The reports share the connections, the server checks and the responses which do not depend on the project
+ * (languages, metrics, quality gates and quality profiles).
+ */
+public final class BatchReport {
+
+    /**
+     * Prefix of a projects selection made with api/projects/search
+     */
+    static final String SEARCH_PREFIX = "search:";
+    /**
+     * Prefix of the comments in a projects file
+     */
+    private static final String COMMENT_PREFIX = "#";
+    /**
+     * Characters of a project key which cannot be in a folder name
+     */
+    private static final Pattern FOLDER_FORBIDDEN_CHARS = Pattern.compile("[^A-Za-z0-9._-]");
+
+    /** Logger of this class */
+    private static final Logger LOGGER = Logger.getLogger(BatchReport.class.getName());
+
+    /**
+     * Private constructor to not be able to instantiate it.
+     */
+    private BatchReport(){}
+
+    /**
+     * Get the keys of the projects of a batch
+     * @param projects a file listing one project key per line, "search:" followed by a text to search
+     *                 with api/projects/search or a glob on the project keys
+     * @param url url of the server
+     * @param token token of the user
+     * @return the keys of the projects
+     * @throws IOException when the file cannot be read
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    public static List<String> getProjectKeys(final String projects, final String url, final String token)
+            throws IOException, BadSonarQubeRequestException, SonarQubeException {
+        final List<String> keys;
+        final File file = new File(projects);
+        if (file.isFile()) {
+            keys = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith(COMMENT_PREFIX))
+                    .distinct()
+                    .collect(Collectors.toList());
+        } else if (projects.startsWith(SEARCH_PREFIX)) {
+            keys = new ProjectSearchProvider(url, token).getProjectKeys(projects.substring(SEARCH_PREFIX.length()));
+        } else {
+            final Pattern glob = globToPattern(projects);
+            keys = new ProjectSearchProvider(url, token).getProjectKeys(StringManager.EMPTY).stream()
+                    .filter(key -> glob.matcher(key).matches())
+                    .collect(Collectors.toList());
+        }
+        return keys;
+    }
+
+    /**
+     * Convert a glob into a regular expression, "*" matches any text and "?" any character
+     * @param glob the glob
+     * @return the compiled regular expression
+     */
+    static Pattern globToPattern(final String glob) {
+        final StringBuilder regex = new StringBuilder();
+        final StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                regex.append(Pattern.quote(literal.toString())).append(c == '*' ? ".*" : ".");
+                literal.setLength(0);
+            } else {
+                literal.append(c);
+            }
+        }
+        regex.append(Pattern.quote(literal.toString()));
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Name of the folder containing the report of a project
+     * @param projectKey key of the project
+     * @return the key without the characters forbidden in a folder name
+     */
+    static String getFolderName(final String projectKey) {
+        return FOLDER_FORBIDDEN_CHARS.matcher(projectKey).replaceAll("_");
+    }
+
+    /**
+     * Names of the folders containing the reports of the projects of a batch.
+     * Keys giving the same name (e.g: "org:app" and "org_app", or names differing only by case)
+     * get a numbered suffix, so two reports never write in the same folder.
+     * @param projectKeys keys of the projects
+     * @return the name of the folder of each project, indexed by key
+     */
+    static Map<String, String> getFolderNames(final List<String> projectKeys) {
+        final Map<String, String> names = new LinkedHashMap<>();
+        // names already used, in lower case for case insensitive file systems
+        final Set<String> used = new HashSet<>();
+        for (String key : projectKeys) {
+            final String base = getFolderName(key);
+            String name = base;
+            for (int i = 2; !used.add(name.toLowerCase(Locale.ROOT)); i++) {
+                name = base + '-' + i;
+            }
+            if (!name.equals(base)) {
+                LOGGER.info(String.format("Report of %s written in %s to avoid a name collision.", key, name));
+            }
+            names.put(key, name);
+        }
+        return names;
+    }
+
+    /**
+     * Generate the reports of all the projects of a batch, a failed report does not stop the others.
+     * The server must have been checked and the locale set before.
+     * @param conf configuration of the batch
+     * @param url url of the server
+     * @param listener receives the generated files of all the reports
+     * @throws IOException when the projects file cannot be read
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    public static void execute(final ReportConfiguration conf, final String url,
+                               final ReportFactory.ArtifactListener listener)
+            throws IOException, BadSonarQubeRequestException, SonarQubeException {
+        final List<String> keys = getProjectKeys(conf.getProjects(), url, conf.getToken());
+        String message = String.format("Batch of %d project(s), %d report(s) at the same time.", keys.size(),
+                conf.getParallelism());
+        LOGGER.info(message);
+
+        final Map<String, String> folders = getFolderNames(keys);
+        final SharedResponses sharedResponses = new SharedResponses();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, conf.getParallelism()),
+                runnable -> {
+            final Thread thread = new Thread(runnable, "cnesreport-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final Map<String, Future<Void>> reports = new LinkedHashMap<>();
+        try {
+            for (String key : keys) {
+                final ReportConfiguration projectConf = conf.forProject(key,
+                        new File(conf.getOutput(), folders.get(key)).getPath());
+                reports.put(key, executor.submit(() -> {
+                    ReportCommandLine.generate(projectConf, new StandaloneProviderFactory(url, conf.getToken(), key,
+                            conf.getBranch(), sharedResponses), listener);
+                    return null;
+                }));
+            }
+            final List<String> failures = new ArrayList<>();
+            for (Map.Entry<String, Future<Void>> report : reports.entrySet()) {
+                if (!await(report.getKey(), report.getValue())) {
+                    failures.add(report.getKey());
+                }
+            }
+
+            message = String.format("Batch generation: %d report(s) generated, %d failed.",
+                    keys.size() - failures.size(), failures.size());
+            LOGGER.info(message);
+            if (!failures.isEmpty()) {
+                throw new IllegalStateException("Reports generation failed for: " + String.join(", ", failures));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Wait for the report of a project and log its failure if any
+     * @param key key of the project
+     * @param report the report being generated
+     * @return true if the report was generated
+     * @throws SonarQubeException when the batch is interrupted
+     */
+    private static boolean await(final String key, final Future<Void> report) throws SonarQubeException {
+        boolean success = false;
+        try {
+            report.get();
+            success = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SonarQubeException("Interrupted while generating the reports.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            LOGGER.log(Level.SEVERE, cause, () -> String.format("Report generation of %s: FAILURE (%s)", key,
+                    cause.getMessage()));
+        }
+        return success;
+    }
+}
@@ -21,6 +21,7 @@ import fr.cnes.sonar.report.exceptions.BadExportationDataTypeException;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
+import fr.cnes.sonar.report.exporters.CSVExporter;
 import fr.cnes.sonar.report.factory.ProviderFactory;
 import fr.cnes.sonar.report.factory.ReportFactory;
 import fr.cnes.sonar.report.factory.ReportModelFactory;
@@ -91,18 +92,38 @@ public final class ReportCommandLine {
     }
 
     public static void execute(final String[] args, final WsClient wsClient) throws BadExportationDataTypeException , BadSonarQubeRequestException , IOException,
+    UnknownQualityGateException, OpenXML4JException, XmlException, SonarQubeException, ParseException {
+        execute(args, wsClient, file -> { });
+    }
+
+    /**
+     * Generate a report, each file is given to a listener as soon as it is written
+     * (e.g: to send it while the other files are generated).
+     * With the -k argument, the reports of several projects are generated (see {@link BatchReport}).
+     * @param args Arguments that will be preprocessed.
+     * @param wsClient The web client, null in standalone mode.
+     * @param listener Receives the generated files.
+     */
+    public static void execute(final String[] args, final WsClient wsClient,
+                               final ReportFactory.ArtifactListener listener)
+            throws BadExportationDataTypeException , BadSonarQubeRequestException , IOException,
     UnknownQualityGateException, OpenXML4JException, XmlException, SonarQubeException, ParseException {
         // Log message.
         String message;
 
         // Parse command line arguments.
         final ReportConfiguration conf = ReportConfiguration.create(args);
-        if(conf.getProject().isEmpty()){
-            throw new IllegalStateException("Please provide a project with the -p argument, you can also use -h argument to display help.");
+        final boolean batch = !conf.getProjects().isEmpty();
+        if(batch && wsClient != null){
+            throw new IllegalStateException("The -k argument is only available in standalone mode.");
+        }
+        if(!batch && conf.getProject().isEmpty()){
+            throw new IllegalStateException("Please provide a project with the -p argument or a list of projects with the -k argument, you can also use -h argument to display help.");
         }
 
         // Set the language of the report.
         // assumes the language is set with language_country
+        // the locale is global: all the reports of a batch use the same language
         StringManager.changeLocale(conf.getLanguage());
 
         // format server URL
@@ -123,7 +144,7 @@ public final class ReportCommandLine {
             providerFactory = new PluginProviderFactory(conf.getProject(), conf.getBranch(), wsClient);
         }
 
-        // Initialize connexion with SonarQube and retrieve primitive information
+        // Initialize connexion with SonarQube and retrieve primitive information, once for a batch
         final SonarQubeServer server = new ServerFactory(url, providerFactory).create();
 
         message = String.format("SonarQube online: %s", server.isUp());
@@ -140,12 +161,36 @@ public final class ReportCommandLine {
             throw new SonarQubeException("SonarQube instance is not supported by cnesreport.");
         }
 
-        // Generate the model of the report.
-        final Report model = new ReportModelFactory(conf.getProject(), conf.getBranch(), conf.getAuthor(), conf.getDate(), providerFactory).create();
-        // Generate results files.
-        ReportFactory.report(conf, model);
+        if (batch) {
+            BatchReport.execute(conf, url, listener);
+        } else {
+            generate(conf, providerFactory, listener);
+        }
+    }
+
+    /**
+     * Generate the report of a project on a checked server.
+     * @param conf Configuration of the report.
+     * @param providerFactory Factory of the providers of the project.
+     * @param listener Receives the generated files.
+     */
+    static void generate(final ReportConfiguration conf, final ProviderFactory providerFactory,
+                         final ReportFactory.ArtifactListener listener)
+            throws BadExportationDataTypeException , BadSonarQubeRequestException , IOException,
+    UnknownQualityGateException, OpenXML4JException, XmlException, SonarQubeException, ParseException {
+        final ReportModelFactory modelFactory = new ReportModelFactory(conf.getProject(), conf.getBranch(), conf.getAuthor(), conf.getDate(), providerFactory);
+        // The CSV is written while the issues are crawled, raw issues are kept only for the spreadsheet.
+        try (CSVExporter.RawIssuesStream rawIssues = conf.isEnableCSV() ? new CSVExporter.RawIssuesStream() : null) {
+            if (rawIssues != null) {
+                modelFactory.setRawIssuesConsumer(rawIssues, conf.isEnableSpreadsheet());
+            }
+            // Generate the model of the report.
+            final Report model = modelFactory.create();
+            // Generate results files.
+            ReportFactory.report(conf, model, rawIssues, listener);
+        }
 
-        message = "Report generation: SUCCESS";
+        final String message = String.format("Report generation of %s: SUCCESS", conf.getProject());
         LOGGER.info(message);
     }
 
@@ -17,72 +17,338 @@
 package fr.cnes.sonar.report.exporters;
 
 import fr.cnes.sonar.report.exceptions.BadExportationDataTypeException;
-import fr.cnes.sonar.report.exporters.xlsx.XlsXTools;
 import fr.cnes.sonar.report.model.Report;
+import fr.cnes.sonar.report.providers.PageFetcher;
 import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Export issues as tab separated values
+ * Issues come either from a report or from a stream written page by page while the issues are crawled
+ */
 public class CSVExporter implements IExporter {
+
+    /**
+     * Size of the buffer of the writer
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Value written for a missing field
+     */
+    private static final String MISSING = "-";
+    /**
+     * Separator between the elements of a field containing a list (e.g: comments)
+     */
+    private static final String LIST_SEPARATOR = " / ";
+    /**
+     * Format of the files
+     */
+    private static final CSVFormat FORMAT = CSVFormat.EXCEL.withDelimiter('\t');
+
+    /**
+     * Export the raw issues of a report or of a stream
+     * @param data a Report or a RawIssuesStream
+     * @param path Path where to export the file
+     * @param filename Name of the file to export
+     * @return Generated file.
+     * @throws BadExportationDataTypeException resources has not the good type
+     * @throws IOException when the file cannot be written
+     */
     @Override
     public File export(Object data, String path, String filename) throws IOException, BadExportationDataTypeException {
 
-        if (!(data instanceof Report)) {
+        if (!(data instanceof Report) && !(data instanceof RawIssuesStream)) {
             throw new BadExportationDataTypeException();
         }
 
-        final String filePath = path;
-        final Report report = (Report) data;
-
-        // Opening file
-        File file = new File(filePath);
-        FileWriter outputfile = new FileWriter(file);
-        try(CSVPrinter csvPrinter = new CSVPrinter(outputfile, CSVFormat.EXCEL.withDelimiter('\t'))){
-
-          List<Map<String,String>> allIssues = report.getRawIssues();
-
-          // Extracting headers
-          List<String> headers = XlsXTools.extractHeader(allIssues);
-
-          // Writing headers
-          csvPrinter.printRecord(headers);
-
-          // Writing lines
-          List<String> line;
-          Object tmpCol;
-          StringBuilder tmpString;
-          for(Map<String, String> issue:allIssues){
-              line = new ArrayList<>();
-              for(String col: headers){
-                  tmpCol = issue.get(col);
-
-                  // Sometimes it returns an array of string (e.g: for comments)
-                  if(tmpCol instanceof ArrayList){
-                      tmpString = new StringBuilder();
-                      for(Object comment: (ArrayList)tmpCol){
-                          tmpString.append(comment).append(" / ");
-                      }
-                      line.add(tmpString.toString());
-                  }
-                  else if(tmpCol == null){
-                      line.add("-");
-                  }
-                  // Sometimes it returns boolean or int
-                  // This case work with String and every object that can be converted into string
-                  else{
-                      line.add(tmpCol.toString());
-                  }
-              }
-              csvPrinter.printRecord(line);
-          }
+        final File file = new File(path);
+        if (data instanceof RawIssuesStream) {
+            // rows are already written, only the header is missing
+            ((RawIssuesStream) data).writeTo(file);
+        } else {
+            // Opening file
+            try(BufferedWriter writer = open(file)){
+
+                final List<Map<String,String>> allIssues = ((Report) data).getRawIssues();
+                // Extracting headers in a single pass
+                writeRows(writer, TableSchema.of(allIssues), allIssues);
+            }
         }
 
         return file;
     }
+
+    /**
+     * Open a buffered UTF-8 writer on a file
+     * @param file the file to write
+     * @return the writer
+     * @throws IOException when the file cannot be opened
+     */
+    private static BufferedWriter open(final File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()),
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Write rows as tab separated values, the header first
+     * Rows are written one at a time through a single reused buffer
+     * @param out destination of the values
+     * @param schema columns to write
+     * @param rows rows to write
+     * @throws IOException when writing fails
+     */
+    public static void writeRows(final Appendable out, final TableSchema schema,
+                                 final Iterable<? extends Map<String, ?>> rows) throws IOException {
+        final RowWriter writer = new RowWriter(out);
+        writer.start(schema);
+        writer.write(rows);
+        writer.flush();
+    }
+
+    /**
+     * Format a field of a row
+     * @param value value of the field
+     * @return the value to print
+     */
+    private static Object format(final Object value){
+        final Object result;
+        // Sometimes it returns an array of string (e.g: for comments)
+        if(value instanceof Collection){
+            final StringBuilder tmpString = new StringBuilder();
+            for(Object comment: (Collection<?>) value){
+                tmpString.append(comment).append(LIST_SEPARATOR);
+            }
+            result = tmpString.toString();
+        }
+        else if(value == null){
+            result = MISSING;
+        }
+        // Sometimes it returns boolean or int
+        // This case work with String and every object that can be printed as a string
+        else{
+            result = value;
+        }
+        return result;
+    }
+
+    /**
+     * Writer of rows, the same buffer is used for all rows
+     */
+    private static final class RowWriter {
+        /**
+         * Printer of the values
+         */
+        private final CSVPrinter csvPrinter;
+        /**
+         * Columns to write, set when the header is written
+         */
+        private TableSchema schema;
+        /**
+         * Buffer of the current row
+         */
+        private Object[] line;
+
+        /**
+         * Constructor
+         * @param out destination of the values
+         * @throws IOException when the printer cannot be created
+         */
+        private RowWriter(final Appendable out) throws IOException {
+            this.csvPrinter = new CSVPrinter(out, FORMAT);
+        }
+
+        /**
+         * Write the header
+         * @param pSchema columns to write
+         * @throws IOException when writing fails
+         */
+        private void start(final TableSchema pSchema) throws IOException {
+            setSchema(pSchema);
+            csvPrinter.printRecord(pSchema.getHeaders());
+        }
+
+        /**
+         * Set the columns of the next rows, without writing the header
+         * @param pSchema columns to write
+         */
+        private void setSchema(final TableSchema pSchema) {
+            this.schema = pSchema;
+            this.line = new Object[pSchema.size()];
+        }
+
+        /**
+         * Write rows
+         * @param rows rows to write
+         * @throws IOException when writing fails
+         */
+        private void write(final Iterable<? extends Map<String, ?>> rows) throws IOException {
+            for(Map<String, ?> issue : rows){
+                schema.toColumns(issue, line);
+                for(int i = 0; i < line.length; i++){
+                    line[i] = format(line[i]);
+                }
+                csvPrinter.printRecord(line);
+            }
+        }
+
+        /**
+         * Write rows read back from a file written with fewer columns, missing columns are completed
+         * @param rows rows to write
+         * @throws IOException when writing fails
+         */
+        private void complete(final Iterable<CSVRecord> rows) throws IOException {
+            for(CSVRecord row : rows){
+                Arrays.fill(line, MISSING);
+                for(int i = 0; i < row.size() && i < line.length; i++){
+                    line[i] = row.get(i);
+                }
+                csvPrinter.printRecord(line);
+            }
+        }
+
+        /**
+         * Flush the printer
+         * @throws IOException when writing fails
+         */
+        private void flush() throws IOException {
+            csvPrinter.flush();
+        }
+    }
+
+    /**
+     * Raw issues written page by page while they are crawled, so only the current page is held in memory.
+     * Columns met in later pages (e.g: an optional field) are added at the end: rows are written
+     * to a temporary file with the columns known so far, then the final file gets the header
+     * of all the columns followed by the rows, the rows written before a column appeared are completed.
+     */
+    public static final class RawIssuesStream implements PageFetcher.PageConsumer<List<Map<String,String>>>,
+            Closeable {
+
+        /**
+         * Temporary file receiving the rows
+         */
+        private final File rows;
+        /**
+         * Writer of the temporary file
+         */
+        private final BufferedWriter output;
+        /**
+         * Writer of the rows
+         */
+        private final RowWriter writer;
+        /**
+         * Columns met so far
+         */
+        private TableSchema schema = TableSchema.of(Collections.<Map<String, String>>emptyList());
+        /**
+         * Number of rows written
+         */
+        private long written;
+        /**
+         * True if columns appeared after some rows were written, these rows have to be completed
+         */
+        private boolean incomplete;
+        /**
+         * First error met while writing the rows, thrown when the file is exported
+         */
+        private IOException failure;
+
+        /**
+         * Constructor, the rows are written to a temporary file until the stream is closed
+         * @throws IOException when the temporary file cannot be created
+         */
+        public RawIssuesStream() throws IOException {
+            this.rows = File.createTempFile("cnesreport-issues", ".csv");
+            this.output = open(rows);
+            this.writer = new RowWriter(output);
+        }
+
+        /**
+         * Write the raw issues of a page, pages are given one at a time
+         * @param page index of the page
+         * @param issues raw issues of the page
+         */
+        @Override
+        public void accept(final int page, final List<Map<String,String>> issues) {
+            if (failure == null) {
+                try {
+                    final TableSchema extended = schema.extend(issues);
+                    if (extended != schema) {
+                        incomplete |= written > 0;
+                        schema = extended;
+                        writer.setSchema(extended);
+                    }
+                    writer.write(issues);
+                    written += issues.size();
+                } catch (IOException e) {
+                    // the crawl goes on, the error is thrown with the export
+                    failure = e;
+                }
+            }
+        }
+
+        /**
+         * Write the final file: the header then the rows
+         * @param file the file to write
+         * @throws IOException when the rows could not be written or when the file cannot be written
+         */
+        private void writeTo(final File file) throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            // all the rows are in the temporary file
+            output.close();
+            try(OutputStream out = Files.newOutputStream(file.toPath());
+                BufferedWriter target = new BufferedWriter(
+                        new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)){
+                final RowWriter header = new RowWriter(target);
+                header.start(schema);
+                if (incomplete) {
+                    // rows are read back one at a time
+                    try(Reader reader = new BufferedReader(new InputStreamReader(
+                            Files.newInputStream(rows.toPath()), StandardCharsets.UTF_8), BUFFER_SIZE);
+                        CSVParser parser = FORMAT.parse(reader)){
+                        header.complete(parser);
+                    }
+                    header.flush();
+                } else {
+                    // rows are copied as they are
+                    header.flush();
+                    Files.copy(rows.toPath(), out);
+                }
+            }
+        }
+
+        /**
+         * Delete the temporary file
+         * @throws IOException when the file cannot be closed
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                output.close();
+            } finally {
+                Files.deleteIfExists(rows.toPath());
+            }
+        }
+    }
 }
@@ -167,7 +167,7 @@ public class MarkdownExporter implements IExporter {
             try(FileWriter fileWriter = new FileWriter(path)){
               fileWriter.write(output);
             }
-            return file;
+            return new File(path);
         }
 
 
@@ -0,0 +1,161 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.exporters;
+
+import fr.cnes.sonar.report.model.ColumnTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Columns of a list of maps exported as a table
+ * Headers are in order of first appearance and each key gives its column in constant time
+ */
+public final class TableSchema {
+
+    /**
+     * Position of each header
+     */
+    private final Map<String, Integer> index;
+    /**
+     * Headers in order
+     */
+    private final List<String> headers;
+
+    /**
+     * Constructor
+     * @param pHeaders headers in order, without duplicate
+     */
+    private TableSchema(final List<String> pHeaders) {
+        this.headers = Collections.unmodifiableList(new ArrayList<>(pHeaders));
+        this.index = new LinkedHashMap<>();
+        for (String header : pHeaders) {
+            index.put(header, index.size());
+        }
+    }
+
+    /**
+     * Discover the columns of a list of maps in a single pass over their keys,
+     * a column table already knows them
+     * @param rows rows of the table
+     * @return the schema of the rows
+     */
+    public static TableSchema of(final List<? extends Map<String, ?>> rows) {
+        final TableSchema schema;
+        if (rows instanceof ColumnTable) {
+            schema = new TableSchema(((ColumnTable<?>) rows).getColumns());
+        } else {
+            final LinkedHashMap<String, Boolean> keys = new LinkedHashMap<>();
+            for (Map<String, ?> row : rows) {
+                if (row != null) {
+                    for (String key : row.keySet()) {
+                        keys.putIfAbsent(key, Boolean.TRUE);
+                    }
+                }
+            }
+            schema = new TableSchema(new ArrayList<>(keys.keySet()));
+        }
+        return schema;
+    }
+
+    /**
+     * Add the columns of new rows, e.g. the rows of the next page of a table written page by page.
+     * Columns already known keep their position, new ones are added at the end in order of first appearance
+     * @param rows new rows of the table
+     * @return this schema if the rows have no new key, otherwise a new schema
+     */
+    public TableSchema extend(final List<? extends Map<String, ?>> rows) {
+        final Set<String> added = new LinkedHashSet<>();
+        for (Map<String, ?> row : rows) {
+            if (row != null) {
+                for (String key : row.keySet()) {
+                    if (!index.containsKey(key)) {
+                        added.add(key);
+                    }
+                }
+            }
+        }
+        final TableSchema schema;
+        if (added.isEmpty()) {
+            schema = this;
+        } else {
+            final List<String> extended = new ArrayList<>(headers);
+            extended.addAll(added);
+            schema = new TableSchema(extended);
+        }
+        return schema;
+    }
+
+    /**
+     * Headers of the table
+     * @return an unmodifiable list of headers
+     */
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Number of columns
+     * @return the number of headers
+     */
+    public int size() {
+        return headers.size();
+    }
+
+    /**
+     * Column of a key
+     * @param key the key
+     * @return the position of the column, -1 if unknown
+     */
+    public int indexOf(final String key) {
+        final Integer position = index.get(key);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Place the values of a row in the columns of the table
+     * @param row the row
+     * @return the values by column, null where the row has no value
+     */
+    public Object[] toColumns(final Map<String, ?> row) {
+        return toColumns(row, new Object[headers.size()]);
+    }
+
+    /**
+     * Place the values of a row in the columns of the table, reusing an array
+     * @param row the row
+     * @param values array receiving the values, its size is the number of columns
+     * @return the values by column, null where the row has no value
+     */
+    public Object[] toColumns(final Map<String, ?> row, final Object[] values) {
+        Arrays.fill(values, null);
+        for (Map.Entry<String, ?> field : row.entrySet()) {
+            final int position = indexOf(field.getKey());
+            if (position >= 0) {
+                values[position] = field.getValue();
+            }
+        }
+        return values;
+    }
+}
@@ -35,7 +35,7 @@ import java.util.logging.Logger;
 
 import org.apache.commons.math3.util.Precision;
 
-import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.IssuesCube;
 import fr.cnes.sonar.report.model.Language;
 import fr.cnes.sonar.report.model.Measure;
 import fr.cnes.sonar.report.model.QualityProfile;
@@ -376,28 +376,16 @@ public final class DataAdapter {
         final List<String> types = new ArrayList<>(Arrays.asList(StringManager.getProperty(ISSUES_TYPES).split(",")));
         final List<String> severities = getReversedIssuesSeverities();
 
-        // accumulator for the number of occurrences for each severity
-        LinkedHashMap<String,Integer> countPerSeverity = new LinkedHashMap<>();
-        for (String severity : severities) {
-            countPerSeverity.put(severity, 0);
-        }
+        // number of issues by type and severity, computed once with the issues
+        final IssuesCube cube = report.getIssuesCube();
 
         for(String type : types) {
             //List of items for each line of the table
             final List<String> row = new ArrayList<>();
-            for(Issue issue : report.getIssues()) {
-                if(issue.getType().equals(type)) {
-                    // increment the count of the severity
-                    countPerSeverity.put(issue.getSeverity(),
-                            countPerSeverity.get(issue.getSeverity()) + 1);
-                }
-            }
             // add data to the row
             row.add(type);
             for (String severity : severities) {
-                row.add(String.valueOf(countPerSeverity.get(severity)));
-                // reset the count
-                countPerSeverity.put(severity, 0);
+                row.add(String.valueOf(cube.count(type, severity)));
             }
             // add row to the result
             results.add(row);
@@ -967,10 +955,7 @@ public final class DataAdapter {
         }
 
         if (rulesNumber != 0) {
-            Set<String> violatedRules = new HashSet<>();
-            for (Issue issue : report.getIssues()) {
-                violatedRules.add(issue.getRule());
-            }
+            Set<String> violatedRules = new HashSet<>(report.getIssuesCube().getRules());
             for (SecurityHotspot securityHotspot : report.getToReviewSecurityHotspots()) {
                 violatedRules.add(securityHotspot.getRule());
             }
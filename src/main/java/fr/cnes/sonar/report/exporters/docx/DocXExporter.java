@@ -22,7 +22,6 @@ import fr.cnes.sonar.report.exporters.IExporter;
 import fr.cnes.sonar.report.model.Report;
 import fr.cnes.sonar.report.utils.StringManager;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
-import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.xmlbeans.XmlException;
 
@@ -103,12 +102,18 @@ public class DocXExporter implements IExporter {
             LOGGER.log(Level.WARNING, () -> "Unable to find provided DOCX template file (using default one instead) : " + file.getAbsolutePath());
         }
 
-        try (
-            InputStream fileInputStream = file.exists() ?
-                    new FileInputStream(file) : getClass().getResourceAsStream("/template/code-analysis-template.docx");
-            OPCPackage opcPackage = OPCPackage.open(fileInputStream);
-            XWPFDocument document = new XWPFDocument(opcPackage)
-        ) {
+        // the template is read and scanned only once
+        final DocXTemplate template = DocXTemplate.get(file);
+
+        try (XWPFDocument document = template.open()) {
+
+            // Map which contains all values to replace
+            // the key is the placeholder and the value is the value to write over
+            final Map<String, String> replacementValues = DataAdapter.loadPlaceholdersMap(report);
+
+            // replace all placeholder in the document (head, body, foot) with the map,
+            // before tables are filled so that the fill plan still matches the paragraphs
+            template.fill(document, replacementValues);
 
             // Fill charts
             DocXTools.fillCharts(document, report.getFacets(), report.getTimeFacets());
@@ -168,13 +173,6 @@ public class DocXExporter implements IExporter {
             final List<List<String>> detailedTechnicalDebt = DataAdapter.getDetailedTechnicalDebt(report);
             DocXTools.fillTable(document, headerDetailedTechnicalDebt, detailedTechnicalDebt, DETAILED_TECHNICAL_DEBT_TABLE_PLACEHOLDER);
 
-            // Map which contains all values to replace
-            // the key is the placeholder and the value is the value to write over
-            final Map<String, String> replacementValues = DataAdapter.loadPlaceholdersMap(report);
-
-            // replace all placeholder in the document (head, body, foot) with the map
-            DocXTools.replacePlaceholder(document, replacementValues);
-
             // Save the result by creating a new file in the directory given by report.path property
             final FileOutputStream out = new FileOutputStream(path);
             // close open resources
@@ -0,0 +1,288 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.exporters.docx;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A docx template read and scanned once
+ * The fill plan gives the runs containing placeholders, so filling a copy
+ * of the template does not have to search the whole document again
+ */
+public final class DocXTemplate {
+
+    /**
+     * Default template in the classpath
+     */
+    static final String DEFAULT_TEMPLATE = "/template/code-analysis-template.docx";
+    /**
+     * Form of the placeholders replaced in the paragraphs (e.g: XX-AUTHOR-XX)
+     */
+    private static final Pattern PLACEHOLDER = Pattern.compile("XX-[A-Z0-9_]+-XX");
+    /**
+     * Maximum number of templates kept in memory
+     */
+    static final int MAX_TEMPLATES = 8;
+    /**
+     * Templates already read, indexed by path and version, from the least to the most recently used
+     */
+    private static final Map<String, DocXTemplate> TEMPLATES = Collections.synchronizedMap(
+            new LinkedHashMap<String, DocXTemplate>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, DocXTemplate> eldest) {
+                    return size() > MAX_TEMPLATES;
+                }
+            });
+
+    /**
+     * Path of the template file, the default template path for the default template
+     */
+    private final String path;
+    /**
+     * Version of the template file (modification date and size), empty for the default template
+     */
+    private final String version;
+    /**
+     * Content of the template
+     */
+    private final byte[] content;
+    /**
+     * Runs to fill, in document order
+     */
+    private final List<RunFill> plan;
+
+    /**
+     * Constructor
+     * @param pPath path of the template file
+     * @param pVersion version of the template file
+     * @param pContent content of the template
+     * @throws IOException when the template cannot be parsed
+     * @throws InvalidFormatException when the template is not a docx
+     */
+    private DocXTemplate(final String pPath, final String pVersion, final byte[] pContent)
+            throws IOException, InvalidFormatException {
+        this.path = pPath;
+        this.version = pVersion;
+        this.content = pContent;
+        try (XWPFDocument document = open(pContent)) {
+            this.plan = Collections.unmodifiableList(scan(document));
+        }
+    }
+
+    /**
+     * Get a template, it is read again only if its file changed
+     * Only the most recently used templates are kept in memory
+     * @param file the template file, the default template is used if it does not exist
+     * @return the template
+     * @throws IOException when the template cannot be read
+     * @throws InvalidFormatException when the template is not a docx
+     */
+    public static DocXTemplate get(final File file) throws IOException, InvalidFormatException {
+        final boolean exists = file.exists();
+        final String path = exists ? file.getAbsolutePath() : DEFAULT_TEMPLATE;
+        final String version = exists ? file.lastModified() + ":" + file.length() : "";
+        final String key = path + '\n' + version;
+        DocXTemplate template = TEMPLATES.get(key);
+        if (template == null) {
+            template = new DocXTemplate(path, version, exists ? Files.readAllBytes(file.toPath()) : readDefault());
+            synchronized (TEMPLATES) {
+                // a template edited in place replaces its previous versions
+                TEMPLATES.values().removeIf(cached -> cached.path.equals(path));
+                TEMPLATES.put(key, template);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Number of templates kept in memory
+     * @return the number of templates
+     */
+    static int size() {
+        return TEMPLATES.size();
+    }
+
+    /**
+     * Read the default template from the classpath
+     * @return content of the default template
+     * @throws IOException when the template cannot be read
+     */
+    private static byte[] readDefault() throws IOException {
+        try (InputStream stream = DocXTemplate.class.getResourceAsStream(DEFAULT_TEMPLATE)) {
+            return IOUtils.toByteArray(stream);
+        }
+    }
+
+    /**
+     * Open a new document from a content
+     * @param pContent content of a docx
+     * @return the document
+     * @throws IOException when the document cannot be parsed
+     * @throws InvalidFormatException when the content is not a docx
+     */
+    private static XWPFDocument open(final byte[] pContent) throws IOException, InvalidFormatException {
+        return new XWPFDocument(OPCPackage.open(new ByteArrayInputStream(pContent)));
+    }
+
+    /**
+     * Open a new copy of the template
+     * @return a document to fill, it must be closed by the caller
+     * @throws IOException when the template cannot be parsed
+     * @throws InvalidFormatException when the template is not a docx
+     */
+    public XWPFDocument open() throws IOException, InvalidFormatException {
+        return open(content);
+    }
+
+    /**
+     * Number of runs containing placeholders
+     * @return the size of the fill plan
+     */
+    public int getPlanSize() {
+        return plan.size();
+    }
+
+    /**
+     * Find the runs containing placeholders in all paragraphs (head, body, foot)
+     * @param document the template
+     * @return the runs to fill
+     */
+    private static List<RunFill> scan(final XWPFDocument document) {
+        final List<RunFill> runs = new ArrayList<>();
+        final List<XWPFParagraph> paragraphs = DocXTools.getAllParagraphs(DocXTools.getAllElements(document));
+        for (int iParagraph = 0; iParagraph < paragraphs.size(); iParagraph++) {
+            final List<XWPFRun> paragraphRuns = paragraphs.get(iParagraph).getRuns();
+            for (int iRun = 0; iRun < paragraphRuns.size(); iRun++) {
+                final String text = paragraphRuns.get(iRun).getText(0);
+                if (text != null) {
+                    final List<String> segments = split(text);
+                    // a single segment is a text without placeholder
+                    if (segments.size() > 1) {
+                        runs.add(new RunFill(iParagraph, iRun, segments));
+                    }
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Split a text around its placeholders
+     * @param text the text of a run
+     * @return texts at even positions, placeholders at odd positions
+     */
+    private static List<String> split(final String text) {
+        final List<String> segments = new ArrayList<>();
+        final Matcher matcher = PLACEHOLDER.matcher(text);
+        int start = 0;
+        while (matcher.find()) {
+            segments.add(text.substring(start, matcher.start()));
+            segments.add(matcher.group());
+            start = matcher.end();
+        }
+        segments.add(text.substring(start));
+        return segments;
+    }
+
+    /**
+     * Replace the placeholders of a copy of this template by values given in a map
+     * Values are written as they are, a png value is added as a picture.
+     * It must be called before any change of the paragraphs of the copy (e.g: tables filling).
+     * @param document a copy of this template
+     * @param values a map indexed by placeholders, placeholders without value are kept
+     * @throws IOException When opening pictures
+     * @throws InvalidFormatException When dealing with open files
+     */
+    public void fill(final XWPFDocument document, final Map<String, String> values)
+            throws IOException, InvalidFormatException {
+        final List<XWPFParagraph> paragraphs = DocXTools.getAllParagraphs(DocXTools.getAllElements(document));
+        final StringBuilder text = new StringBuilder();
+        final Set<String> pictures = new LinkedHashSet<>();
+        for (RunFill fill : plan) {
+            final XWPFRun run = paragraphs.get(fill.paragraph).getRuns().get(fill.run);
+            text.setLength(0);
+            pictures.clear();
+            for (int i = 0; i < fill.segments.size(); i++) {
+                final String segment = fill.segments.get(i);
+                final String value = i % 2 == 0 ? segment : values.get(segment);
+                if (value == null) {
+                    text.append(segment);
+                } else if (i % 2 == 1 && value.endsWith(DocXTools.PNG_EXTENSION)) {
+                    // we save the filename, the picture replaces the placeholder
+                    pictures.add(value);
+                } else {
+                    text.append(value);
+                }
+            }
+            run.setText(text.toString(), 0);
+            for (String filename : pictures) {
+                DocXTools.addPicture(run, filename);
+            }
+        }
+    }
+
+    /**
+     * Position and content of a run containing placeholders
+     */
+    private static final class RunFill {
+        /**
+         * Position of the paragraph in the document
+         */
+        private final int paragraph;
+        /**
+         * Position of the run in the paragraph
+         */
+        private final int run;
+        /**
+         * Texts at even positions, placeholders at odd positions
+         */
+        private final List<String> segments;
+
+        /**
+         * Constructor
+         * @param pParagraph position of the paragraph in the document
+         * @param pRun position of the run in the paragraph
+         * @param pSegments texts and placeholders of the run
+         */
+        private RunFill(final int pParagraph, final int pRun, final List<String> pSegments) {
+            this.paragraph = pParagraph;
+            this.run = pRun;
+            this.segments = pSegments;
+        }
+    }
+}
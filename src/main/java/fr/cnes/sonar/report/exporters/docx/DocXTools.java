@@ -51,7 +51,7 @@ public final class DocXTools {
     /**
      * extension for png
      */
-    private static final String PNG_EXTENSION = ".png";
+    static final String PNG_EXTENSION = ".png";
     /**
      * title for chart displaying number of issues by severity
      */
@@ -180,7 +180,7 @@ public final class DocXTools {
      * @param elements list of IBodyElement to browse
      * @return a list of XWPFParagraph
      */
-    private static List<XWPFParagraph> getAllParagraphs(List<IBodyElement> elements) {
+    static List<XWPFParagraph> getAllParagraphs(List<IBodyElement> elements) {
         // final list to return
         final List<XWPFParagraph> paragraphs = new ArrayList<>();
         // browse elements
@@ -222,7 +222,7 @@ public final class DocXTools {
      * @param document the complete xwpf document
      * @return a list of IBodyElement
      */
-    private static List<IBodyElement> getAllElements(XWPFDocument document) {
+    static List<IBodyElement> getAllElements(XWPFDocument document) {
         // gather the final list
         // add directly body content
         final List<IBodyElement> elements = new ArrayList<>(document.getBodyElements());
@@ -259,15 +259,10 @@ public final class DocXTools {
         
         
         final List<XWPFRun> runs = paragraph.getRuns();
-         String text;
+        String text;
         final List<String> pictures = new ArrayList<>();
         String key;
         String value;
-        ClassLoader classloader;
-        InputStream is;
-        BufferedImage image;
-        ByteArrayOutputStream baos;
-        ByteArrayInputStream bais;
         // For all Run
         for (XWPFRun currentRun : runs){
             // if there are matter to work on
@@ -287,37 +282,15 @@ public final class DocXTools {
                         pictures.add(value);
                         value = StringManager.EMPTY;
                     }
-                    // finally we concatenate
-                    text = text.replaceAll(key, value);
+                    // finally we concatenate, placeholders and values are literal texts
+                    text = text.replace(key, value);
                 }
                 // Replace le text
                 currentRun.setText(text,0);
 
                 // add images if we have something to add
-                if(!pictures.isEmpty()) {
-                    // browse picture list previously filled out
-                    for(String filename : pictures) {
-                        // get the image from resources as an input stream
-                        classloader = DocXTools.class.getClassLoader();
-                        is = classloader.getResourceAsStream(IMG_FOLDER + filename);
-                        // convert the input stream to a buffered image
-                        image = ImageIO.read(is);
-                        // close the input stream
-                        is.close();
-                        // retrieve image dimensions
-                        int width = image.getWidth();
-                        int height = image.getHeight();
-                        // ratio for dimensions shrinking
-                        double ratio = 0.25;
-                        // write the buffered image on a byte array output stream
-                        baos = new ByteArrayOutputStream();
-                        ImageIO.write(image, "png", baos);
-                        // create a byte array input stream from the previous stream
-                        bais = new ByteArrayInputStream(baos.toByteArray());
-                        // add the image to the run
-                        currentRun.addPicture(bais, Document.PICTURE_TYPE_PNG,
-                                filename, Units.toEMU(width*ratio), Units.toEMU(height*ratio));
-                    }
+                for(String filename : pictures) {
+                    addPicture(currentRun, filename);
                 }
             }
         }
@@ -325,6 +298,36 @@ public final class DocXTools {
 
     }
 
+    /**
+     * Add a picture from the resources at the end of a run
+     * @param run the run receiving the picture
+     * @param filename name of the picture in the resources
+     * @throws IOException When opening pictures
+     * @throws InvalidFormatException When dealing with open files
+     */
+    static void addPicture(XWPFRun run, String filename) throws IOException, InvalidFormatException {
+        // get the image from resources as an input stream
+        final ClassLoader classloader = DocXTools.class.getClassLoader();
+        final BufferedImage image;
+        try (InputStream is = classloader.getResourceAsStream(IMG_FOLDER + filename)) {
+            // convert the input stream to a buffered image
+            image = ImageIO.read(is);
+        }
+        // retrieve image dimensions
+        int width = image.getWidth();
+        int height = image.getHeight();
+        // ratio for dimensions shrinking
+        double ratio = 0.25;
+        // write the buffered image on a byte array output stream
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", baos);
+        // create a byte array input stream from the previous stream
+        final ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
+        // add the image to the run
+        run.addPicture(bais, Document.PICTURE_TYPE_PNG,
+                filename, Units.toEMU(width*ratio), Units.toEMU(height*ratio));
+    }
+
     /**
      * Fill a table with resources sorted by lines in a list of strings
      * You can select the table to fill with th field "name", it must be
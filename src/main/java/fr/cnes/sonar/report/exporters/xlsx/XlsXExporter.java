@@ -5,8 +5,11 @@ import fr.cnes.sonar.report.exporters.IExporter;
 import fr.cnes.sonar.report.model.Report;
 import fr.cnes.sonar.report.model.SecurityHotspot;
 import fr.cnes.sonar.report.utils.StringManager;
+import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFTable;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.*;
@@ -63,6 +66,45 @@ public class XlsXExporter implements IExporter {
      */
     private static final String METRICS_TABLE_NAME = "metrics";
 
+    /**
+     * Property giving the number of rows above which sheets are streamed
+     */
+    private static final String STREAMING_THRESHOLD = "issues.streaming.threshold";
+    /**
+     * Property giving the number of rows kept in memory for each streamed sheet
+     */
+    private static final String STREAMING_WINDOW = "issues.streaming.window";
+    /**
+     * Sheets filled with rows of data under the header of their table, with the name of the table
+     */
+    private static final String[][] DATA_TABLES = {
+        {ISSUES_SHEET_NAME, SELECTED_TABLE_NAME},
+        {UNCONFIRMED_SHEET_NAME, UNCONFIRMED_TABLE_NAME},
+        {ALL_DETAILS_SHEET_NAME, ALL_TABLE_NAME},
+        {SECURITY_HOTSPOTS_SHEET_NAME, SECURITY_HOTSPOTS_TABLE_NAME},
+        {METRICS_SHEET_NAME, METRICS_TABLE_NAME}
+    };
+
+    /**
+     * Number of rows above which sheets are streamed
+     */
+    private final long streamingThreshold;
+
+    /**
+     * Default constructor, the streaming threshold is given by the configuration
+     */
+    public XlsXExporter() {
+        this(Long.parseLong(StringManager.getProperty(STREAMING_THRESHOLD)));
+    }
+
+    /**
+     * Constructor
+     * @param pStreamingThreshold number of rows above which sheets are streamed
+     */
+    public XlsXExporter(final long pStreamingThreshold) {
+        this.streamingThreshold = pStreamingThreshold;
+    }
+
     /**
      * Overridden export for XlsX
      * @param data Data to export as Report
@@ -97,47 +139,87 @@ public class XlsXExporter implements IExporter {
         try(
             InputStream excelFile = file.exists() ?
                     new FileInputStream(file) : getClass().getResourceAsStream("/template/issues-template.xlsx");
-            Workbook workbook = new XSSFWorkbook(excelFile);
+            XSSFWorkbook workbook = new XSSFWorkbook(excelFile);
             FileOutputStream fileOut = new FileOutputStream(outputFilePath)
         ) {
-
-            // retrieve the sheet aiming to contain selected resources
-            final XSSFSheet selectedSheet = (XSSFSheet) workbook.getSheet(ISSUES_SHEET_NAME);
-
-            // retrieve the sheet aiming to contain selected resources
-            final XSSFSheet unconfirmedSheet = (XSSFSheet) workbook.getSheet(UNCONFIRMED_SHEET_NAME);
-
-            // retrieve the sheet aiming to contain selected resources
-            final XSSFSheet allDataSheet = (XSSFSheet) workbook.getSheet(ALL_DETAILS_SHEET_NAME);
-
-            // retrieve the sheet aiming to contain selected resources
-            final XSSFSheet securityHotspotsSheet = (XSSFSheet) workbook.getSheet(SECURITY_HOTSPOTS_SHEET_NAME);
-
-            // retrieve the sheet with metrics
-            final XSSFSheet metricsSheet = (XSSFSheet) workbook.getSheet(METRICS_SHEET_NAME);
-
-            // write selected resources in the file
-            XlsXTools.addSelectedData(report.getIssues(), selectedSheet, SELECTED_TABLE_NAME);
-
-            // write selected resources in the file
-            XlsXTools.addSelectedData(report.getUnconfirmed(), unconfirmedSheet, UNCONFIRMED_TABLE_NAME);
-
-            // write all raw resources in the third sheet
-            XlsXTools.addListOfMap(allDataSheet, report.getRawIssues(), ALL_TABLE_NAME);
-
-            // write all security hotspots in the security hotspots sheet
-            List<SecurityHotspot> allSecurityHotspots = Stream.concat(report.getToReviewSecurityHotspots().stream(),
-                    report.getReviewedSecurityHotspots().stream()).collect(Collectors.toList());
-            XlsXTools.addSecurityHotspots(allSecurityHotspots, securityHotspotsSheet, SECURITY_HOTSPOTS_TABLE_NAME);
-
-            // write all metrics in the metric sheet
-            XlsXTools.addListOfMap(metricsSheet, report.getComponents(), METRICS_TABLE_NAME);
-
-            // write output as file
-            workbook.write(fileOut);
+            // number of rows to write in all sheets
+            final long rows = (long) report.getIssues().size() + report.getUnconfirmed().size()
+                    + report.getRawIssues().size() + report.getToReviewSecurityHotspots().size()
+                    + report.getReviewedSecurityHotspots().size() + report.getComponents().size();
+
+            if(rows > streamingThreshold) {
+                // rows are flushed to temporary files, only a window of rows stays in memory
+                final int window = Integer.parseInt(StringManager.getProperty(STREAMING_WINDOW));
+                LOGGER.log(Level.INFO, () -> String.format("Streaming %d rows to the XLSX file", rows));
+                // template rows below the headers would be overlapped by the streamed rows
+                for(String[] table : DATA_TABLES) {
+                    clearDataRows(workbook.getSheet(table[0]), table[1]);
+                }
+                final SXSSFWorkbook streamingWorkbook = new SXSSFWorkbook(workbook, window, true);
+                try {
+                    fill(report, workbook, streamingWorkbook);
+                    streamingWorkbook.write(fileOut);
+                } finally {
+                    // delete temporary files
+                    streamingWorkbook.dispose();
+                }
+            } else {
+                fill(report, workbook, workbook);
+                // write output as file
+                workbook.write(fileOut);
+            }
         }
 
         return new File(outputFilePath);
     }
 
+    /**
+     * Fill the sheets of the template with the report's data
+     * @param report report to export
+     * @param workbook template containing tables and headers
+     * @param target workbook in which rows are written, the template itself or a streaming view on it
+     */
+    private static void fill(final Report report, final XSSFWorkbook workbook, final Workbook target) {
+        // write selected resources in the file
+        XlsXTools.addSelectedData(report.getIssues(), workbook.getSheet(ISSUES_SHEET_NAME),
+                target.getSheet(ISSUES_SHEET_NAME), SELECTED_TABLE_NAME);
+
+        // write selected resources in the file
+        XlsXTools.addSelectedData(report.getUnconfirmed(), workbook.getSheet(UNCONFIRMED_SHEET_NAME),
+                target.getSheet(UNCONFIRMED_SHEET_NAME), UNCONFIRMED_TABLE_NAME);
+
+        // write all raw resources in the third sheet
+        XlsXTools.addListOfMap(workbook.getSheet(ALL_DETAILS_SHEET_NAME), target.getSheet(ALL_DETAILS_SHEET_NAME),
+                report.getRawIssues(), ALL_TABLE_NAME);
+
+        // write all security hotspots in the security hotspots sheet
+        List<SecurityHotspot> allSecurityHotspots = Stream.concat(report.getToReviewSecurityHotspots().stream(),
+                report.getReviewedSecurityHotspots().stream()).collect(Collectors.toList());
+        XlsXTools.addSecurityHotspots(allSecurityHotspots, workbook.getSheet(SECURITY_HOTSPOTS_SHEET_NAME),
+                target.getSheet(SECURITY_HOTSPOTS_SHEET_NAME), SECURITY_HOTSPOTS_TABLE_NAME);
+
+        // write all metrics in the metric sheet
+        XlsXTools.addListOfMap(workbook.getSheet(METRICS_SHEET_NAME), target.getSheet(METRICS_SHEET_NAME),
+                report.getComponents(), METRICS_TABLE_NAME);
+    }
+
+    /**
+     * Remove the rows of a template sheet which are below the header of its table,
+     * rows above the header are kept
+     * @param sheet the sheet to clear, may be null
+     * @param tableName name of the table filled in the sheet
+     */
+    private static void clearDataRows(final XSSFSheet sheet, final String tableName) {
+        final XSSFTable table = sheet == null ? null : XlsXTools.findTableByName(sheet, tableName);
+        // nothing is written in a sheet without its table
+        if(table != null) {
+            final int headerRow = XlsXTools.getHeaderRow(table);
+            for(int i = sheet.getLastRowNum(); i > headerRow; i--) {
+                final Row row = sheet.getRow(i);
+                if(row != null) {
+                    sheet.removeRow(row);
+                }
+            }
+        }
+    }
 }
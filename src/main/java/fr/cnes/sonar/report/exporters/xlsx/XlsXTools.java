@@ -1,10 +1,14 @@
 package fr.cnes.sonar.report.exporters.xlsx;
 
+import fr.cnes.sonar.report.exporters.TableSchema;
+import fr.cnes.sonar.report.model.ColumnTable;
 import fr.cnes.sonar.report.model.Issue;
 import fr.cnes.sonar.report.model.SecurityHotspot;
 import fr.cnes.sonar.report.utils.StringManager;
 
 import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.util.AreaReference;
 import org.apache.poi.ss.util.CellReference;
 import org.apache.poi.xssf.usermodel.XSSFRow;
@@ -118,9 +122,21 @@ public final class XlsXTools {
      * @param tableName name of the table to fill out
      */
     public static void addListOfMap(XSSFSheet sheet, List<Map<String,String>> list, String tableName) {
+        addListOfMap(sheet, sheet, list, tableName);
+    }
 
-        // get the headers list
-        final List<String> headers = extractHeader(list);
+    /**
+     * Add a list of Map in an excel sheet, rows being written in another view of the sheet
+     * @param sheet sheet containing the table and its header
+     * @param target sheet in which rows are written, can be a streaming view of the same sheet
+     * @param list list of map to put
+     * @param tableName name of the table to fill out
+     */
+    public static void addListOfMap(XSSFSheet sheet, Sheet target, List<Map<String,String>> list, String tableName) {
+
+        // get the headers list in a single pass
+        final TableSchema schema = TableSchema.of(list);
+        final List<String> headers = schema.getHeaders();
 
         // Create an object of type XSSFTable containing the template table for selected resources
         final XSSFTable table = findTableByName(sheet, tableName);
@@ -130,10 +146,13 @@ public final class XlsXTools {
             // get CTTable object
             final CTTable cttable = table.getCTTable();
 
+            // row of the header, rows of resources are below it
+            final int headerRow = getHeaderRow(table);
+
             // Define the resources range including headers
             final AreaReference allDataRange = new AreaReference(
-                    new CellReference(0, 0),
-                    new CellReference(list.size(), headers.size() - 1),
+                    new CellReference(headerRow, 0),
+                    new CellReference(headerRow + list.size(), headers.size() - 1),
                     SpreadsheetVersion.EXCEL2007);
 
             // Set Range to the Table
@@ -150,33 +169,70 @@ public final class XlsXTools {
                 column.setId(i + 1);
             }
 
-            // row index: 0 is the header
-            int rowIndex = 0;
+            // row index of the header
+            int rowIndex = headerRow;
 
             // create the headers' row and add it to the sheet
             createRow(sheet, rowIndex, headers);
 
             // go to the first resources line
             rowIndex++;
-            String[] content;
-            // we add a row for each map in the list
-            for (Map<String, String> map : list) {
-                // will contain all the values sorted as needed to comply to the header
-                content = new String[headers.size()];
-                int index;
-                // adding each field of the map in a different column of the row
-                for (Map.Entry<String, String> issue : map.entrySet()) {
-                    // index of the column to fill comparing key and headers
-                    index = headers.indexOf(issue.getKey());
-                    // get the cell having the same key as the header
-                    content[index] = String.valueOf(issue.getValue());
-                }
+            if (list instanceof ColumnTable) {
+                // read the table column by column without building maps
+                addColumnTable(target, (ColumnTable<?>) list, headers, rowIndex);
+            } else {
+                addMaps(target, list, schema, rowIndex);
+            }
+        }
+    }
 
-                // create a row from resources as string's list
-                createRow(sheet, rowIndex, Arrays.asList(content));
-                // go to the next line
-                rowIndex++;
+    /**
+     * Add a list of maps to a sheet, one row per map
+     * @param sheet sheet to fill out
+     * @param list maps to add
+     * @param schema columns of the table
+     * @param firstRow index of the first row to create
+     */
+    private static void addMaps(Sheet sheet, List<Map<String,String>> list, TableSchema schema, int firstRow) {
+        int rowIndex = firstRow;
+        String[] content;
+        // we add a row for each map in the list
+        for (Map<String, String> map : list) {
+            // will contain all the values sorted as needed to comply to the header
+            content = new String[schema.size()];
+            int index;
+            // adding each field of the map in a different column of the row
+            for (Map.Entry<String, String> issue : map.entrySet()) {
+                // index of the column to fill comparing key and headers
+                index = schema.indexOf(issue.getKey());
+                // get the cell having the same key as the header
+                content[index] = String.valueOf(issue.getValue());
             }
+
+            // create a row from resources as string's list
+            createRow(sheet, rowIndex, Arrays.asList(content));
+            // go to the next line
+            rowIndex++;
+        }
+    }
+
+    /**
+     * Add the rows of a column table to a sheet
+     * @param sheet sheet to fill out
+     * @param table rows to add
+     * @param headers columns of the table
+     * @param firstRow index of the first row to create
+     */
+    private static void addColumnTable(Sheet sheet, ColumnTable<?> table, List<String> headers, int firstRow) {
+        final String[] content = new String[headers.size()];
+        for (int row = 0; row < table.size(); row++) {
+            for (int column = 0; column < headers.size(); column++) {
+                final String key = headers.get(column);
+                // absent values stay empty, null values are written like the other maps
+                content[column] = table.getCode(key, row) == ColumnTable.ABSENT ?
+                        null : String.valueOf(table.getValue(key, row));
+            }
+            createRow(sheet, firstRow + row, Arrays.asList(content));
         }
     }
 
@@ -186,23 +242,8 @@ public final class XlsXTools {
      * @return a list of strings
      */
     public static List<String> extractHeader(List<Map<String,String>> list) {
-        // list of header titles to be returned
-        final List<String> result = new ArrayList<>();
-        // gather all unique keys of all maps
-        final Map<String, String> gatherer = new HashMap<>();
-
-        // we gather all the key thanks to the map
-        for(Map<String,String> map : list) {
-            gatherer.putAll(map);
-        }
-
-        // for each unique header
-        for(Map.Entry<String, String> header : gatherer.entrySet()) {
-            // we had the key to the list
-            result.add(header.getKey());
-        }
-
-        return result;
+        // keys are gathered in a single pass, in order of appearance
+        return new ArrayList<>(TableSchema.of(list).getHeaders());
     }
 
     /**
@@ -213,8 +254,19 @@ public final class XlsXTools {
      * @return return the created row as a XSSFRow
      */
     public static XSSFRow createRow(XSSFSheet sheet, int index, List<String> list) {
+        return (XSSFRow) createRow((Sheet) sheet, index, list);
+    }
+
+    /**
+     * Create a row from a list of strings in any kind of sheet
+     * @param sheet Sheet to fill out
+     * @param index Index of the row to create
+     * @param list resources to fill out the row
+     * @return return the created row
+     */
+    public static Row createRow(Sheet sheet, int index, List<String> list) {
         // create a new row from the context, it will be returned
-        final XSSFRow row = sheet.createRow(index);
+        final Row row = sheet.createRow(index);
 
         // index on the columns of the row
         int colIndex = 0;
@@ -245,6 +297,19 @@ public final class XlsXTools {
      */
     public static void addSelectedData(List<Issue> issues, XSSFSheet selectedSheet,
                                        String selectedTableName) {
+        addSelectedData(issues, selectedSheet, selectedSheet, selectedTableName);
+    }
+
+    /**
+     * Write the formatted resources as wanted in the corresponding sheet,
+     * rows being written in another view of the sheet
+     * @param issues Intern resources to format to excel
+     * @param selectedSheet sheet containing the table
+     * @param target sheet in which rows are written, can be a streaming view of the same sheet
+     * @param selectedTableName Name of the table to fill
+     */
+    public static void addSelectedData(List<Issue> issues, XSSFSheet selectedSheet, Sheet target,
+                                       String selectedTableName) {
 
         // Create an object of type XSSFTable containing the template table for selected resources
         final XSSFTable selectedTable = findTableByName(selectedSheet, selectedTableName);
@@ -254,22 +319,25 @@ public final class XlsXTools {
             // get CTTable object
             final CTTable cttable = selectedTable.getCTTable();
 
+            // row of the header, rows of resources are below it
+            final int headerRow = getHeaderRow(selectedTable);
+
             // Define the resources range including headers
             final AreaReference selectedDataRange = new AreaReference(
-                    new CellReference(0, 0),
-                    new CellReference(issues.size(), 9),
+                    new CellReference(headerRow, 0),
+                    new CellReference(headerRow + issues.size(), 9),
                     SpreadsheetVersion.EXCEL2007);
 
             // Set Range to the Table
             cttable.setRef(selectedDataRange.formatAsString());
 
-            // number of the row to insert, begin to 1 because 0 is the header
-            int numRow = 1;
+            // number of the row to insert, begin below the header
+            int numRow = headerRow + 1;
 
             // add issues
             for (Issue issue : issues) {
                 // initialization of a new row
-                final XSSFRow row = selectedSheet.createRow(numRow);
+                final Row row = target.createRow(numRow);
 
                 // adding resources
                 row.createCell(RULE_ID_INDEX).setCellValue(issue.getRule());
@@ -301,6 +369,19 @@ public final class XlsXTools {
      * @param tableName Name of the table to fill
      */
     public static void addSecurityHotspots(List<SecurityHotspot> securityHotspots, XSSFSheet sheet, String tableName) {
+        addSecurityHotspots(securityHotspots, sheet, sheet, tableName);
+    }
+
+    /**
+     * Write the formatted resources as wanted in the corresponding sheet,
+     * rows being written in another view of the sheet
+     * @param securityHotspots Intern resources to format to excel
+     * @param sheet sheet containing the table
+     * @param target sheet in which rows are written, can be a streaming view of the same sheet
+     * @param tableName Name of the table to fill
+     */
+    public static void addSecurityHotspots(List<SecurityHotspot> securityHotspots, XSSFSheet sheet, Sheet target,
+                                           String tableName) {
         // Create an object of type XSSFTable containing the template table for selected resources
         final XSSFTable table = findTableByName(sheet, tableName);
 
@@ -309,22 +390,25 @@ public final class XlsXTools {
             // get CTTable object
             final CTTable cttable = table.getCTTable();
 
+            // row of the header, rows of resources are below it
+            final int headerRow = getHeaderRow(table);
+
             // Define the resources range including headers
             final AreaReference selectedDataRange = new AreaReference(
-                    new CellReference(0, 0),
-                    new CellReference(securityHotspots.size(), 10),
+                    new CellReference(headerRow, 0),
+                    new CellReference(headerRow + securityHotspots.size(), 10),
                     SpreadsheetVersion.EXCEL2007);
 
             // Set Range to the Table
             cttable.setRef(selectedDataRange.formatAsString());
             
-            // number of the row to insert, begin to 1 because 0 is the header
-            int numRow = 1;
+            // number of the row to insert, begin below the header
+            int numRow = headerRow + 1;
             
             // add security hotspots
             for (SecurityHotspot securityHotspot : securityHotspots) {
                 // initialization of a new row
-                final XSSFRow row = sheet.createRow(numRow);
+                final Row row = target.createRow(numRow);
 
                 // adding resources
                 row.createCell(RULE_ID_INDEX).setCellValue(securityHotspot.getRule());
@@ -367,4 +451,13 @@ public final class XlsXTools {
         return result;
     }
 
+    /**
+     * Index of the header row of a table, as defined in the template
+     * @param table the table
+     * @return the index of the first row of the table
+     */
+    public static int getHeaderRow(XSSFTable table) {
+        return table.getStartCellReference().getRow();
+    }
+
 }
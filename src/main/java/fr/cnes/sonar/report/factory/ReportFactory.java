@@ -74,6 +74,19 @@ public class ReportFactory {
      */
     private ReportFactory() {}
 
+    /**
+     * Receives each file as soon as it is generated
+     */
+    @FunctionalInterface
+    public interface ArtifactListener {
+        /**
+         * Called once a file is completely written
+         * @param file the generated file
+         * @throws IOException when the file cannot be handled
+         */
+        void generated(File file) throws IOException;
+    }
+
     /**
      * Generate report from simple parameters.
      * @param configuration Contains all configuration details.
@@ -85,6 +98,39 @@ public class ReportFactory {
      */
     public static void report(final ReportConfiguration configuration, final Report model)
             throws IOException, XmlException, BadExportationDataTypeException, OpenXML4JException, ParseException {
+        report(configuration, model, file -> { });
+    }
+
+    /**
+     * Generate report from simple parameters, each file is given to a listener as soon as it is written.
+     * @param configuration Contains all configuration details.
+     * @param model Contains the report as a Java object model.
+     * @param listener Receives the generated files.
+     * @throws IOException Caused by I/O.
+     * @throws XmlException Caused by XML error.
+     * @throws BadExportationDataTypeException Caused by export.
+     * @throws OpenXML4JException Caused by Apache library.
+     */
+    public static void report(final ReportConfiguration configuration, final Report model,
+                              final ArtifactListener listener)
+            throws IOException, XmlException, BadExportationDataTypeException, OpenXML4JException, ParseException {
+        report(configuration, model, null, listener);
+    }
+
+    /**
+     * Generate report from simple parameters, each file is given to a listener as soon as it is written.
+     * @param configuration Contains all configuration details.
+     * @param model Contains the report as a Java object model.
+     * @param rawIssues Raw issues already written while they were crawled, null to take them from the model.
+     * @param listener Receives the generated files.
+     * @throws IOException Caused by I/O.
+     * @throws XmlException Caused by XML error.
+     * @throws BadExportationDataTypeException Caused by export.
+     * @throws OpenXML4JException Caused by Apache library.
+     */
+    public static void report(final ReportConfiguration configuration, final Report model,
+                              final CSVExporter.RawIssuesStream rawIssues, final ArtifactListener listener)
+            throws IOException, XmlException, BadExportationDataTypeException, OpenXML4JException, ParseException {
 
         // Files exporters : export the resources in the correct file type
         final DocXExporter docXExporter = new DocXExporter();
@@ -102,7 +148,7 @@ public class ReportFactory {
 
         // Export analysis configuration if requested.
         if(configuration.isEnableConf()) {
-            createConfigurationFiles(configuration, model, profileExporter, gateExporter);
+            createConfigurationFiles(configuration, model, profileExporter, gateExporter, listener);
         }
 
         // Export issues and metrics in report if requested.
@@ -110,7 +156,7 @@ public class ReportFactory {
             // prepare docx report's filename
             final String docXFilename = formatFilename(REPORT_FILENAME, configuration.getOutput(), configuration.getDate(), model.getProjectName());
             // export the full docx report
-            docXExporter.export(model, docXFilename, configuration.getTemplateReport());
+            listener.generated(docXExporter.export(model, docXFilename, configuration.getTemplateReport()));
         }
 
         // Export issues in spreadsheet if requested.
@@ -118,19 +164,20 @@ public class ReportFactory {
             // construct the xlsx filename by replacing date and name
             final String xlsXFilename = formatFilename(ISSUES_FILENAME, configuration.getOutput(), configuration.getDate(), model.getProjectName());
             // export the xlsx issues' list
-            issuesExporter.export(model, xlsXFilename, configuration.getTemplateSpreadsheet());
+            listener.generated(issuesExporter.export(model, xlsXFilename, configuration.getTemplateSpreadsheet()));
         }
 
         // Export in markdown if requested
         if (configuration.isEnableMarkdown()) {
             final String MDFilename = formatFilename(MD_FILENAME, configuration.getOutput(), configuration.getDate(), model.getProjectName());
-            markdownExporter.export(model, MDFilename, configuration.getTemplateMarkdown());
+            listener.generated(markdownExporter.export(model, MDFilename, configuration.getTemplateMarkdown()));
         }
 
         // Export issues in report if requested
         if(configuration.isEnableCSV()) {
             final String CSVFilename = formatFilename(CSV_FILENAME, configuration.getOutput(), configuration.getDate(), model.getProjectName());
-            csvExporter.export(model, CSVFilename, model.getProjectName());
+            listener.generated(csvExporter.export(rawIssues == null ? model : rawIssues, CSVFilename,
+                    model.getProjectName()));
         }
     }
 
@@ -140,13 +187,15 @@ public class ReportFactory {
      * @param model Contains the report as a Java object model.
      * @param profileExporter Exporter for quality profiles.
      * @param gateExporter Exporter for quality gates.
+     * @param listener Receives the generated files.
      * @throws IOException Caused by I/O.
      * @throws XmlException Caused by XML error.
      * @throws BadExportationDataTypeException Caused by export.
      * @throws OpenXML4JException Caused by Apache library.
      */
     private static void createConfigurationFiles(final ReportConfiguration configuration, final Report model,
-                                                 final XmlExporter profileExporter, final JsonExporter gateExporter)
+                                                 final XmlExporter profileExporter, final JsonExporter gateExporter,
+                                                 final ArtifactListener listener)
             throws XmlException, BadExportationDataTypeException, OpenXML4JException, IOException {
 
         // full path to the configuration folder
@@ -166,13 +215,13 @@ public class ReportFactory {
 
         // Export all
         // export each linked quality profile
-        exportAllQualityProfiles(model, profileExporter, confDirectory);
+        exportAllQualityProfiles(model, profileExporter, confDirectory, listener);
 
         // quality gate information
         final String qualityGateName = model.getQualityGate().getName();
         final String qualityGateConf = model.getQualityGate().getConf();
         // export the quality gate
-        gateExporter.export(qualityGateConf, confDirectory, qualityGateName);
+        listener.generated(gateExporter.export(qualityGateConf, confDirectory, qualityGateName));
     }
 
     /**
@@ -180,12 +229,14 @@ public class ReportFactory {
      * @param report Modeling data containing data to export.
      * @param exporter Class given the way to export previous data.
      * @param dir Directory for output.
+     * @param listener Receives the generated files.
      * @throws XmlException Thrown on xml error.
      * @throws BadExportationDataTypeException Thrown if the data does not correspond to exporter.
      * @throws OpenXML4JException Thrown on OpenXML error.
      * @throws IOException Thrown on files error.
      */
-    private static void exportAllQualityProfiles(final Report report, final IExporter exporter, final String dir)
+    private static void exportAllQualityProfiles(final Report report, final IExporter exporter, final String dir,
+                                                 final ArtifactListener listener)
             throws XmlException, BadExportationDataTypeException, OpenXML4JException, IOException {
         for(ProfileMetaData metaData : report.getProject().getQualityProfiles()) {
             final Iterator<QualityProfile> iterator =
@@ -194,7 +245,7 @@ public class ReportFactory {
             while(iterator.hasNext() && goOn) {
                 final QualityProfile qp = iterator.next();
                 if(qp.getKey().equals(metaData.getKey())) {
-                    exporter.export(qp.getConf(), dir, qp.getKey());
+                    listener.generated(exporter.export(qp.getConf(), dir, qp.getKey()));
                     goOn = false;
                 }
             }
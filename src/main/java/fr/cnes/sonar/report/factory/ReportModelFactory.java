@@ -22,6 +22,7 @@ import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
 import fr.cnes.sonar.report.model.Components;
 import fr.cnes.sonar.report.model.Report;
+import fr.cnes.sonar.report.providers.PageFetcher;
 import fr.cnes.sonar.report.providers.component.ComponentProvider;
 import fr.cnes.sonar.report.providers.facets.FacetsProvider;
 import fr.cnes.sonar.report.providers.issues.IssuesProvider;
@@ -31,11 +32,41 @@ import fr.cnes.sonar.report.providers.qualitygate.QualityGateProvider;
 import fr.cnes.sonar.report.providers.qualityprofile.QualityProfileProvider;
 import fr.cnes.sonar.report.providers.securityhotspots.SecurityHotspotsProvider;
 
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Construct the report from resources providers.
  */
 public class ReportModelFactory {
 
+    /**
+     * Name of the system property for the maximum number of providers running at the same time
+     * when virtual threads are not available, 1 to run them one by one.
+     */
+    public static final String MAX_PARALLEL_PROVIDERS = "MAX_PARALLEL_PROVIDERS";
+    /**
+     * Default maximum number of providers running at the same time.
+     */
+    private static final int DEFAULT_PARALLEL_PROVIDERS = 8;
+    /**
+     * Name of the stage checking the existence of the project, all other stages depend on it.
+     */
+    private static final String CHECK_STAGE = "check";
+    /**
+     * Name of the stage crawling the raw issues, the confirmed issues are collected by the same crawl.
+     */
+    private static final String RAW_ISSUES_STAGE = "rawIssues";
+
     /**
      * Id of the project to report.
      */
@@ -56,6 +87,22 @@ public class ReportModelFactory {
      * Factory used to create providers.
      */
     private ProviderFactory providerFactory;
+    /**
+     * Executor running the providers, null to create one for each report.
+     */
+    private Executor executor;
+    /**
+     * Duration in milliseconds of each stage of the last report creation.
+     */
+    private Map<String, Long> timings = Collections.emptyMap();
+    /**
+     * Consumer of the raw issues page by page while they are crawled, null if not needed.
+     */
+    private PageFetcher.PageConsumer<List<Map<String,String>>> rawIssuesConsumer;
+    /**
+     * True to keep the raw issues in the report.
+     */
+    private boolean keepRawIssues = true;
 
     /**
      * Complete constructor
@@ -98,39 +145,178 @@ public class ReportModelFactory {
         // date setting
         report.setProjectDate(this.date);
 
-        if(!projectProvider.hasProject(this.project, this.branch)) {
-            throw new SonarQubeException(String.format("Unknown project '%s' on SonarQube instance.", this.project));
-        }
+        // every stage sets its own fields of the report, they only depend on the existence of the project
+        final StageGraph graph = new StageGraph()
+            .add(CHECK_STAGE, () -> {
+                if(!projectProvider.hasProject(this.project, this.branch)) {
+                    throw new SonarQubeException(String.format("Unknown project '%s' on SonarQube instance.", this.project));
+                }
+            })
+            // measures's setting
+            .add("measures", () -> report.setMeasures(measureProvider.getMeasures()), CHECK_STAGE)
+            // metrics' by component setting
+            .add("components", () -> {
+                final Components components = componentProvider.getComponents();
+                report.setComponents(components.getComponentsList());
+                report.setMetricsStats(components.getMetricStats());
+            }, CHECK_STAGE)
+            // set report basic data and project's name
+            .add("project", () -> {
+                report.setProject(projectProvider.getProject(this.project, this.branch));
+                report.setProjectName(report.getProject().getName());
+            }, CHECK_STAGE)
+            // raw issues' setting, streamed while they are crawled if needed
+            .add(RAW_ISSUES_STAGE, () -> {
+                if (this.rawIssuesConsumer != null) {
+                    issuesProvider.crawlRawIssues(this.rawIssuesConsumer, this.keepRawIssues);
+                }
+                if (this.keepRawIssues) {
+                    report.setRawIssues(issuesProvider.getRawIssues());
+                }
+            }, CHECK_STAGE)
+            // formatted issues come from the same crawl as raw issues, unconfirmed issues' setting
+            .add("issues", () -> report.setIssues(issuesProvider.getIssues()), RAW_ISSUES_STAGE)
+            .add("unconfirmedIssues", () -> report.setUnconfirmed(issuesProvider.getUnconfirmedIssues()), CHECK_STAGE)
+            // facets's setting
+            .add("facets", () -> report.setFacets(facetsProvider.getFacets()), CHECK_STAGE)
+            .add("timeFacets", () -> report.setTimeFacets(facetsProvider.getTimeFacets()), CHECK_STAGE)
+            // security hotspots to review
+            .add("toReviewSecurityHotspots", () -> report.setToReviewSecurityHotspots(
+                    securityHotspotsProvider.getToReviewSecurityHotspots()), CHECK_STAGE)
+            // reviewed security hotspots
+            .add("reviewedSecurityHotspots", () -> report.setReviewedSecurityHotspots(
+                    securityHotspotsProvider.getReviewedSecurityHotspots()), CHECK_STAGE)
+            // quality profile's setting
+            .add("qualityProfiles", () -> report.setQualityProfiles(qualityProfileProvider.getQualityProfiles()),
+                    CHECK_STAGE)
+            // quality gate's setting
+            .add("qualityGate", () -> report.setQualityGate(qualityGateProvider.getProjectQualityGate()), CHECK_STAGE)
+            // quality gate's status
+            .add("qualityGateStatus", () -> report.setQualityGateStatus(qualityGateProvider.getQualityGateStatus()),
+                    CHECK_STAGE);
 
-        // measures's setting
-        report.setMeasures(measureProvider.getMeasures());
-        // metrics' by component setting
-        final Components components = componentProvider.getComponents();
-        report.setComponents(components.getComponentsList());
-        report.setMetricsStats(components.getMetricStats());
-        // set report basic data
-        report.setProject(projectProvider.getProject(this.project, this.branch));
-        // project's name's setting
-        report.setProjectName(report.getProject().getName());
-        // formatted issues, unconfirmed issues and raw issues' setting
-        report.setIssues(issuesProvider.getIssues());
-        report.setUnconfirmed(issuesProvider.getUnconfirmedIssues());
-        report.setRawIssues(issuesProvider.getRawIssues());
-        // facets's setting
-        report.setFacets(facetsProvider.getFacets());
-        report.setTimeFacets(facetsProvider.getTimeFacets());
-        // security hotspots to review
-        report.setToReviewSecurityHotspots(securityHotspotsProvider.getToReviewSecurityHotspots());
-        // reviewed security hotspots
-        report.setReviewedSecurityHotspots(securityHotspotsProvider.getReviewedSecurityHotspots());
-        // quality profile's setting
-        report.setQualityProfiles(qualityProfileProvider.getQualityProfiles());
-        // quality gate's setting
-        report.setQualityGate(qualityGateProvider.getProjectQualityGate());
-        // quality gate's status
-        report.setQualityGateStatus(qualityGateProvider.getQualityGateStatus());
+        final ExecutorService service = this.executor == null ? createExecutor() : null;
+        try {
+            graph.execute(service == null ? this.executor : service);
+        } finally {
+            this.timings = graph.getTimings();
+            if (service != null) {
+                service.shutdownNow();
+            }
+        }
 
         return report;
     }
 
+    /**
+     * Set the executor running the providers, by default an executor is created for each report
+     * @param executor the executor to use, it is not shut down by the factory
+     */
+    public void setExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Give the raw issues to a consumer page by page while they are crawled (e.g: to write them at once)
+     * @param consumer consumer of the raw issues of each page, pages are given in order
+     * @param keep true to also keep the raw issues in the report, false to hold only the current page
+     */
+    public void setRawIssuesConsumer(final PageFetcher.PageConsumer<List<Map<String,String>>> consumer,
+                                     final boolean keep) {
+        this.rawIssuesConsumer = consumer;
+        this.keepRawIssues = keep;
+    }
+
+    /**
+     * Duration of the stages of the last report creation
+     * @return the duration in milliseconds of each finished stage
+     */
+    public Map<String, Long> getTimings() {
+        return new LinkedHashMap<>(this.timings);
+    }
+
+    /**
+     * Create the default executor running the providers.
+     * Plugin mode calls are bound to the thread of the web request so they are run in the calling thread,
+     * otherwise virtual threads are used if the JVM provides them.
+     * @return the executor to shut down after use
+     */
+    private ExecutorService createExecutor() {
+        final ExecutorService service;
+        if (this.providerFactory instanceof PluginProviderFactory) {
+            service = new CallerExecutorService();
+        } else {
+            service = createVirtualThreadExecutor().orElseGet(() -> {
+                final int parallelism = Integer.getInteger(MAX_PARALLEL_PROVIDERS, DEFAULT_PARALLEL_PROVIDERS);
+                return parallelism < 2 ? new CallerExecutorService() :
+                        Executors.newFixedThreadPool(parallelism, runnable -> {
+                            final Thread thread = new Thread(runnable, "cnesreport-provider");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+            });
+        }
+        return service;
+    }
+
+    /**
+     * Create an executor starting a virtual thread per task, available since Java 21
+     * @return the executor or nothing if the JVM does not support virtual threads
+     */
+    private static Optional<ExecutorService> createVirtualThreadExecutor() {
+        Optional<ExecutorService> service = Optional.empty();
+        if (Integer.getInteger(MAX_PARALLEL_PROVIDERS, DEFAULT_PARALLEL_PROVIDERS) > 1) {
+            try {
+                final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                service = Optional.of((ExecutorService) factory.invoke(null));
+            } catch (ReflectiveOperationException e) {
+                // virtual threads are not available, a thread pool is used
+                service = Optional.empty();
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Executor running the tasks in the calling thread
+     */
+    private static final class CallerExecutorService extends AbstractExecutorService {
+
+        /**
+         * True once shut down
+         */
+        private volatile boolean shutdown;
+
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            this.shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            this.shutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return this.shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return this.shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+            return true;
+        }
+    }
+
 }
@@ -0,0 +1,199 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.factory;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Graph of stages run on an executor once all their dependencies are done.
+ *
+ * Independent stages run concurrently, the execution stops at the first
+ * failing stage: stages not started yet are skipped and the error is thrown.
+ * The duration of each stage is recorded.
+ */
+public final class StageGraph {
+
+    /**
+     * Work of a single stage
+     */
+    @FunctionalInterface
+    public interface Stage {
+        /**
+         * Run the stage
+         * @throws BadSonarQubeRequestException when a request to the server is not well-formed
+         * @throws UnknownQualityGateException a quality gate is not correct
+         * @throws SonarQubeException When an error occurred from SonarQube server.
+         */
+        void run() throws BadSonarQubeRequestException, UnknownQualityGateException, SonarQubeException;
+    }
+
+    /**
+     * Logger for the class
+     */
+    private static final Logger LOGGER = Logger.getLogger(StageGraph.class.getCanonicalName());
+
+    /**
+     * Stages indexed by name, in the order they were added
+     */
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    /**
+     * Dependencies of each stage
+     */
+    private final Map<String, List<String>> dependencies = new LinkedHashMap<>();
+    /**
+     * Duration of each finished stage in milliseconds
+     */
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Add a stage to the graph
+     * @param name unique name of the stage
+     * @param stage work of the stage
+     * @param requires names of the stages to run before, they must already be in the graph
+     * @return this graph
+     */
+    public StageGraph add(final String name, final Stage stage, final String... requires) {
+        if (stages.containsKey(name)) {
+            throw new IllegalArgumentException(String.format("Stage '%s' is already defined.", name));
+        }
+        final List<String> required = new ArrayList<>();
+        for (final String dependency : requires) {
+            if (!stages.containsKey(dependency)) {
+                throw new IllegalArgumentException(String.format("Unknown stage '%s' required by '%s'.",
+                        dependency, name));
+            }
+            required.add(dependency);
+        }
+        stages.put(name, stage);
+        dependencies.put(name, required);
+        return this;
+    }
+
+    /**
+     * Run all the stages and wait for them
+     * @param executor executor running the stages
+     * @throws BadSonarQubeRequestException when a request to the server is not well-formed
+     * @throws UnknownQualityGateException a quality gate is not correct
+     * @throws SonarQubeException When an error occurred from SonarQube server.
+     */
+    public void execute(final Executor executor)
+            throws BadSonarQubeRequestException, UnknownQualityGateException, SonarQubeException {
+        // completed at the first error to stop the whole graph
+        final CompletableFuture<Void> failure = new CompletableFuture<>();
+        final Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+
+        for (final Map.Entry<String, Stage> entry : stages.entrySet()) {
+            final String name = entry.getKey();
+            final CompletableFuture<?>[] required = dependencies.get(name).stream()
+                    .map(futures::get).toArray(CompletableFuture[]::new);
+            final CompletableFuture<Void> future = CompletableFuture.allOf(required)
+                    .thenRunAsync(() -> run(name, entry.getValue(), failure), executor);
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    failure.completeExceptionally(error);
+                }
+            });
+            futures.put(name, future);
+        }
+
+        final CompletableFuture<Void> all = CompletableFuture.allOf(
+                futures.values().toArray(new CompletableFuture[0]));
+        try {
+            CompletableFuture.anyOf(all, failure).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.cancel(false);
+            throw new SonarQubeException("Interrupted while collecting the report's data.", e);
+        } catch (ExecutionException e) {
+            rethrow(e);
+        }
+    }
+
+    /**
+     * Duration of the stages
+     * @return the duration in milliseconds of each finished stage
+     */
+    public Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    /**
+     * Run a stage unless the graph has already failed, and record its duration
+     * @param name name of the stage
+     * @param stage work of the stage
+     * @param failure completed if another stage failed
+     */
+    private void run(final String name, final Stage stage, final CompletableFuture<Void> failure) {
+        if (!failure.isDone()) {
+            final long start = System.nanoTime();
+            try {
+                stage.run();
+            } catch (BadSonarQubeRequestException | UnknownQualityGateException | SonarQubeException e) {
+                throw new CompletionException(e);
+            }
+            final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            timings.put(name, duration);
+            LOGGER.log(Level.FINE, "Stage {0} done in {1} ms.", new Object[]{name, duration});
+        }
+    }
+
+    /**
+     * Throw the original exception of a failed stage
+     * @param exception the exception wrapping the error
+     * @throws BadSonarQubeRequestException when a request to the server is not well-formed
+     * @throws UnknownQualityGateException a quality gate is not correct
+     * @throws SonarQubeException When an error occurred from SonarQube server.
+     */
+    private static void rethrow(final Exception exception)
+            throws BadSonarQubeRequestException, UnknownQualityGateException, SonarQubeException {
+        Throwable cause = exception;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof BadSonarQubeRequestException) {
+            throw (BadSonarQubeRequestException) cause;
+        } else if (cause instanceof UnknownQualityGateException) {
+            throw (UnknownQualityGateException) cause;
+        } else if (cause instanceof SonarQubeException) {
+            throw (SonarQubeException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new SonarQubeException("Impossible to collect the report's data.", (Exception) cause);
+    }
+}
@@ -17,6 +17,8 @@
 
 package fr.cnes.sonar.report.factory;
 
+import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.providers.SharedResponses;
 import fr.cnes.sonar.report.providers.component.ComponentProvider;
 import fr.cnes.sonar.report.providers.component.ComponentProviderStandalone;
 import fr.cnes.sonar.report.providers.facets.FacetsProvider;
@@ -59,6 +61,10 @@ public class StandaloneProviderFactory implements ProviderFactory {
      * Branch of the project
      */
     private String branch;    
+    /**
+     * Responses shared with the other reports of a batch, null if they are not shared
+     */
+    private SharedResponses sharedResponses;
 	
     /**
      * Constructor.
@@ -68,12 +74,37 @@ public class StandaloneProviderFactory implements ProviderFactory {
      * @param branch Project's branch.
     */
 	public StandaloneProviderFactory(String server, String token, String project, String branch){
+		this(server, token, project, branch, null);
+	}
+
+    /**
+     * Constructor for the reports of a batch.
+     * @param server SonarQube server.
+     * @param token User's token.
+     * @param project Project's id.
+     * @param branch Project's branch.
+     * @param sharedResponses Responses shared with the other reports of the batch.
+    */
+	public StandaloneProviderFactory(String server, String token, String project, String branch,
+                                     SharedResponses sharedResponses){
 		this.server = server;
 		this.token = token;
 		this.project = project;
 		this.branch = branch;
+		this.sharedResponses = sharedResponses;
 	}
 
+    /**
+     * Give the shared responses to a provider
+     * @param provider a new provider
+     * @param <T> type of the provider
+     * @return the provider
+     */
+    private <T extends AbstractDataProvider> T share(final T provider) {
+        provider.setSharedResponses(this.sharedResponses);
+        return provider;
+    }
+
     @Override
     public ComponentProvider createComponentProvider() {
         return new ComponentProviderStandalone(this.server, this.token, this.project, this.branch);
@@ -91,7 +122,7 @@ public class StandaloneProviderFactory implements ProviderFactory {
 
     @Override
     public LanguageProvider createLanguageProvider() {
-        return new LanguageProviderStandalone(this.server, this.token, this.project);
+        return share(new LanguageProviderStandalone(this.server, this.token, this.project));
     }
     
     @Override
@@ -106,7 +137,7 @@ public class StandaloneProviderFactory implements ProviderFactory {
 
     @Override
     public QualityGateProvider createQualityGateProvider() {
-        return new QualityGateProviderStandalone(this.server, this.token, this.project, this.branch);
+        return share(new QualityGateProviderStandalone(this.server, this.token, this.project, this.branch));
     }
 
     @Override
@@ -0,0 +1,320 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.model;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Rows stored by column with a schema shared by all rows
+ * A column keeps its distinct values once and a code per row while it has few distinct values,
+ * it falls back to one plain value per row otherwise.
+ * Rows are read as lightweight map views on the columns
+ * @param <V> type of the values
+ */
+public class ColumnTable<V> extends AbstractList<Map<String, String>> {
+
+    /**
+     * Code of a row which has no value for a column
+     */
+    public static final int ABSENT = -1;
+    /**
+     * Number of rows under which a column always keeps its dictionary
+     */
+    private static final int MIN_ROWS_TO_DROP_DICTIONARY = 64;
+
+    /**
+     * Columns indexed by their key, in order of appearance
+     */
+    private final Map<String, Column<V>> columns = new LinkedHashMap<>();
+    /**
+     * Number of rows
+     */
+    private int size = 0;
+
+    /**
+     * Set the value of a column for the row being added
+     * @param key key of the column
+     * @param value value to set
+     */
+    protected void put(final String key, final V value) {
+        columns.computeIfAbsent(key, k -> new Column<>()).set(size, value);
+    }
+
+    /**
+     * End the row being added, the next values are set on a new row
+     */
+    protected void endRow() {
+        size++;
+    }
+
+    /**
+     * Keys of the columns, in order of appearance
+     * @return an unmodifiable list of keys
+     */
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(new ArrayList<>(columns.keySet()));
+    }
+
+    /**
+     * Distinct values of a column, a code is a position in this list
+     * @param key key of the column
+     * @return an unmodifiable list of values, empty for an unknown column or a column without dictionary
+     */
+    public List<V> getDictionary(final String key) {
+        final Column<V> column = columns.get(key);
+        return column == null || column.dictionary == null ?
+                Collections.emptyList() : Collections.unmodifiableList(column.dictionary);
+    }
+
+    /**
+     * Code of the value of a row in a column
+     * @param key key of the column
+     * @param row index of the row
+     * @return the code of the value, ABSENT if there is no value,
+     * any other negative value for a column without dictionary
+     */
+    public int getCode(final String key, final int row) {
+        final Column<V> column = columns.get(key);
+        return column == null ? ABSENT : column.code(row);
+    }
+
+    /**
+     * Value of a row in a column
+     * @param key key of the column
+     * @param row index of the row
+     * @return the value, null if absent
+     */
+    public V getValue(final String key, final int row) {
+        final Column<V> column = columns.get(key);
+        return column == null ? null : column.value(row);
+    }
+
+    /**
+     * Get a row as a map of its values
+     * Values are typed as strings like the maps bound by Gson, whatever their actual type
+     * @param index index of the row
+     * @return an unmodifiable map view on the row
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, String> get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (Map<String, String>) (Map<String, ?>) new Row(index);
+    }
+
+    /**
+     * Number of rows
+     * @return the number of rows
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Values of a column
+     * @param <V> type of the values
+     */
+    private static class Column<V> {
+        /** Distinct values of the column, shared by all rows, null once dropped */
+        private List<V> dictionary = new ArrayList<>();
+        /** Position of each value in the dictionary, null once dropped */
+        private Map<V, Integer> index = new HashMap<>();
+        /** Code of the value of each row */
+        private int[] codes = new int[0];
+        /** Value of each row once the dictionary is dropped */
+        private Object[] values;
+        /** Rows having a value once the dictionary is dropped */
+        private boolean[] present;
+
+        /**
+         * Set the value of a row
+         * @param row index of the row
+         * @param value the value
+         */
+        private void set(final int row, final V value) {
+            if (dictionary != null && dictionary.size() >= MIN_ROWS_TO_DROP_DICTIONARY
+                    && dictionary.size() > row / 2) {
+                // most values are distinct, a dictionary would only cost more
+                dropDictionary();
+            }
+            if (dictionary == null) {
+                if (row >= values.length) {
+                    values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+                    present = Arrays.copyOf(present, values.length);
+                }
+                values[row] = value;
+                present[row] = true;
+            } else {
+                if (row >= codes.length) {
+                    final int previous = codes.length;
+                    codes = Arrays.copyOf(codes, Math.max(16, Math.max(row + 1, previous * 2)));
+                    Arrays.fill(codes, previous, codes.length, ABSENT);
+                }
+                Integer code = index.get(value);
+                if (code == null) {
+                    code = dictionary.size();
+                    dictionary.add(value);
+                    index.put(value, code);
+                }
+                codes[row] = code;
+            }
+        }
+
+        /**
+         * Replace the codes by the values they stand for
+         */
+        private void dropDictionary() {
+            values = new Object[codes.length];
+            present = new boolean[codes.length];
+            for (int row = 0; row < codes.length; row++) {
+                if (codes[row] != ABSENT) {
+                    values[row] = dictionary.get(codes[row]);
+                    present[row] = true;
+                }
+            }
+            dictionary = null;
+            index = null;
+            codes = null;
+        }
+
+        /**
+         * Code of a row
+         * @param row index of the row
+         * @return the code, ABSENT if there is no value
+         */
+        private int code(final int row) {
+            final int code;
+            if (dictionary == null) {
+                code = row < present.length && present[row] ? ABSENT - 1 : ABSENT;
+            } else {
+                code = row < codes.length ? codes[row] : ABSENT;
+            }
+            return code;
+        }
+
+        /**
+         * Value of a row
+         * @param row index of the row
+         * @return the value, null if absent
+         */
+        @SuppressWarnings("unchecked")
+        private V value(final int row) {
+            final V value;
+            if (dictionary == null) {
+                value = row < values.length ? (V) values[row] : null;
+            } else {
+                final int code = code(row);
+                value = code == ABSENT ? null : dictionary.get(code);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Map view of a row
+     */
+    private class Row extends AbstractMap<String, V> {
+        /** Index of the row */
+        private final int row;
+
+        /**
+         * Constructor
+         * @param pRow index of the row
+         */
+        private Row(final int pRow) {
+            this.row = pRow;
+        }
+
+        @Override
+        public V get(final Object key) {
+            final Column<V> column = columns.get(key);
+            return column == null ? null : column.value(row);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            final Column<V> column = columns.get(key);
+            return column != null && column.code(row) != ABSENT;
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return new AbstractSet<Entry<String, V>>() {
+                @Override
+                public Iterator<Entry<String, V>> iterator() {
+                    final Iterator<Map.Entry<String, Column<V>>> it = columns.entrySet().iterator();
+                    return new Iterator<Entry<String, V>>() {
+                        /** Next entry having a value in this row */
+                        private Entry<String, V> next = advance();
+
+                        private Entry<String, V> advance() {
+                            while (it.hasNext()) {
+                                final Map.Entry<String, Column<V>> column = it.next();
+                                if (column.getValue().code(row) != ABSENT) {
+                                    return new SimpleImmutableEntry<>(column.getKey(), column.getValue().value(row));
+                                }
+                            }
+                            return null;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next != null;
+                        }
+
+                        @Override
+                        public Entry<String, V> next() {
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            final Entry<String, V> current = next;
+                            next = advance();
+                            return current;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int count = 0;
+                    for (Column<V> column : columns.values()) {
+                        if (column.code(row) != ABSENT) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }
+            };
+        }
+    }
+}
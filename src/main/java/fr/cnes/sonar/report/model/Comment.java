@@ -94,4 +94,52 @@ public class Comment {
     public String getCreatedAt() {
         return createdAt;
     }
-}
\ No newline at end of file
+
+    /**
+     * Setter for key.
+     * @param pKey value
+     */
+    public void setKey(final String pKey) {
+        this.key = pKey;
+    }
+
+    /**
+     * Setter for login.
+     * @param pLogin value
+     */
+    public void setLogin(final String pLogin) {
+        this.login = pLogin;
+    }
+
+    /**
+     * Setter for htmlText.
+     * @param pHtmlText value
+     */
+    public void setHtmlText(final String pHtmlText) {
+        this.htmlText = pHtmlText;
+    }
+
+    /**
+     * Setter for markdown.
+     * @param pMarkdown value
+     */
+    public void setMarkdown(final String pMarkdown) {
+        this.markdown = pMarkdown;
+    }
+
+    /**
+     * Setter for updatable.
+     * @param pUpdatable value
+     */
+    public void setUpdatable(final boolean pUpdatable) {
+        this.updatable = pUpdatable;
+    }
+
+    /**
+     * Setter for createdAt.
+     * @param pCreatedAt value
+     */
+    public void setCreatedAt(final String pCreatedAt) {
+        this.createdAt = pCreatedAt;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.model;
+
+/**
+ * Components and their metrics stored by column
+ * Each column keeps its distinct values once, which also interns repeated paths and values,
+ * rows are read as lightweight map views on the columns
+ */
+public class ComponentTable extends ColumnTable<String> {
+
+    /**
+     * Column of the component's id
+     */
+    public static final String ID = "ID";
+    /**
+     * Column of the component's name
+     */
+    public static final String NAME = "Name";
+    /**
+     * Column of the component's path
+     */
+    public static final String PATH = "Path";
+
+    /**
+     * Add a component as a new row
+     * @param component the component to add
+     */
+    public void addComponent(final Component component) {
+        put(ID, component.getId());
+        put(NAME, component.getName());
+        put(PATH, component.getPath());
+        if (component.getMeasures() != null) {
+            for (Measure m : component.getMeasures()) {
+                put(m.getMetric(), m.getValue());
+            }
+        }
+        endRow();
+    }
+}
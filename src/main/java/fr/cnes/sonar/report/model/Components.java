@@ -17,17 +17,15 @@
 
 package fr.cnes.sonar.report.model;
 
-import fr.cnes.sonar.report.exporters.xlsx.XlsXTools;
 import fr.cnes.sonar.report.utils.StringManager;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.math3.stat.descriptive.rank.Median;
 import org.apache.commons.math3.util.Precision;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -91,29 +89,98 @@ public class Components {
      * Generate a map with all metrics stats (for numerical metrics)
      * Generate a map with `min<metric name>`, `max<metric name>`, `median<metric name>`
      * as keys and min, max or median as value (converted in double)
+     * Components are browsed once and each value is parsed once into a column of its metric
      * @return map with min, max and median of each numerical metric in the project
      * */
     public Map<String, Double> getMetricStats(){
-        
+
         Map<String, Double> map = new HashMap<>();
-        // Use first component to gets all metrics names
-
-        if(! componentsList.isEmpty()) {
-            // for each metric
-            for(Object metric: XlsXTools.extractHeader(componentsList)){
-                // if metric is numerical
-                if (isCountableMetric(metric.toString())) {
-                    // Get min, max and median of this metric on the current project
-                    map.put("min" + metric.toString(), getMinMetric(metric.toString()));
-                    map.put("max" + metric.toString(), getMaxMetric(metric.toString()));
-                    map.put("median" + metric.toString(), getMedianMetric(metric.toString()));
+        // columns of values of each metric, null for a metric which is not numerical
+        final Map<String, MetricColumn> columns = new LinkedHashMap<>();
+
+        if(componentsList instanceof ComponentTable) {
+            // values are read column by column, without any map
+            addColumns(columns, (ComponentTable) componentsList);
+        } else {
+            for(Map<String,String> c: componentsList){
+                if(c != null) {
+                    for(Map.Entry<String,String> entry: c.entrySet()){
+                        addValue(columns, entry.getKey(), entry.getValue());
+                    }
                 }
             }
         }
 
+        // for each numerical metric
+        for(Map.Entry<String, MetricColumn> column: columns.entrySet()){
+            if(column.getValue() != null) {
+                // Get min, max and median of this metric on the current project
+                final String metric = column.getKey();
+                map.put("min" + metric, column.getValue().min);
+                map.put("max" + metric, column.getValue().max);
+                map.put("median" + metric, column.getValue().median());
+            }
+        }
+
         return map;
     }
 
+    /**
+     * Add a value to the column of its metric
+     * The first non-null value of a metric decides whether it is numerical
+     * @param columns columns of values of each metric
+     * @param metric the metric
+     * @param rawValue the value of the metric
+     */
+    private void addValue(final Map<String, MetricColumn> columns, final String metric, final String rawValue){
+        if(rawValue != null && !excludeMetricSet.contains(metric)) {
+            MetricColumn column = columns.get(metric);
+            if(column == null && !columns.containsKey(metric)) {
+                column = NumberUtils.isCreatable(rawValue) ? new MetricColumn() : null;
+                columns.put(metric, column);
+            }
+            if(column != null) {
+                column.add(Double.parseDouble(rawValue));
+            }
+        }
+    }
+
+    /**
+     * Add the numerical columns of a component table
+     * Each distinct value of a dictionary column is parsed only once
+     * @param columns columns of values of each metric
+     * @param table the component table
+     */
+    private void addColumns(final Map<String, MetricColumn> columns, final ComponentTable table){
+        for(String metric: table.getColumns()){
+            if(!excludeMetricSet.contains(metric)) {
+                // the first non-null value decides whether the metric is numerical
+                int row = 0;
+                while(row < table.size() && table.getValue(metric, row) == null) {
+                    ++row;
+                }
+                if(row < table.size() && NumberUtils.isCreatable(table.getValue(metric, row))) {
+                    final List<String> dictionary = table.getDictionary(metric);
+                    final double[] parsed = new double[dictionary.size()];
+                    for(int code = 0; code < parsed.length; code++) {
+                        parsed[code] = dictionary.get(code) == null ? Double.NaN : Double.parseDouble(dictionary.get(code));
+                    }
+                    final MetricColumn column = new MetricColumn();
+                    for(; row < table.size(); row++) {
+                        final int code = table.getCode(metric, row);
+                        if(code >= 0 && dictionary.get(code) != null) {
+                            column.add(parsed[code]);
+                        } else if(code < ComponentTable.ABSENT && table.getValue(metric, row) != null) {
+                            // column without dictionary, mostly distinct values
+                            column.add(Double.parseDouble(table.getValue(metric, row)));
+                        }
+                    }
+                    columns.put(metric, column);
+                }
+            }
+        }
+    }
+
     protected boolean isCountableMetric(String metric){
 
         boolean isCountable;
@@ -136,46 +203,132 @@ public class Components {
     }
 
     /**
-     * Get min value for a specified metric
+     * Get the column of values of a specified metric
      */
-    protected double getMinMetric(String metric){
-        double min = Double.MAX_VALUE;
+    private MetricColumn getColumn(String metric){
+        final MetricColumn column = new MetricColumn();
         for(Map<String,String> c: componentsList){
             final String rawValue = c.get(metric);
             if(rawValue!=null){
-                min = Math.min(min, Double.valueOf(rawValue));
+                column.add(Double.parseDouble(rawValue));
             }
         }
-        return min;
+        return column;
+    }
+
+    /**
+     * Get min value for a specified metric
+     */
+    protected double getMinMetric(String metric){
+        return getColumn(metric).min;
     }
 
     /**
      * Get max value for a specified metric
      */
     protected double getMaxMetric(String metric){
-        double max = -Double.MAX_VALUE;
-        for(Map<String,String> c: componentsList){
-            final String rawValue = c.get(metric);
-            if(rawValue!=null){
-                max = Math.max(max, Double.valueOf(rawValue));
-            }
-        }
-        return max;
+        return getColumn(metric).max;
     }
 
     /**
      * Get the median of a specified metric
      */
     protected double getMedianMetric(String metric) {
-        List<Double> values = new ArrayList<>(); 
-        for(Map<String,String> c: componentsList){
-            final String rawValue = c.get(metric);
-            if(rawValue!=null){
-                values.add(Double.valueOf(rawValue));
+        return getColumn(metric).median();
+    }
+
+    /**
+     * Values of a numerical metric stored as primitives
+     */
+    private static class MetricColumn {
+        /** Values of the metric */
+        private double[] values = new double[16];
+        /** Number of values */
+        private int size = 0;
+        /** Min value */
+        private double min = Double.MAX_VALUE;
+        /** Max value */
+        private double max = -Double.MAX_VALUE;
+
+        /**
+         * Add a value and update min and max
+         * @param value the value
+         */
+        private void add(final double value) {
+            if(size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
             }
+            values[size++] = value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        /**
+         * Median of the values, mean of the two middle values for an even number of values
+         * Values are partially ordered by quickselect instead of being sorted
+         * @return the median rounded to one decimal, NaN without values
+         */
+        private double median() {
+            double median = Double.NaN;
+            if(size > 0) {
+                final int middle = size / 2;
+                median = select(values, size, middle);
+                if(size % 2 == 0) {
+                    // lower middle value is the max of the left part after selection
+                    double lower = values[0];
+                    for(int i = 1; i < middle; i++) {
+                        lower = Math.max(lower, values[i]);
+                    }
+                    median = (lower + median) / 2;
+                }
+            }
+            return Precision.round(median, 1);
+        }
+
+        /**
+         * Find the k-th smallest value, values before k end up lower or equal
+         * @param a values to partition
+         * @param n number of values
+         * @param k index of the value to find
+         * @return the k-th smallest value
+         */
+        private static double select(final double[] a, final int n, final int k) {
+            int left = 0;
+            int right = n - 1;
+            while(left < right) {
+                // median of three pivot to avoid quadratic time on sorted values
+                final int mid = (left + right) >>> 1;
+                final double pivot = medianOfThree(a[left], a[mid], a[right]);
+                int i = left;
+                int j = right;
+                while(i <= j) {
+                    while(a[i] < pivot) { i++; }
+                    while(a[j] > pivot) { j--; }
+                    if(i <= j) {
+                        final double tmp = a[i];
+                        a[i] = a[j];
+                        a[j] = tmp;
+                        i++;
+                        j--;
+                    }
+                }
+                if(k <= j) {
+                    right = j;
+                } else if(k >= i) {
+                    left = i;
+                } else {
+                    break;
+                }
+            }
+            return a[k];
+        }
+
+        /**
+         * Median of three values
+         * @return the value between the two others
+         */
+        private static double medianOfThree(final double a, final double b, final double c) {
+            return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
         }
-        Median median = new Median();
-        double[] valuesArray = ArrayUtils.toPrimitive(values.toArray(new Double[values.size()]));
-        return Precision.round(median.evaluate(valuesArray), 1);
     }
-}
\ No newline at end of file
+}
@@ -328,6 +328,14 @@ public class Issue {
         this.language = pLanguage;
     }
 
+    /**
+     * Setter for comments
+     * @param pComments value
+     */
+    public void setComments(Comment[] pComments) {
+        this.comments = pComments;
+    }
+
     /**
      * Get comments as a String with one comment per line.
      * @return A simple String.
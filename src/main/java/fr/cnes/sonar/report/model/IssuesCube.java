@@ -0,0 +1,241 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Number of issues by rule, type, severity and language
+ * Counts are computed once from the issues and only the combinations
+ * of values having issues are stored
+ */
+public class IssuesCube {
+
+    /**
+     * Index of the rule dimension
+     */
+    private static final int RULE = 0;
+    /**
+     * Index of the type dimension
+     */
+    private static final int TYPE = 1;
+    /**
+     * Index of the severity dimension
+     */
+    private static final int SEVERITY = 2;
+    /**
+     * Index of the language dimension
+     */
+    private static final int LANGUAGE = 3;
+    /**
+     * Number of dimensions
+     */
+    private static final int DIMENSIONS = 4;
+
+    /**
+     * Values of each dimension indexed by their position in the cube
+     */
+    private final List<Map<String, Integer>> dictionaries;
+    /**
+     * Positions of the values of each non empty cell, {@code DIMENSIONS} positions per cell
+     */
+    private final int[] cells;
+    /**
+     * Number of issues of each non empty cell
+     */
+    private final int[] counts;
+
+    /**
+     * Cube without any issue
+     */
+    public IssuesCube() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * Count the issues in a single pass
+     * @param pIssues issues to count
+     */
+    public IssuesCube(final List<Issue> pIssues) {
+        this.dictionaries = new ArrayList<>(DIMENSIONS);
+        for (int d = 0; d < DIMENSIONS; d++) {
+            dictionaries.add(new LinkedHashMap<>());
+        }
+
+        // index of each non empty cell by the positions of its values
+        final Map<Cell, Integer> index = new HashMap<>();
+        final List<int[]> coordinates = new ArrayList<>();
+        final List<Integer> cellCounts = new ArrayList<>();
+        for (Issue issue : pIssues) {
+            final Cell cell = new Cell(encode(RULE, issue.getRule()), encode(TYPE, issue.getType()),
+                    encode(SEVERITY, issue.getSeverity()), encode(LANGUAGE, issue.getLanguage()));
+            final Integer position = index.get(cell);
+            if (position == null) {
+                index.put(cell, coordinates.size());
+                coordinates.add(cell.positions);
+                cellCounts.add(1);
+            } else {
+                cellCounts.set(position, cellCounts.get(position) + 1);
+            }
+        }
+
+        // cells are known, store them in primitive arrays
+        this.cells = new int[coordinates.size() * DIMENSIONS];
+        this.counts = new int[coordinates.size()];
+        for (int c = 0; c < counts.length; c++) {
+            System.arraycopy(coordinates.get(c), 0, cells, c * DIMENSIONS, DIMENSIONS);
+            counts[c] = cellCounts.get(c);
+        }
+    }
+
+    /**
+     * Get the position of a value in a dimension, adding it if unknown
+     * @param pDimension the dimension
+     * @param pValue the value
+     * @return the position of the value
+     */
+    private int encode(final int pDimension, final String pValue) {
+        final Map<String, Integer> dictionary = dictionaries.get(pDimension);
+        Integer index = dictionary.get(pValue);
+        if (index == null) {
+            index = dictionary.size();
+            dictionary.put(pValue, index);
+        }
+        return index;
+    }
+
+    /**
+     * Number of issues matching the given values, a null value matches everything
+     * @param pRule rule of the issues
+     * @param pType type of the issues
+     * @param pSeverity severity of the issues
+     * @param pLanguage language of the issues
+     * @return the number of issues
+     */
+    public int count(final String pRule, final String pType, final String pSeverity, final String pLanguage) {
+        final String[] values = {pRule, pType, pSeverity, pLanguage};
+        // position to match in each dimension, -1 matches every position
+        final int[] wanted = new int[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            if (values[d] == null) {
+                wanted[d] = -1;
+            } else {
+                final Integer index = dictionaries.get(d).get(values[d]);
+                if (index == null) {
+                    return 0;
+                }
+                wanted[d] = index;
+            }
+        }
+        int total = 0;
+        for (int c = 0; c < counts.length; c++) {
+            if (matches(c, wanted)) {
+                total += counts[c];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Check if a cell matches the wanted positions
+     * @param pCell index of the cell
+     * @param pWanted position to match in each dimension, -1 matches every position
+     * @return true if the cell matches
+     */
+    private boolean matches(final int pCell, final int[] pWanted) {
+        for (int d = 0; d < DIMENSIONS; d++) {
+            if (pWanted[d] >= 0 && cells[pCell * DIMENSIONS + d] != pWanted[d]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of issues by type and severity
+     * @param pType type of the issues
+     * @param pSeverity severity of the issues
+     * @return the number of issues
+     */
+    public int count(final String pType, final String pSeverity) {
+        return count(null, pType, pSeverity, null);
+    }
+
+    /**
+     * Number of issues of each violated rule
+     * @return map of rule key to number of issues
+     */
+    public Map<String, Long> countByRule() {
+        // number of issues by position of the rule
+        final long[] byRule = new long[dictionaries.get(RULE).size()];
+        for (int c = 0; c < counts.length; c++) {
+            byRule[cells[c * DIMENSIONS + RULE]] += counts[c];
+        }
+        final Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<String, Integer> rule : dictionaries.get(RULE).entrySet()) {
+            result.put(rule.getKey(), byRule[rule.getValue()]);
+        }
+        return result;
+    }
+
+    /**
+     * Keys of the rules violated by the issues
+     * @return an unmodifiable view of the rules
+     */
+    public Set<String> getRules() {
+        return Collections.unmodifiableSet(dictionaries.get(RULE).keySet());
+    }
+
+    /**
+     * Positions of the values of a cell, used as a key while counting
+     */
+    private static final class Cell {
+        /**
+         * Position of the value of each dimension
+         */
+        private final int[] positions;
+
+        /**
+         * Constructor
+         * @param pRule position of the rule
+         * @param pType position of the type
+         * @param pSeverity position of the severity
+         * @param pLanguage position of the language
+         */
+        private Cell(final int pRule, final int pType, final int pSeverity, final int pLanguage) {
+            this.positions = new int[] {pRule, pType, pSeverity, pLanguage};
+        }
+
+        @Override
+        public boolean equals(final Object pOther) {
+            return pOther instanceof Cell && Arrays.equals(positions, ((Cell) pOther).positions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(positions);
+        }
+    }
+}
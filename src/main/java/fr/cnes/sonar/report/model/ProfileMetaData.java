@@ -52,6 +52,14 @@ public class ProfileMetaData {
      */
     @SerializedName("activeDeprecatedRuleCount")
     private int deprecatedRules;
+    /**
+     * date of the last change of the rules of the profile
+     */
+    private String rulesUpdatedAt;
+    /**
+     * date of the last analysis using the profile
+     */
+    private String lastUsed;
 
     /**
      * Default constructor
@@ -171,4 +179,36 @@ public class ProfileMetaData {
     public void setDeprecatedRules(int pDeprecatedRules) {
         this.deprecatedRules = pDeprecatedRules;
     }
+
+    /**
+     * Getter for the date of the last change of the rules
+     * @return date of the last change of the rules, null if unknown
+     */
+    public String getRulesUpdatedAt() {
+        return rulesUpdatedAt;
+    }
+
+    /**
+     * Setter for the date of the last change of the rules
+     * @param pRulesUpdatedAt date of the last change of the rules
+     */
+    public void setRulesUpdatedAt(String pRulesUpdatedAt) {
+        this.rulesUpdatedAt = pRulesUpdatedAt;
+    }
+
+    /**
+     * Getter for the date of the last analysis using the profile
+     * @return date of the last analysis using the profile, null if never used
+     */
+    public String getLastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Setter for the date of the last analysis using the profile
+     * @param pLastUsed date of the last analysis using the profile
+     */
+    public void setLastUsed(String pLastUsed) {
+        this.lastUsed = pLastUsed;
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.model;
+
+import java.util.Map;
+
+/**
+ * Issues in the raw format of the server stored by column
+ * Field names are shared by all issues and low-cardinality values
+ * like rule, severity, status or type are kept once
+ */
+public class RawIssueTable extends ColumnTable<Object> {
+
+    /**
+     * Add an issue as a new row
+     * @param issue the issue as bound from the server response
+     */
+    public void addIssue(final Map<String, ?> issue) {
+        for (Map.Entry<String, ?> field : issue.entrySet()) {
+            put(field.getKey(), field.getValue());
+        }
+        endRow();
+    }
+}
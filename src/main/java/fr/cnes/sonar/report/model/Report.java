@@ -23,6 +23,7 @@ import java.util.*;
 
 /**
  * Model of a report containing all information
+ * Lists are copied once when set and their getters return unmodifiable views
  */
 public class Report {
     /**
@@ -41,6 +42,10 @@ public class Report {
      * List of quality profiles used in the project
      */
     private List<QualityProfile> qualityProfiles;
+    /**
+     * Rules of the quality profiles indexed by key, built when profiles are set
+     */
+    private Map<String, Rule> rulesIndex;
     /**
      * Quality gate used in the project
      */
@@ -49,6 +54,10 @@ public class Report {
      * List of issues detected in the project
      */
     private List<Issue> issues;
+    /**
+     * Number of issues by rule, type, severity and language
+     */
+    private IssuesCube issuesCube;
     /**
      * List of facets of the project
      */
@@ -100,17 +109,19 @@ public class Report {
         this.projectName = "";
         this.projectAuthor = "";
         this.projectDate = "";
-        this.qualityProfiles = new ArrayList<>();
+        this.qualityProfiles = Collections.emptyList();
+        this.rulesIndex = Collections.emptyMap();
         this.qualityGate = new QualityGate();
-        this.issues = new ArrayList<>();
-        this.unconfirmed = new ArrayList<>();
+        this.issues = Collections.emptyList();
+        this.issuesCube = new IssuesCube();
+        this.unconfirmed = Collections.emptyList();
         this.facets = new Facets();
         this.timeFacets = new TimeFacets();
-        this.toReviewSecurityHotspots = new ArrayList<>();
-        this.reviewedSecurityHotspots = new ArrayList<>();
-        this.measures = new ArrayList<>();
-        this.rawIssues = new ArrayList<>();
-        this.components = new ArrayList<>();
+        this.toReviewSecurityHotspots = Collections.emptyList();
+        this.reviewedSecurityHotspots = Collections.emptyList();
+        this.measures = Collections.emptyList();
+        this.rawIssues = Collections.emptyList();
+        this.components = Collections.emptyList();
         this.metricsStats = new HashMap<>();
         this.qualityGateStatus = new HashMap<>();
         this.project = new Project(StringManager.EMPTY, StringManager.EMPTY,
@@ -122,27 +133,17 @@ public class Report {
      * @return issues
      */
     public Map<String, Long> getIssuesFacets() {
-        // returned map containing issues key/number of issues
-        final Map<String, Long> lFacets = new HashMap<>();
-        // collect issues' occurrences number
-        long counter;
-        // collect the rule's id for each issue
-        String rule;
-
-        // we browse all the issues and for each issue,
-        // if it is known then we increment its counter
-        // otherwise we add it to the map
-        for(Issue issue : getIssues()) {
-            rule = issue.getRule();
-            counter = 1;
-            if(lFacets.containsKey(rule)) {
-                counter = lFacets.get(rule) + 1;
-            }
-            lFacets.put(rule, counter);
-        }
+        return issuesCube.countByRule();
+    }
 
-        return lFacets;
+    /**
+     * Get the number of issues by rule, type, severity and language
+     * @return the issues cube
+     */
+    public IssuesCube getIssuesCube() {
+        return issuesCube;
     }
+
     /**
      * Getter for metrics stats
      * @param metricsStats maps with min, max, mean all numerical metric
@@ -159,20 +160,23 @@ public class Report {
      * Getter for components
      * @return components
      */
-    public List<Map<String,String>> getComponents() {return new ArrayList<>(components); }
+    public List<Map<String,String>> getComponents() {return components; }
 
     /**
      * Setteer for components
      * @param components
      */
-    public void setComponents(List<Map<String,String>> components){ this.components = new ArrayList<>(components); }
+    public void setComponents(List<Map<String,String>> components){
+        // a column table is already read-only through the list interface
+        this.components = components instanceof ColumnTable ? components : freeze(components);
+    }
 
     /**
      * Get issues
      * @return issues
      */
     public List<Issue> getIssues() {
-        return new ArrayList<>(issues);
+        return issues;
     }
 
     /**
@@ -180,7 +184,8 @@ public class Report {
      * @param pIssues value
      */
     public void setIssues(List<Issue> pIssues) {
-        this.issues = new ArrayList<>(pIssues);
+        this.issues = freeze(pIssues);
+        this.issuesCube = new IssuesCube(this.issues);
     }
 
     /**
@@ -196,7 +201,7 @@ public class Report {
      * @param pToReviewSecurityHotspots value
      */
     public void setToReviewSecurityHotspots(List<SecurityHotspot> pToReviewSecurityHotspots) {
-        this.toReviewSecurityHotspots = pToReviewSecurityHotspots;
+        this.toReviewSecurityHotspots = freeze(pToReviewSecurityHotspots);
     }
 
     /**
@@ -212,7 +217,7 @@ public class Report {
      * @param pReviewedSecurityHotspots value
      */
     public void setReviewedSecurityHotspots(List<SecurityHotspot> pReviewedSecurityHotspots) {
-        this.reviewedSecurityHotspots = pReviewedSecurityHotspots;
+        this.reviewedSecurityHotspots = freeze(pReviewedSecurityHotspots);
     }
 
     /**
@@ -268,7 +273,7 @@ public class Report {
      * @return qualityProfiles
      */
     public List<QualityProfile> getQualityProfiles() {
-        return new ArrayList<>(qualityProfiles);
+        return qualityProfiles;
     }
 
     /**
@@ -276,7 +281,35 @@ public class Report {
      * @param pQualityProfiles value
      */
     public void setQualityProfiles(List<QualityProfile> pQualityProfiles) {
-        this.qualityProfiles = new ArrayList<>(pQualityProfiles);
+        this.qualityProfiles = freeze(pQualityProfiles);
+        this.rulesIndex = indexRules(this.qualityProfiles);
+    }
+
+    /**
+     * Index the rules of quality profiles by key,
+     * the first profile containing a rule gives it like a profile by profile search
+     * @param pQualityProfiles the quality profiles
+     * @return an immutable map of the rules
+     */
+    private static Map<String, Rule> indexRules(List<QualityProfile> pQualityProfiles) {
+        final Map<String, Rule> index = new HashMap<>();
+        for (QualityProfile qp : pQualityProfiles) {
+            for (Rule rule : qp.getRules()) {
+                index.putIfAbsent(rule.getKey(), rule);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Copy a list once into an unmodifiable list,
+     * getters can then share it without any defensive copy
+     * @param pList the list to copy
+     * @param <T> type of the elements
+     * @return an unmodifiable copy of the list
+     */
+    private static <T> List<T> freeze(List<T> pList) {
+        return Collections.unmodifiableList(new ArrayList<>(pList));
     }
 
     /**
@@ -300,7 +333,7 @@ public class Report {
      * @return measures
      */
     public List<Measure> getMeasures() {
-        return new ArrayList<>(measures);
+        return measures;
     }
 
     /**
@@ -308,7 +341,7 @@ public class Report {
      * @param pMeasures value
      */
     public void setMeasures(List<Measure> pMeasures) {
-        this.measures = new ArrayList<>(pMeasures);
+        this.measures = freeze(pMeasures);
     }
 
     /**
@@ -381,23 +414,8 @@ public class Report {
      * @return the rule or null if not found
      */
     public Rule getRule(String pKey) {
-        // result initialization
-        Rule rule = null;
-
-        // browse all quality profile
-        final Iterator<QualityProfile> iterator = getQualityProfiles().iterator();
-        QualityProfile qp;
-
-        // search for the rule with the asking key
-        while(iterator.hasNext() && rule==null) {
-            // get next profile
-            qp = iterator.next();
-            // check if the rule is in this profile
-            rule = qp.find(pKey);
-        }
-
-        // return the found rule, can be null
-        return rule;
+        // the index is immutable, it is read without copy nor lock
+        return rulesIndex.get(pKey);
     }
 
     /**
@@ -405,7 +423,7 @@ public class Report {
      * @return return the raw issues' list
      */
     public List<Map<String,String>> getRawIssues() {
-        return new ArrayList<>(rawIssues);
+        return rawIssues;
     }
 
     /**
@@ -413,7 +431,8 @@ public class Report {
      * @param pRawIssues list of map
      */
     public void setRawIssues(List<Map<String,String>> pRawIssues) {
-        this.rawIssues = new ArrayList<>(pRawIssues);
+        // a column table is already read-only through the list interface
+        this.rawIssues = pRawIssues instanceof ColumnTable ? pRawIssues : freeze(pRawIssues);
     }
 
     /**
@@ -454,7 +473,7 @@ public class Report {
      * @return issues
      */
     public List<Issue> getUnconfirmed() {
-        return new ArrayList<>(unconfirmed);
+        return unconfirmed;
     }
 
     /**
@@ -462,7 +481,7 @@ public class Report {
      * @param pIssues value
      */
     public void setUnconfirmed(List<Issue> pIssues) {
-        this.unconfirmed = new ArrayList<>(pIssues);
+        this.unconfirmed = freeze(pIssues);
     }
 
     /**
@@ -29,7 +29,9 @@ import org.sonar.core.util.ProtobufJsonFormat;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Properties;
+import java.util.function.ToIntFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,6 +48,11 @@ public abstract class AbstractDataProvider {
      *  Name of the property for the maximum number of results per page
      */
     protected static final String MAX_PER_PAGE_SONARQUBE = "MAX_PER_PAGE_SONARQUBE";
+    /**
+     *  Name of the property for the maximum number of pages requested at the same time,
+     *  can be overridden by a system property with the same name
+     */
+    protected static final String MAX_PARALLEL_PAGE_REQUESTS = "MAX_PARALLEL_PAGE_REQUESTS";
     /**
      *  Name of the request for getting a specific project
      */
@@ -112,6 +119,11 @@ public abstract class AbstractDataProvider {
      */
     protected String qualityGateName;
 
+    /**
+     * Responses shared with the other reports of a batch, null if they are not shared
+     */
+    protected SharedResponses sharedResponses;
+
     // Static initialization block for reading .properties
     static {
         // Need of the local classloader to read inner properties file.
@@ -218,6 +230,71 @@ public abstract class AbstractDataProvider {
         return requests.getProperty(property);
     }
 
+    /**
+     * Number of pages that can be requested at the same time.
+     * Plugin mode calls are bound to the thread of the web request, so they are never parallelized.
+     * @return the maximum number of parallel page requests
+     */
+    protected int getPageRequestsParallelism() {
+        int parallelism = 1;
+        if (this.wsClient == null) {
+            final String value = System.getProperty(MAX_PARALLEL_PAGE_REQUESTS, getRequest(MAX_PARALLEL_PAGE_REQUESTS));
+            try {
+                parallelism = Integer.parseInt(String.valueOf(value).trim());
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.WARNING, "Wrong value for {0}, pages will be requested one by one.",
+                        MAX_PARALLEL_PAGE_REQUESTS);
+            }
+        }
+        return parallelism;
+    }
+
+    /**
+     * Request all the pages of a paged web service and give them in order to a consumer
+     * @param request request of a single page
+     * @param totalOf extract the total number of items from a response
+     * @param maxPerPage number of items per page
+     * @param limit maximum number of items the server is able to give
+     * @param consumer consumer of the pages
+     * @param <T> type of a page
+     * @return the total number of items announced by the server
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected <T> int fetchPages(final PageFetcher.PageRequest<T> request, final ToIntFunction<T> totalOf,
+                                 final int maxPerPage, final int limit, final PageFetcher.PageConsumer<T> consumer)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return getPageFetcher().fetch(request, totalOf, maxPerPage, limit, consumer);
+    }
+
+    /**
+     * Paging engine configured for this provider, sharing its workers with the other providers of the server
+     * @return a new page fetcher
+     */
+    protected PageFetcher getPageFetcher() {
+        return new PageFetcher(server, getPageRequestsParallelism());
+    }
+
+    /**
+     * Reader binding a field of a streamed response directly to an array of model objects
+     * @param name name under which the array is stored in the page
+     * @param type type of the array
+     * @param <T> type of the array
+     * @return the field reader
+     */
+    protected <T> JsonPage.FieldReader arrayReader(final String name, final Class<T[]> type) {
+        return (reader, page) -> page.put(name, getGson().fromJson(reader, type));
+    }
+
+    /**
+     * Total number of items of a paged response containing a paging section
+     * @param jsonObject the response
+     * @return the total number of items
+     */
+    protected static int pagingTotalOf(final JsonObject jsonObject) {
+        return jsonObject.getAsJsonObject(PAGING).get(TOTAL).getAsInt();
+    }
+
     /**
      * Check if the server has sent an error
      * @param jsonObject The response from the server
@@ -248,7 +325,29 @@ public abstract class AbstractDataProvider {
     public JsonObject request(final String request)
             throws BadSonarQubeRequestException, SonarQubeException {
         // do the request to the server and return a string answer
-        final String raw = stringRequest(request);
+        return toJsonObject(stringRequest(request));
+    }
+
+    /**
+     * Execute a given request which does not depend on the project,
+     * its response is shared with the other reports of a batch
+     * @param request Url for the request, for example http://sonarqube:1234/api/languages/list
+     * @return Server's response as a JsonObject
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected JsonObject sharedRequest(final String request)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return toJsonObject(sharedStringRequest(request));
+    }
+
+    /**
+     * Parse a response of the server and check it does not contain an error
+     * @param raw Server's response as a string
+     * @return Server's response as a JsonObject
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     */
+    private JsonObject toJsonObject(final String raw) throws BadSonarQubeRequestException {
 
         // prepare json
         final JsonElement json;
@@ -285,14 +384,54 @@ public abstract class AbstractDataProvider {
      * @throws BadSonarQubeRequestException if SonarQube Server sent an error
      */
     protected String stringRequest(final String request) throws SonarQubeException, BadSonarQubeRequestException {
-        // prepare the request by replacing some relevant special characters
+        // launch the request on SonarQube server and retrieve resources into a string
+        return RequestManager.getInstance().get(prepareRequest(request), this.token);
+    }
+
+    /**
+     * Get the raw string response of a request which does not depend on the project,
+     * it is shared with the other reports of a batch
+     * @param request the raw server of the request
+     * @return the server's response as a string
+     * @throws SonarQubeException When SonarQube server is not callable.
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     */
+    protected String sharedStringRequest(final String request)
+            throws SonarQubeException, BadSonarQubeRequestException {
+        final String response;
+        if (this.sharedResponses == null) {
+            response = stringRequest(request);
+        } else {
+            response = this.sharedResponses.get(this.token, request, () -> stringRequest(request));
+        }
+        return response;
+    }
+
+    /**
+     * Execute a given request and read the response as a stream, only the fields having a reader are kept
+     * @param request Url for the request, for example http://sonarqube:1234/api/toto/list
+     * @param readers readers of the fields to keep, indexed by field name
+     * @return Server's response as a page
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected JsonPage requestPage(final String request, final Map<String, JsonPage.FieldReader> readers)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // launch the request on SonarQube server and bind the response while it is received
+        return RequestManager.getInstance().get(prepareRequest(request), this.token,
+                reader -> JsonPage.read(reader, readers));
+    }
+
+    /**
+     * Prepare a request by replacing some relevant special characters
+     * @param request Url for the request
+     * @return the prepared url
+     */
+    private static String prepareRequest(final String request) {
         // replace spaces
-        String preparedRequest = request.replace(" ", "%20");
+        final String preparedRequest = request.replace(" ", "%20");
         // replace + characters
-        preparedRequest = preparedRequest.replace("+", "%2B");
-
-        // launch the request on SonarQube server and retrieve resources into a string
-        return RequestManager.getInstance().get(preparedRequest, this.token);
+        return preparedRequest.replace("+", "%2B");
     }
 
     /**
@@ -417,4 +556,20 @@ public abstract class AbstractDataProvider {
     public void setQualityGateName(final String pQualityGateName) {
         this.qualityGateName = pQualityGateName;
     }
+
+    /**
+     * Responses shared with the other reports of a batch
+     * @return the shared responses, null if they are not shared
+     */
+    public SharedResponses getSharedResponses() {
+        return sharedResponses;
+    }
+
+    /**
+     * Setter of sharedResponses
+     * @param pSharedResponses value, null to not share the responses
+     */
+    public void setSharedResponses(final SharedResponses pSharedResponses) {
+        this.sharedResponses = pSharedResponses;
+    }
 }
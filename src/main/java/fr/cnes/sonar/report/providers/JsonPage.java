@@ -0,0 +1,223 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Page of a SonarQube web service response read as a stream.
+ *
+ * Only the total number of items and the fields having a reader are kept,
+ * each field being bound directly to model objects while the response is read.
+ * Other fields are skipped without being loaded in memory.
+ */
+public final class JsonPage {
+
+    /**
+     * Reader of a field of the response
+     */
+    @FunctionalInterface
+    public interface FieldReader {
+        /**
+         * Bind the value of the field and store the result in the page
+         * @param reader reader positioned on the value of the field
+         * @param page page receiving the bound values
+         * @throws IOException if the response cannot be read
+         */
+        void read(JsonReader reader, JsonPage page) throws IOException;
+    }
+
+    /**
+     * Field containing the total number of items
+     */
+    private static final String TOTAL = "total";
+    /**
+     * Field containing the paging section
+     */
+    private static final String PAGING = "paging";
+    /**
+     * Field containing the errors sent by the server
+     */
+    private static final String ERRORS = "errors";
+    /**
+     * Field containing the message of an error
+     */
+    private static final String MSG = "msg";
+
+    /**
+     * Values bound by the field readers
+     */
+    private final Map<String, Object> values = new HashMap<>();
+    /**
+     * Total number of items announced by the server, -1 if unknown
+     */
+    private int total = -1;
+
+    /**
+     * Constructor of an empty page, filled by the caller
+     */
+    public JsonPage() {
+        // values are put by the field readers or the caller
+    }
+
+    /**
+     * Read a response from a stream
+     * @param reader the response
+     * @param readers readers of the fields to keep, indexed by field name
+     * @return the page
+     * @throws BadSonarQubeRequestException if the server sent an error or a malformed response
+     */
+    public static JsonPage read(final Reader reader, final Map<String, FieldReader> readers)
+            throws BadSonarQubeRequestException {
+        return read(new JsonReader(reader), readers);
+    }
+
+    /**
+     * Read a response already parsed as a JsonObject, the tree is serialized again to be read as a stream
+     * @param jsonObject the response
+     * @param readers readers of the fields to keep, indexed by field name
+     * @return the page
+     * @throws BadSonarQubeRequestException if the server sent an error or a malformed response
+     */
+    public static JsonPage read(final JsonObject jsonObject, final Map<String, FieldReader> readers)
+            throws BadSonarQubeRequestException {
+        return read(new StringReader(jsonObject.toString()), readers);
+    }
+
+    /**
+     * Read a response
+     * @param jsonReader reader of the response
+     * @param readers readers of the fields to keep, indexed by field name
+     * @return the page
+     * @throws BadSonarQubeRequestException if the server sent an error or a malformed response
+     */
+    private static JsonPage read(final JsonReader jsonReader, final Map<String, FieldReader> readers)
+            throws BadSonarQubeRequestException {
+        final JsonPage page = new JsonPage();
+        try (JsonReader in = jsonReader) {
+            in.beginObject();
+            while (in.hasNext()) {
+                final String name = in.nextName();
+                final FieldReader fieldReader = readers.get(name);
+                if (fieldReader != null) {
+                    fieldReader.read(in, page);
+                } else if (TOTAL.equals(name) && in.peek() == JsonToken.NUMBER) {
+                    page.total = in.nextInt();
+                } else if (PAGING.equals(name)) {
+                    page.readPaging(in);
+                } else if (ERRORS.equals(name)) {
+                    throw new BadSonarQubeRequestException(readError(in));
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+        } catch (IOException | IllegalStateException | JsonParseException e) {
+            throw new BadSonarQubeRequestException("Malformed server response, reason: " + e.getMessage());
+        }
+        return page;
+    }
+
+    /**
+     * Read the total number of items from the paging section
+     * @param in reader positioned on the paging section
+     * @throws IOException if the response cannot be read
+     */
+    private void readPaging(final JsonReader in) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            // the total of the root object has priority
+            if (TOTAL.equals(in.nextName()) && total < 0) {
+                total = in.nextInt();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    /**
+     * Read the message of the first error sent by the server
+     * @param in reader positioned on the errors array
+     * @return the message of the error
+     * @throws IOException if the response cannot be read
+     */
+    private static String readError(final JsonReader in) throws IOException {
+        String message = null;
+        in.beginArray();
+        while (in.hasNext()) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (MSG.equals(in.nextName()) && message == null) {
+                    message = in.nextString();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+        }
+        in.endArray();
+        return message;
+    }
+
+    /**
+     * Total number of items announced by the server
+     * @return the total or -1 if the response does not contain it
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Set the total number of items
+     * @param pTotal value
+     */
+    public void setTotal(final int pTotal) {
+        this.total = pTotal;
+    }
+
+    /**
+     * Store a bound value
+     * @param name name of the value
+     * @param value the value
+     */
+    public void put(final String name, final Object value) {
+        values.put(name, value);
+    }
+
+    /**
+     * Get a bound value
+     * @param name name of the value
+     * @param <T> type of the value
+     * @return the value or null if the response did not contain it
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String name) {
+        return (T) values.get(name);
+    }
+}
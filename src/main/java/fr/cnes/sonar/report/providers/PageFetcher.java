@@ -0,0 +1,249 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Fetch all the pages of a paged SonarQube web service.
+ *
+ * The first page is requested alone to know the total number of items,
+ * then the remaining pages are requested by a bounded number of workers.
+ * Pages are always given to the consumer in their natural order and at most
+ * {@code parallelism} pages are waiting to be consumed at the same time.
+ * All the fetchers of a server share the same workers, so nested crawls and parallel
+ * reports never send more than {@code parallelism} requests at the same time to a server.
+ */
+public final class PageFetcher {
+
+    /**
+     * Request of a single page
+     * @param <T> type of a page, a JsonObject or a streamed page
+     */
+    @FunctionalInterface
+    public interface PageRequest<T> {
+        /**
+         * Get a page from the server
+         * @param page index of the page, starting at 1
+         * @return the server's response
+         * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+         * @throws SonarQubeException When SonarQube server is not callable.
+         */
+        T get(int page) throws BadSonarQubeRequestException, SonarQubeException;
+    }
+
+    /**
+     * Consumer of the fetched pages
+     * @param <T> type of a page, a JsonObject or a streamed page
+     */
+    @FunctionalInterface
+    public interface PageConsumer<T> {
+        /**
+         * Handle a page
+         * @param page index of the page, starting at 1
+         * @param response the server's response for this page
+         * @throws BadSonarQubeRequestException if the response is not correct
+         * @throws SonarQubeException When SonarQube server is not callable.
+         */
+        void accept(int page, T response) throws BadSonarQubeRequestException, SonarQubeException;
+    }
+
+    /**
+     * Idle time in seconds after which a worker is stopped
+     */
+    private static final long KEEP_ALIVE = 30L;
+
+    /**
+     * Workers shared by all the fetchers, indexed by server
+     */
+    private static final Map<String, ExecutorService> EXECUTORS = new ConcurrentHashMap<>();
+
+    /**
+     * Server the pages are requested to
+     */
+    private final String server;
+
+    /**
+     * Maximum number of pages requested at the same time
+     */
+    private final int parallelism;
+
+    /**
+     * Constructor
+     * @param server server the pages are requested to, its workers are shared with the other fetchers
+     * @param parallelism maximum number of pages requested at the same time,
+     *                    pages are requested in the calling thread if lower than 2.
+     *                    The first fetcher of a server sets the number of workers of the server.
+     */
+    public PageFetcher(final String server, final int parallelism) {
+        this.server = String.valueOf(server);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Constructor for fetchers which do not share their workers with a known server
+     * @param parallelism maximum number of pages requested at the same time,
+     *                    pages are requested in the calling thread if lower than 2
+     */
+    public PageFetcher(final int parallelism) {
+        this("", parallelism);
+    }
+
+    /**
+     * Request all the pages and give them to the consumer in order
+     * @param request request of a single page
+     * @param totalOf extract the total number of items from a response
+     * @param maxPerPage number of items per page
+     * @param limit maximum number of items the server is able to give
+     * @param consumer consumer of the pages
+     * @param <T> type of a page
+     * @return the total number of items announced by the server (can be greater than limit)
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    public <T> int fetch(final PageRequest<T> request, final ToIntFunction<T> totalOf, final int maxPerPage,
+                         final int limit, final PageConsumer<T> consumer)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // the first page gives the total number of items
+        final T first = request.get(1);
+        final int total = totalOf.applyAsInt(first);
+        consumer.accept(1, first);
+
+        final int pages = (Math.min(total, limit) + maxPerPage - 1) / maxPerPage;
+        fetchEach(request, 2, pages, consumer);
+
+        return total;
+    }
+
+    /**
+     * Request the pages {@code first} to {@code last} and give them to the consumer in order.
+     * It can also be used to send any other indexed requests, like the first pages of several searches.
+     * @param request request of a single page
+     * @param first index of the first page
+     * @param last index of the last page
+     * @param consumer consumer of the pages
+     * @param <T> type of a page
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    public <T> void fetchEach(final PageRequest<T> request, final int first, final int last,
+                              final PageConsumer<T> consumer)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        if (parallelism < 2 || last - first < 1) {
+            for (int page = first; page <= last; page++) {
+                consumer.accept(page, request.get(page));
+            }
+        } else {
+            fetchConcurrently(request, first, last, consumer);
+        }
+    }
+
+    /**
+     * Request the pages {@code first} to {@code last} with a sliding window of workers
+     * @param request request of a single page
+     * @param first index of the first page
+     * @param last index of the last page
+     * @param consumer consumer of the pages
+     * @param <T> type of a page
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private <T> void fetchConcurrently(final PageRequest<T> request, final int first, final int last,
+                                       final PageConsumer<T> consumer)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final ExecutorService executor = EXECUTORS.computeIfAbsent(server, key -> newExecutor(parallelism));
+        final Deque<Future<T>> window = new ArrayDeque<>();
+        int next = first;
+        int consumed = first;
+        try {
+            while (consumed <= last) {
+                // keep the window full
+                while (next <= last && window.size() < parallelism) {
+                    final int page = next++;
+                    window.add(executor.submit(() -> request.get(page)));
+                }
+                // consume the oldest page
+                consumer.accept(consumed++, await(window.poll()));
+            }
+        } finally {
+            // stop the remaining requests on failure
+            for (final Future<T> future : window) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Create the workers of a server, they are stopped when they are idle
+     * @param parallelism number of workers
+     * @return the workers
+     */
+    private static ExecutorService newExecutor(final int parallelism) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism,
+                KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "cnesreport-page-fetcher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Wait for a response and unwrap the exception thrown by its request
+     * @param future the response being requested (e.g: a page)
+     * @param <T> type of the response
+     * @return the server's response
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    static <T> T await(final Future<T> future)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SonarQubeException("Interrupted while requesting SonarQube.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof BadSonarQubeRequestException) {
+                throw (BadSonarQubeRequestException) cause;
+            } else if (cause instanceof SonarQubeException) {
+                throw (SonarQubeException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SonarQubeException("Impossible to request SonarQube.", e);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.MapEntry;
+import com.google.protobuf.Message;
+import fr.cnes.sonar.report.model.Comment;
+import fr.cnes.sonar.report.model.Component;
+import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.Measure;
+import fr.cnes.sonar.report.model.Rule;
+import fr.cnes.sonar.report.model.SecurityHotspot;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Hotspots;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.Rules;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Map SonarQube protobuf responses directly to model objects in plugin mode.
+ *
+ * Model objects get the same values as if the response had been converted
+ * to JSON by SonarQube and then bound by Gson, without the intermediate string.
+ */
+public final class ProtobufMapper {
+
+    /**
+     * Private constructor to hide the public one
+     */
+    private ProtobufMapper() {}
+
+    /**
+     * Map an issue
+     * @param source the protobuf issue
+     * @return the issue
+     */
+    public static Issue toIssue(final Issues.Issue source) {
+        final Issue issue = new Issue();
+        if (source.hasKey()) {
+            issue.setKey(source.getKey());
+        }
+        if (source.hasRule()) {
+            issue.setRule(source.getRule());
+        }
+        if (source.hasSeverity()) {
+            issue.setSeverity(source.getSeverity().name());
+        }
+        if (source.hasComponent()) {
+            issue.setComponent(source.getComponent());
+        }
+        if (source.hasProject()) {
+            issue.setProject(source.getProject());
+        }
+        if (source.hasLine()) {
+            issue.setLine(String.valueOf(source.getLine()));
+        }
+        if (source.hasStatus()) {
+            issue.setStatus(source.getStatus());
+        }
+        if (source.hasResolution()) {
+            issue.setResolution(source.getResolution());
+        }
+        if (source.hasEffort()) {
+            issue.setEffort(source.getEffort());
+        }
+        if (source.hasType()) {
+            issue.setType(source.getType().name());
+        }
+        if (source.hasMessage()) {
+            issue.setMessage(source.getMessage());
+        }
+        if (source.hasComments()) {
+            issue.setComments(toComments(source.getComments().getCommentsList()));
+        }
+        return issue;
+    }
+
+    /**
+     * Map the comments of an issue or a security hotspot
+     * @param source the protobuf comments
+     * @return the comments
+     */
+    public static Comment[] toComments(final List<Common.Comment> source) {
+        final Comment[] comments = new Comment[source.size()];
+        for (int i = 0; i < comments.length; i++) {
+            final Common.Comment from = source.get(i);
+            final Comment comment = new Comment();
+            if (from.hasKey()) {
+                comment.setKey(from.getKey());
+            }
+            if (from.hasLogin()) {
+                comment.setLogin(from.getLogin());
+            }
+            if (from.hasHtmlText()) {
+                comment.setHtmlText(from.getHtmlText());
+            }
+            if (from.hasMarkdown()) {
+                comment.setMarkdown(from.getMarkdown());
+            }
+            if (from.hasUpdatable()) {
+                comment.setUpdatable(from.getUpdatable());
+            }
+            if (from.hasCreatedAt()) {
+                comment.setCreatedAt(from.getCreatedAt());
+            }
+            comments[i] = comment;
+        }
+        return comments;
+    }
+
+    /**
+     * Map a rule embedded in a search issues response
+     * @param source the protobuf rule
+     * @return the rule
+     */
+    public static Rule toRule(final Common.Rule source) {
+        final Rule rule = new Rule();
+        if (source.hasKey()) {
+            rule.setKey(source.getKey());
+        }
+        if (source.hasName()) {
+            rule.setName(source.getName());
+        }
+        if (source.hasLang()) {
+            rule.setLang(source.getLang());
+        }
+        if (source.hasStatus()) {
+            rule.setStatus(source.getStatus().name());
+        }
+        if (source.hasLangName()) {
+            rule.setLangName(source.getLangName());
+        }
+        return rule;
+    }
+
+    /**
+     * Map a rule of a search rules response
+     * @param source the protobuf rule
+     * @return the rule
+     */
+    public static Rule toRule(final Rules.Rule source) {
+        final Rule rule = new Rule();
+        if (source.hasKey()) {
+            rule.setKey(source.getKey());
+        }
+        if (source.hasRepo()) {
+            rule.setRepo(source.getRepo());
+        }
+        if (source.hasName()) {
+            rule.setName(source.getName());
+        }
+        if (source.hasSeverity()) {
+            rule.setSeverity(source.getSeverity());
+        }
+        if (source.hasType()) {
+            rule.setType(source.getType().name());
+        }
+        if (source.hasHtmlDesc()) {
+            rule.setHtmlDesc(source.getHtmlDesc());
+        }
+        if (source.hasDebtRemFnCoeff()) {
+            rule.setDebt(source.getDebtRemFnCoeff());
+        }
+        if (source.hasLang()) {
+            rule.setLang(source.getLang());
+        }
+        if (source.hasStatus()) {
+            rule.setStatus(source.getStatus().name());
+        }
+        if (source.hasLangName()) {
+            rule.setLangName(source.getLangName());
+        }
+        return rule;
+    }
+
+    /**
+     * Map a security hotspot of a search hotspots response
+     * @param source the protobuf security hotspot
+     * @return the security hotspot
+     */
+    public static SecurityHotspot toSecurityHotspot(final Hotspots.SearchWsResponse.Hotspot source) {
+        final SecurityHotspot securityHotspot = new SecurityHotspot();
+        if (source.hasKey()) {
+            securityHotspot.setKey(source.getKey());
+        }
+        if (source.hasComponent()) {
+            securityHotspot.setComponent(source.getComponent());
+        }
+        if (source.hasLine()) {
+            securityHotspot.setLine(String.valueOf(source.getLine()));
+        }
+        if (source.hasSecurityCategory()) {
+            securityHotspot.setSecurityCategory(source.getSecurityCategory());
+        }
+        if (source.hasVulnerabilityProbability()) {
+            securityHotspot.setVulnerabilityProbability(source.getVulnerabilityProbability());
+        }
+        if (source.hasStatus()) {
+            securityHotspot.setStatus(source.getStatus());
+        }
+        if (source.hasMessage()) {
+            securityHotspot.setMessage(source.getMessage());
+        }
+        if (source.hasResolution()) {
+            securityHotspot.setResolution(source.getResolution());
+        }
+        return securityHotspot;
+    }
+
+    /**
+     * Map a component of a component tree response with its measures
+     * @param source the protobuf component
+     * @return the component
+     */
+    public static Component toComponent(final Measures.Component source) {
+        final Component component = new Component();
+        if (source.hasName()) {
+            component.setName(source.getName());
+        }
+        if (source.hasPath()) {
+            component.setPath(source.getPath());
+        }
+        final List<Measure> measures = new ArrayList<>(source.getMeasuresCount());
+        for (final Measures.Measure from : source.getMeasuresList()) {
+            final Measure measure = new Measure();
+            if (from.hasMetric()) {
+                measure.setMetric(from.getMetric());
+            }
+            if (from.hasValue()) {
+                measure.setValue(from.getValue());
+            }
+            measures.add(measure);
+        }
+        component.setMeasures(measures);
+        return component;
+    }
+
+    /**
+     * Map any message to a raw map, as Gson does with the JSON format of SonarQube:
+     * numbers become doubles, enumerations their names, messages maps and repeated fields lists.
+     * A message containing only a repeated field with the same name becomes the list itself.
+     * @param message the protobuf message
+     * @return the message as a map
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, String> toMap(final Message message) {
+        // values are not only strings, like the maps bound by Gson
+        return (Map) toObject(message);
+    }
+
+    /**
+     * Convert the fields of a message
+     * @param message the protobuf message
+     * @return the fields indexed by name
+     */
+    private static Map<String, Object> toObject(final Message message) {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        for (final Descriptors.FieldDescriptor field : message.getDescriptorForType().getFields()) {
+            if (field.isRepeated()) {
+                map.put(field.getName(), toRepeated(field, message.getField(field)));
+            } else if (message.hasField(field)) {
+                map.put(field.getName(), toValue(field, message.getField(field)));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Convert a repeated field
+     * @param field the descriptor of the field
+     * @param value the collection of values
+     * @return a list or a map for map fields
+     */
+    private static Object toRepeated(final Descriptors.FieldDescriptor field, final Object value) {
+        final Object result;
+        if (field.isMapField()) {
+            final Map<String, Object> map = new LinkedHashMap<>();
+            for (final Object entry : (Collection<?>) value) {
+                final MapEntry<?, ?> mapEntry = (MapEntry<?, ?>) entry;
+                final Descriptors.FieldDescriptor valueField = mapEntry.getDescriptorForType().findFieldByName("value");
+                map.put(String.valueOf(mapEntry.getKey()), toValue(valueField, mapEntry.getValue()));
+            }
+            result = map;
+        } else {
+            final List<Object> list = new ArrayList<>();
+            for (final Object item : (Collection<?>) value) {
+                list.add(toValue(field, item));
+            }
+            result = list;
+        }
+        return result;
+    }
+
+    /**
+     * Convert a single value
+     * @param field the descriptor of the field
+     * @param value the value
+     * @return the converted value
+     */
+    private static Object toValue(final Descriptors.FieldDescriptor field, final Object value) {
+        final Object result;
+        switch (field.getJavaType()) {
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                result = ((Number) value).doubleValue();
+                break;
+            case ENUM:
+                result = ((Descriptors.EnumValueDescriptor) value).getName();
+                break;
+            case MESSAGE:
+                result = toMessageValue((Message) value);
+                break;
+            default:
+                result = value;
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Convert a message value, a message wrapping a single repeated field of the same name becomes a list
+     * @param message the message
+     * @return the converted message
+     */
+    private static Object toMessageValue(final Message message) {
+        final Descriptors.Descriptor descriptor = message.getDescriptorForType();
+        final List<Descriptors.FieldDescriptor> fields = descriptor.getFields();
+        final Object result;
+        if (fields.size() == 1 && fields.get(0).isRepeated()
+                && descriptor.getName().equalsIgnoreCase(fields.get(0).getName())) {
+            result = toRepeated(fields.get(0), message.getField(fields.get(0)));
+        } else {
+            result = toObject(message);
+        }
+        return result;
+    }
+}
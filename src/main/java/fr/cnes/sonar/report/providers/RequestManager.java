@@ -17,13 +17,21 @@
 
 package fr.cnes.sonar.report.providers;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.sonarqube.ws.client.GetRequest;
 import org.sonarqube.ws.client.HttpConnector;
@@ -37,6 +45,10 @@ import fr.cnes.sonar.report.utils.StringManager;
 
 /**
  * Manage http requests.
+ *
+ * Connectors are kept alive between calls: one connector (and so one pool of
+ * keep-alive connections) is shared by all requests targeting the same server
+ * with the same credentials and proxy settings.
  */
 public final class RequestManager {
 
@@ -72,6 +84,37 @@ public final class RequestManager {
     public static final String QUERY_CHAR = "?";
     public static final String ANCHOR_CHAR = "#";
 
+    /**
+     * Separator between the scheme and the authority of an url
+     */
+    private static final String SCHEME_SEPARATOR = "://";
+
+    /**
+     * Maximum number of connectors kept alive at the same time
+     */
+    private static final int MAXIMUM_CONNECTORS = 16;
+
+    /**
+     * Connectors kept alive, indexed by server, token and proxy settings
+     * (least recently used first)
+     */
+    private final Map<String, HttpConnector> connectors = new LinkedHashMap<>(MAXIMUM_CONNECTORS, 0.75f, true);
+
+    /**
+     * Compiled patterns of the nonProxyHosts values already met
+     */
+    private final Map<String, Pattern> nonProxyHostsPatterns = new ConcurrentHashMap<>();
+
+    /**
+     * Number of connectors created since the start
+     */
+    private final AtomicLong connectorsCreated = new AtomicLong();
+
+    /**
+     * Number of requests executed since the start
+     */
+    private final AtomicLong requestsExecuted = new AtomicLong();
+
     /**
      * Use of private constructor to singletonize this class
      */
@@ -89,22 +132,43 @@ public final class RequestManager {
     }
 
     /**
-     * Return the baseUrl from a string URL
-     * @return the baseUrl as string
+     * Return the origin (scheme, host and port) from a string URL
+     * @param url the url to parse
+     * @return the origin as string, or the url before its last "/" if it has no scheme
      */
-    private static String extractBaseUrl(String url) {
-      if (url != null) {
-        int queryPosition = url.indexOf(QUERY_CHAR);
-        if (queryPosition <= 0) {
-          queryPosition = url.indexOf(ANCHOR_CHAR);
+    static String extractOrigin(String url) {
+        String origin;
+        final int schemeEnd = url.indexOf(SCHEME_SEPARATOR);
+        if (schemeEnd < 0) {
+            origin = StringUtils.substringBeforeLast(url, "/");
+        } else {
+            final int authorityStart = schemeEnd + SCHEME_SEPARATOR.length();
+            int authorityEnd = url.length();
+            for (final String delimiter : new String[]{"/", QUERY_CHAR, ANCHOR_CHAR}) {
+                final int position = url.indexOf(delimiter, authorityStart);
+                if (position >= 0 && position < authorityEnd) {
+                    authorityEnd = position;
+                }
+            }
+            origin = url.substring(0, authorityEnd);
         }
+        return origin;
+    }
 
-        if (queryPosition >= 0) {
-          url = url.substring(0, queryPosition);
-        }
-      }
-       
-      return StringUtils.substringBeforeLast(url, "/");
+    /**
+     * Reader of the body of a response
+     * @param <T> type of the result
+     */
+    @FunctionalInterface
+    public interface ResponseReader<T> {
+        /**
+         * Read the body of a response
+         * @param reader the body of the response
+         * @return the result
+         * @throws IOException if the body cannot be read
+         * @throws BadSonarQubeRequestException if the response contains an error
+         */
+        T read(Reader reader) throws IOException, BadSonarQubeRequestException;
     }
 
     /**
@@ -116,15 +180,117 @@ public final class RequestManager {
      * @throws BadSonarQubeRequestException if SonarQube Server sent an error
      */
     public String get(final String url, final String token) throws SonarQubeException, BadSonarQubeRequestException {
+        return get(url, token, reader -> IOUtils.toString(reader));
+    }
+
+    /**
+     * Execute a get http request and read its response as a stream,
+     * the body of the response is never loaded in memory as a whole
+     * @param url server to request
+     * @param token token to authenticate to SonarQube
+     * @param responseReader reader of the body of the response
+     * @param <T> type of the result
+     * @return the result of the reader
+     * @throws SonarQubeException When SonarQube server is not callable.
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     */
+    public <T> T get(final String url, final String token, final ResponseReader<T> responseReader)
+            throws SonarQubeException, BadSonarQubeRequestException {
         // Initialize connexion information.
-        final String baseUrl = extractBaseUrl(url);
-        final String path = url.replace(baseUrl, "");
+        final String baseUrl = extractOrigin(url);
+        final String path = url.substring(baseUrl.length());
+
+        // Execute the request on a kept alive connector.
+        final HttpConnector httpConnector = getConnector(baseUrl, token);
+        requestsExecuted.incrementAndGet();
+        try (WsResponse response = call(httpConnector, path)) {
+            // Throws exception with advice to cnesreport user
+            switch (response.code()) {
+                case 401:
+                    throw new BadSonarQubeRequestException("Unauthorized error sent by SonarQube server (code 401), please provide a valid authentication token to cnesreport.");
+                case 403:
+                    throw new BadSonarQubeRequestException("Insufficient privileges error sent by SonarQube server (code 403), please check your permissions in SonarQube configuration.");
+                case 404:
+                    throw new BadSonarQubeRequestException(String.format("Not found error sent by SonarQube server (code 404, URL %s, Error %s), please check cnesreport compatibility with your SonarQube server version.",response.requestUrl(), response.content()));
+                default:
+                    break;
+            }
+
+            return responseReader.read(response.contentReader());
+        } catch (IOException e) {
+            throw new SonarQubeException("Impossible to read SonarQube response.", e);
+        }
+    }
+
+    /**
+     * Send a get request through the given connector
+     * @param httpConnector connector to use
+     * @param path path of the request relatively to the connector's url
+     * @return the response of the server
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private WsResponse call(final HttpConnector httpConnector, final String path) throws SonarQubeException {
+        try {
+            return httpConnector.call(new GetRequest(path));
+        } catch (Exception e) {
+            throw new SonarQubeException("Impossible to reach SonarQube instance.", e);
+        }
+    }
+
+    /**
+     * Get the connector to use for a server, build it if not already kept alive
+     * @param baseUrl origin of the server
+     * @param token token to authenticate to SonarQube
+     * @return a connector sharing its connection pool with the previous calls
+     * @throws SonarQubeException When cannot parse url to URI
+     */
+    private HttpConnector getConnector(final String baseUrl, final String token) throws SonarQubeException {
         final String proxyHost = System.getProperty(STR_PROXY_HOST, StringManager.EMPTY);
         final String proxyPort = System.getProperty(STR_PROXY_PORT, StringManager.EMPTY);
         final String proxyUser = System.getProperty(STR_PROXY_USER, StringManager.EMPTY);
         final String proxyPass = System.getProperty(STR_PROXY_PASS, StringManager.EMPTY);
         final String nonProxyHosts = System.getProperty(STR_NON_PROXY_HOSTS, StringManager.EMPTY);
 
+        final String key = String.join("\n", baseUrl, token, proxyHost, proxyPort, proxyUser, proxyPass, nonProxyHosts);
+
+        synchronized (connectors) {
+            HttpConnector httpConnector = connectors.get(key);
+            if (httpConnector == null) {
+                httpConnector = buildConnector(baseUrl, token, proxyHost, proxyPort, proxyUser, proxyPass, nonProxyHosts);
+                connectors.put(key, httpConnector);
+                connectorsCreated.incrementAndGet();
+                evictConnectors();
+            }
+            return httpConnector;
+        }
+    }
+
+    /**
+     * Close the least recently used connectors when there are too many of them
+     */
+    private void evictConnectors() {
+        final Iterator<HttpConnector> iterator = connectors.values().iterator();
+        while (connectors.size() > MAXIMUM_CONNECTORS && iterator.hasNext()) {
+            iterator.next().okHttpClient().connectionPool().evictAll();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Build a new connector
+     * @param baseUrl origin of the server
+     * @param token token to authenticate to SonarQube
+     * @param proxyHost value of the proxy host property
+     * @param proxyPort value of the proxy port property
+     * @param proxyUser value of the proxy user property
+     * @param proxyPass value of the proxy password property
+     * @param nonProxyHosts value of the non proxy hosts property
+     * @return the new connector
+     * @throws SonarQubeException When cannot parse url to URI
+     */
+    private HttpConnector buildConnector(final String baseUrl, final String token, final String proxyHost,
+                                         final String proxyPort, final String proxyUser, final String proxyPass,
+                                         final String nonProxyHosts) throws SonarQubeException {
         // Initialize http connector builder.
         final HttpConnector.Builder builder = HttpConnector.newBuilder()
                 .userAgent("cnesreport")
@@ -153,28 +319,45 @@ public final class RequestManager {
             }
         }
 
-        // Execute the request.
-        final HttpConnector httpConnector = builder.build();
-        WsResponse response;
-        try {
-            response = httpConnector.call(new GetRequest(path));
-        } catch (Exception e) {
-            throw new SonarQubeException("Impossible to reach SonarQube instance.", e);
-        }
+        return builder.build();
+    }
+
+    /**
+     * Number of connectors (and so of connection pools) created since the start
+     * @return the number of connectors created
+     */
+    public long getConnectorsCreated() {
+        return connectorsCreated.get();
+    }
 
-        // Throws exception with advice to cnesreport user
-        switch (response.code()) {
-            case 401:
-                throw new BadSonarQubeRequestException("Unauthorized error sent by SonarQube server (code 401), please provide a valid authentication token to cnesreport.");
-            case 403:
-                throw new BadSonarQubeRequestException("Insufficient privileges error sent by SonarQube server (code 403), please check your permissions in SonarQube configuration.");
-            case 404:
-                throw new BadSonarQubeRequestException(String.format("Not found error sent by SonarQube server (code 404, URL %s, Error %s), please check cnesreport compatibility with your SonarQube server version.",response.requestUrl(), response.content()));
-            default:
-                break;
+    /**
+     * Number of requests executed since the start
+     * @return the number of requests
+     */
+    public long getRequestsExecuted() {
+        return requestsExecuted.get();
+    }
+
+    /**
+     * Number of connections currently opened by all kept alive connectors
+     * @return the number of opened connections
+     */
+    public int getConnectionsCount() {
+        synchronized (connectors) {
+            return connectors.values().stream()
+                    .mapToInt(connector -> connector.okHttpClient().connectionPool().connectionCount()).sum();
         }
+    }
 
-        return response.content();
+    /**
+     * Number of idle connections currently kept alive by all connectors
+     * @return the number of idle connections
+     */
+    public int getIdleConnectionsCount() {
+        synchronized (connectors) {
+            return connectors.values().stream()
+                    .mapToInt(connector -> connector.okHttpClient().connectionPool().idleConnectionCount()).sum();
+        }
     }
     
     /**
@@ -199,18 +382,27 @@ public final class RequestManager {
                 throw new SonarQubeException("Impossible parse url to URI.", e);
             }
             
-            String regex = Sets.newHashSet(nonProxyHosts.split("\\|"))
-                .stream()
-                .filter(nps -> !nps.isEmpty())
-                .map(this::disjunctToRegex).collect(Collectors.joining("|"));
-            
-            Pattern pattern = Pattern.compile(regex);
+            final Pattern pattern = nonProxyHostsPatterns.computeIfAbsent(nonProxyHosts, this::compileNonProxyHosts);
             
-            shouldAvoid = pattern != null && pattern.matcher(strUriHost).matches();
+            shouldAvoid = strUriHost != null && pattern.matcher(strUriHost).matches();
         }
 
     	return shouldAvoid;        
     }
+
+    /**
+     * Compile the nonProxyHosts property into a single pattern
+     * @param nonProxyHosts non proxy hosts according to http.nonProxyHost property
+     * @return the compiled pattern
+     */
+    private Pattern compileNonProxyHosts(String nonProxyHosts) {
+        String regex = Sets.newHashSet(nonProxyHosts.split("\\|"))
+            .stream()
+            .filter(nps -> !nps.isEmpty())
+            .map(this::disjunctToRegex).collect(Collectors.joining("|"));
+        
+        return Pattern.compile(regex);
+    }
     
     /**
      * Transform nonProxyHosts from its native format to the java regex one
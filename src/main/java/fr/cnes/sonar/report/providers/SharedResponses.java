@@ -0,0 +1,92 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responses of the requests which do not depend on the project (e.g: languages, quality gates),
+ * shared by the reports of a batch so each of them is requested only once.
+ * When several reports need the same response at the same time, only one of them requests it.
+ */
+public final class SharedResponses {
+
+    /**
+     * Sends a request
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Send the request
+         * @return the raw response of the server
+         * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+         * @throws SonarQubeException When SonarQube server is not callable.
+         */
+        String load() throws BadSonarQubeRequestException, SonarQubeException;
+    }
+
+    /**
+     * Responses indexed by token and url
+     */
+    private final Map<String, CompletableFuture<String>> responses = new ConcurrentHashMap<>();
+
+    /**
+     * Get the response of a request, send it if it is the first time
+     * @param token token of the request, responses are not shared between users
+     * @param url url of the request
+     * @param loader sends the request
+     * @return the raw response of the server
+     * @throws BadSonarQubeRequestException if SonarQube Server sent an error
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    public String get(final String token, final String url, final Loader loader)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final String key = token + '\n' + url;
+        final CompletableFuture<String> created = new CompletableFuture<>();
+        final CompletableFuture<String> existing = responses.putIfAbsent(key, created);
+        final String response;
+        if (existing == null) {
+            try {
+                response = loader.load();
+            } catch (Throwable e) {
+                // a failed request is not shared, the next report tries again,
+                // the reports waiting for it are always released
+                responses.remove(key, created);
+                created.completeExceptionally(e);
+                throw e;
+            }
+            created.complete(response);
+        } else {
+            response = PageFetcher.await(existing);
+        }
+        return response;
+    }
+
+    /**
+     * Number of responses kept
+     * @return the number of distinct requests sent
+     */
+    public int size() {
+        return responses.size();
+    }
+}
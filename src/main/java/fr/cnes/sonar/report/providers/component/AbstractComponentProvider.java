@@ -20,10 +20,12 @@ package fr.cnes.sonar.report.providers.component;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Component;
+import fr.cnes.sonar.report.model.ComponentTable;
 import fr.cnes.sonar.report.model.Components;
 import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.providers.JsonPage;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Map;
 
 import com.google.gson.JsonObject;
@@ -39,7 +41,7 @@ public abstract class AbstractComponentProvider extends AbstractDataProvider {
     /**
      * Field to search in json to get components
      */
-    private static final String COMPONENTS = "components";
+    protected static final String COMPONENTS = "components";
 
     /**
      * Complete constructor.
@@ -70,33 +72,43 @@ public abstract class AbstractComponentProvider extends AbstractDataProvider {
      * @throws SonarQubeException When SonarQube server is not callable.
      */
     protected Components getComponentsAbstract() throws BadSonarQubeRequestException, SonarQubeException {
-        int page = 1;
-        ArrayList<Map<String,String>> componentsList = new ArrayList<>();
+        // components are stored by column rather than as one map each
+        final ComponentTable componentsList = new ComponentTable();
+        final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
 
-        // For each page, we get the components
-        boolean goOn = true;
-        while(goOn){
-            // Send request to server
-            final JsonObject jo = getComponentsAsJsonObject(page);
-
-            // Get components from response
-            final Component[] tmp = getGson().fromJson(jo.get(COMPONENTS), Component[].class);
-            for (Component c:tmp) {
-                Map<String,String> map = c.toMap();
-                componentsList.add(map);
-            }
+        // components are bound while the pages are received
+        final Map<String, JsonPage.FieldReader> readers =
+                Collections.singletonMap(COMPONENTS, arrayReader(COMPONENTS, Component[].class));
 
-            // Check if we reach the end
-            final int number = jo.getAsJsonObject(PAGING).get(TOTAL).getAsInt();
-            goOn =  page * Integer.valueOf(getRequest(MAX_PER_PAGE_SONARQUBE)) < number;
-            page++;
-        }
+        // For each page, we get the components
+        fetchPages(page -> getComponentsPage(page, readers), JsonPage::getTotal, maxPerPage,
+                Integer.MAX_VALUE, (page, jsonPage) -> {
+                    // Get components from response
+                    final Component[] tmp = jsonPage.get(COMPONENTS);
+                    for (Component c : tmp == null ? new Component[0] : tmp) {
+                        componentsList.addComponent(c);
+                    }
+                });
 
         Components components = new Components();
         components.setComponentsList(componentsList);
         return components;
     }
 
+    /**
+     * Get a page of components, only the fields having a reader are kept.
+     * By default the page is read from the JsonObject response.
+     * @param page The current page.
+     * @param readers Readers of the fields to keep.
+     * @return The page of components.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected JsonPage getComponentsPage(final int page, final Map<String, JsonPage.FieldReader> readers)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return JsonPage.read(getComponentsAsJsonObject(page), readers);
+    }
+
     /**
      * Get a JsonObject from the response of a get component tree request.
      * @param page The current page.
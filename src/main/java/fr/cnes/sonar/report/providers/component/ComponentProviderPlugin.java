@@ -20,6 +20,7 @@ package fr.cnes.sonar.report.providers.component;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import com.google.gson.JsonObject;
 
@@ -29,7 +30,10 @@ import org.sonarqube.ws.Measures.ComponentTreeWsResponse;
 
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.model.Component;
 import fr.cnes.sonar.report.model.Components;
+import fr.cnes.sonar.report.providers.JsonPage;
+import fr.cnes.sonar.report.providers.ProtobufMapper;
 
 /**
  * Provides component items in plugin mode
@@ -53,6 +57,26 @@ public class ComponentProviderPlugin extends AbstractComponentProvider implement
 
     @Override
     protected JsonObject getComponentsAsJsonObject(final int page) {
+        return responseToJsonObject(getComponentTree(page));
+    }
+
+    @Override
+    protected JsonPage getComponentsPage(final int page, final Map<String, JsonPage.FieldReader> readers) {
+        final ComponentTreeWsResponse componentTreeWsResponse = getComponentTree(page);
+        // map the response directly to model objects
+        final JsonPage jsonPage = new JsonPage();
+        jsonPage.setTotal(componentTreeWsResponse.getPaging().getTotal());
+        jsonPage.put(COMPONENTS, componentTreeWsResponse.getComponentsList().stream()
+                .map(ProtobufMapper::toComponent).toArray(Component[]::new));
+        return jsonPage;
+    }
+
+    /**
+     * Get a page of the components tree with their measures
+     * @param page The current page.
+     * @return The response of the server.
+     */
+    private ComponentTreeWsResponse getComponentTree(final int page) {
         final List<String> metricKeys = new ArrayList<>(Arrays.asList("ncloc", "comment_lines_density", "coverage",
                 "complexity", "cognitive_complexity", "duplicated_lines_density"));
         final String p = String.valueOf(page);
@@ -63,7 +87,6 @@ public class ComponentProviderPlugin extends AbstractComponentProvider implement
                                                                 .setP(p)
                                                                 .setPs(ps)
                                                                 .setBranch(getBranch());
-        final ComponentTreeWsResponse componentTreeWsResponse = getWsClient().measures().componentTree(componentTreeRequest);
-        return responseToJsonObject(componentTreeWsResponse);
+        return getWsClient().measures().componentTree(componentTreeRequest);
     }
-}
\ No newline at end of file
+}
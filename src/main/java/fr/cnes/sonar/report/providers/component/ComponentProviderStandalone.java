@@ -22,6 +22,9 @@ import com.google.gson.JsonObject;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Components;
+import fr.cnes.sonar.report.providers.JsonPage;
+
+import java.util.Map;
 
 /**
  * Provides component items in standalone mode
@@ -56,4 +59,12 @@ public class ComponentProviderStandalone extends AbstractComponentProvider imple
         return request(String.format(getRequest(GET_COMPONENTS_REQUEST), getServer(), getProjectKey(), page,
                 getRequest(MAX_PER_PAGE_SONARQUBE), getBranch()));
     }
+
+    @Override
+    protected JsonPage getComponentsPage(final int page, final Map<String, JsonPage.FieldReader> readers)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // the response is bound while it is received
+        return requestPage(String.format(getRequest(GET_COMPONENTS_REQUEST), getServer(), getProjectKey(), page,
+                getRequest(MAX_PER_PAGE_SONARQUBE), getBranch()), readers);
+    }
 }
@@ -104,31 +104,23 @@ public abstract class AbstractFacetsProvider extends AbstractDataProvider {
 
     protected TimeFacets getTimeFacetsAbstract() throws BadSonarQubeRequestException, SonarQubeException {
 
-        boolean goOn = true;
-        int page = 1;
         final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
 
         List<TimeFacet> result = new ArrayList<>();
 
-        while(goOn) {
-            JsonObject jo = getTimeFacetsAsJsonObject(page, maxPerPage);
-
-            // Get the list of measures from the JSON Object
-            JsonArray measures = jo.get(MEASURES).getAsJsonArray();
-
-            // Extract TimeFacets from the JsonArray
-            for (JsonElement metric : measures) {
-                String facetName = metric.getAsJsonObject().get(METRIC).getAsString();
-                List<TimeValue> values = extractTimeValuesFromJsonObject(metric.getAsJsonObject());
-                TimeFacet timeFacet = new TimeFacet(facetName, values);
-                result.add(timeFacet);
-            }
-
-            JsonObject paging = jo.get(PAGING).getAsJsonObject();
-            int number = paging.get(TOTAL).getAsInt();
-            goOn = page*maxPerPage < number;
-            page++;
-        }
+        fetchPages(page -> getTimeFacetsAsJsonObject(page, maxPerPage), AbstractDataProvider::pagingTotalOf,
+                maxPerPage, Integer.MAX_VALUE, (page, jo) -> {
+                    // Get the list of measures from the JSON Object
+                    JsonArray measures = jo.get(MEASURES).getAsJsonArray();
+
+                    // Extract TimeFacets from the JsonArray
+                    for (JsonElement metric : measures) {
+                        String facetName = metric.getAsJsonObject().get(METRIC).getAsString();
+                        List<TimeValue> values = extractTimeValuesFromJsonObject(metric.getAsJsonObject());
+                        TimeFacet timeFacet = new TimeFacet(facetName, values);
+                        result.add(timeFacet);
+                    }
+                });
 
         TimeFacets timeFacets = new TimeFacets();
         timeFacets.setTimeFacets(result);
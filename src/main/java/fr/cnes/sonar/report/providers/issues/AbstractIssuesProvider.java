@@ -18,18 +18,28 @@
 package fr.cnes.sonar.report.providers.issues;
 
 import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.providers.JsonPage;
+import fr.cnes.sonar.report.providers.PageFetcher;
 import fr.cnes.sonar.report.utils.StringManager;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.RawIssueTable;
 import fr.cnes.sonar.report.model.Rule;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import com.google.gson.JsonObject;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
 
 import org.sonarqube.ws.client.WsClient;
 
@@ -54,7 +64,24 @@ public abstract class AbstractIssuesProvider extends AbstractDataProvider {
     /**
      * Parameter "issues" of the JSON response
      */
-    private static final String ISSUES = "issues";
+    protected static final String ISSUES = "issues";
+    /**
+     * Name of the raw issues in a page
+     */
+    protected static final String RAW_ISSUES = "rawIssues";
+
+    /**
+     * Confirmed issues, collected once with the raw issues
+     */
+    private List<Issue> confirmedIssues;
+    /**
+     * Raw issues, collected with the confirmed issues
+     */
+    private List<Map<String,String>> rawIssues;
+    /**
+     * Display name of the language of each rule met during the crawls, indexed by rule key
+     */
+    private final Map<String, String> rulesLanguages = new ConcurrentHashMap<>();
 
     /**
      * Complete constructor.
@@ -87,129 +114,216 @@ public abstract class AbstractIssuesProvider extends AbstractDataProvider {
      */
     protected List<Issue> getIssuesByStatusAbstract(final String confirmed)
             throws BadSonarQubeRequestException, SonarQubeException {
-        // results variable
-        final List<Issue> res = new ArrayList<>();
-
-        // stop condition
-        boolean goOn = true;
-        // flag when there are too many violation (> MAXIMUM_ISSUES_LIMIT)
-        boolean overflow = false;
-        // current page
-        int page = 1;
+        final List<Issue> res;
+        if(CONFIRMED.equals(confirmed)) {
+            // confirmed issues are shared with raw issues
+            crawlConfirmedIssues();
+            res = confirmedIssues;
+        } else {
+            res = crawlIssues(confirmed);
+        }
+        return res;
+    }
 
-        // temporary declared variable to contain data from ws
-        Issue [] issuesTemp;
-        Rule[] rulesTemp;
+    /**
+     * Generic getter for all the issues of a project in a raw format (map)
+     * @return Array containing all the issues as maps
+     * @throws BadSonarQubeRequestException A request is not recognized by the server
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected synchronized List<Map<String,String>> getRawIssuesAbstract()
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // raw issues are the confirmed issues in another format
+        if(rawIssues == null) {
+            crawlRawIssuesAbstract((page, rows) -> { }, true);
+        }
+        return rawIssues;
+    }
 
-        // search all issues of the project
-        while(goOn) {
-            // get maximum number of results per page
-            final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
-            final JsonObject jo = getIssuesAsJsonObject(page, maxPerPage, confirmed);
-            // transform json to Issue and Rule objects
-            issuesTemp = (getGson().fromJson(jo.get(ISSUES), Issue[].class));
-            rulesTemp = (getGson().fromJson(jo.get(RULES), Rule[].class));
-            // association of issues and languages
-            setIssuesLanguage(issuesTemp, rulesTemp);
-            // add them to the final result
-            res.addAll(Arrays.asList(issuesTemp));
-            // check next results' pages
-            int number = (jo.get(TOTAL).getAsInt());
-
-            // check overflow
-            if(number > MAXIMUM_ISSUES_LIMIT) {
-                number = MAXIMUM_ISSUES_LIMIT;
-                overflow = true;
+    /**
+     * Stream the issues of a project in a raw format (map), page by page while they are crawled.
+     * Confirmed issues are collected by the same crawl if it has not already been done.
+     * @param consumer consumer of the raw issues of each page, pages are given in order
+     * @param keep true to keep the raw issues for getRawIssues, false to hold only the current page
+     * @throws BadSonarQubeRequestException A request is not recognized by the server
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected synchronized void crawlRawIssuesAbstract(
+            final PageFetcher.PageConsumer<List<Map<String,String>>> consumer, final boolean keep)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        if(rawIssues != null) {
+            // issues already in memory are given as a single page
+            consumer.accept(1, rawIssues);
+        } else {
+            // raw issues are stored by column with a shared schema
+            final RawIssueTable raw = keep ? new RawIssueTable() : null;
+            final List<Issue> issues = confirmedIssues == null ? new ArrayList<>() : null;
+            crawlIssues(CONFIRMED, issues, (page, rows) -> {
+                if(raw != null) {
+                    rows.forEach(raw::addIssue);
+                }
+                consumer.accept(page, rows);
+            });
+            if(issues != null) {
+                confirmedIssues = issues;
             }
-            goOn = page* maxPerPage < number;
-            page++;
+            rawIssues = raw;
         }
+    }
 
-        // in case of overflow we log the problem
-        if(overflow) {
-            String message = StringManager.string(StringManager.ISSUES_OVERFLOW_MSG);
-            LOGGER.warning(message);
+    /**
+     * Collect confirmed issues in both formats if it has not already been done
+     * @throws BadSonarQubeRequestException A request is not recognized by the server
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private synchronized void crawlConfirmedIssues() throws BadSonarQubeRequestException, SonarQubeException {
+        if(confirmedIssues == null) {
+            crawlRawIssuesAbstract((page, rows) -> { }, true);
         }
+    }
 
-        // return the issues
+    /**
+     * Collect issues depending on their resolved status
+     * @param confirmed equals "true" if Unconfirmed and "false" if confirmed
+     * @return List containing all the issues
+     * @throws BadSonarQubeRequestException A request is not recognized by the server
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private List<Issue> crawlIssues(final String confirmed) throws BadSonarQubeRequestException, SonarQubeException {
+        final List<Issue> res = new ArrayList<>();
+        crawlIssues(confirmed, res, null);
         return res;
     }
 
     /**
-     * Generic getter for all the issues of a project in a raw format (map)
-     * @return Array containing all the issues as maps
+     * Crawl issues depending on their resolved status
+     * @param confirmed equals "true" if Unconfirmed and "false" if confirmed
+     * @param res list to fill with the issues, can be null if not needed
+     * @param raw consumer of the issues of each page as maps, can be null if not needed
      * @throws BadSonarQubeRequestException A request is not recognized by the server
      * @throws SonarQubeException When SonarQube server is not callable.
      */
-    protected List<Map<String,String>> getRawIssuesAbstract() throws BadSonarQubeRequestException, SonarQubeException {
-        // results variable
-        final List<Map<String,String>> res = new ArrayList<>();
-
-        // stop condition
-        boolean goon = true;
-        // flag when there are too many violation (> MAXIMUM_ISSUES_LIMIT)
-        boolean overflow = false;
-        // current page
-        int page = 1;
+    private void crawlIssues(final String confirmed, final List<Issue> res,
+                             final PageFetcher.PageConsumer<List<Map<String,String>>> raw)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // get maximum number of results per page
+        final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
+        // the raw format is only bound if needed
+        final boolean withRaw = raw != null;
+        // first page of the search, it tells if the search has to be split
+        final JsonPage first = getIssuesPage(1, maxPerPage, confirmed, IssuesPartition.ALL, withRaw);
+        // keys of the collected issues when the search is split,
+        // partitions may overlap if issues change during the crawl
+        final Set<String> keys = first.getTotal() > MAXIMUM_ISSUES_LIMIT ? new HashSet<>() : null;
 
-        // search all issues of the project
-        while(goon) {
-            // get maximum number of results per page
-            final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
-            final JsonObject jo = getIssuesAsJsonObject(page, maxPerPage, CONFIRMED);
-            // transform json to Issue objects
-            final Map<String,String> [] tmp = (getGson().fromJson(jo.get(ISSUES), Map[].class));
+        final PageFetcher.PageConsumer<JsonPage> consumer = (page, jsonPage) -> {
+            // Issue and Rule objects of the page
+            final Issue[] issuesTemp = jsonPage.get(ISSUES) == null ? new Issue[0] : jsonPage.get(ISSUES);
+            final Rule[] rulesTemp = jsonPage.get(RULES) == null ? new Rule[0] : jsonPage.get(RULES);
+            // the same page gives the raw format
+            final Map<String,String> [] rawTemp = raw == null ? null : jsonPage.get(RAW_ISSUES);
+            final List<Map<String,String>> rawPage = rawTemp == null ? null : new ArrayList<>(rawTemp.length);
+            // association of issues and languages
+            setIssuesLanguage(issuesTemp, rulesTemp);
             // add them to the final result
-            res.addAll(Arrays.asList(tmp));
-            // check next results' pages
-            int number = (jo.get(TOTAL).getAsInt());
-
-            // check overflow
-            if(number > MAXIMUM_ISSUES_LIMIT) {
-                number = MAXIMUM_ISSUES_LIMIT;
-                overflow = true;
+            for (int i = 0; i < issuesTemp.length; i++) {
+                if (keys == null || keys.add(issuesTemp[i].getKey())) {
+                    if (res != null) {
+                        res.add(issuesTemp[i]);
+                    }
+                    if (rawPage != null) {
+                        rawPage.add(rawTemp[i]);
+                    }
+                }
+            }
+            // raw issues of the page are given as soon as the page is collected
+            if (rawPage != null) {
+                raw.accept(page, rawPage);
             }
+        };
 
-            goon = page* maxPerPage < number;
-            page++;
-        }
+        // search all issues of the project
+        crawlPartition(IssuesPartition.ALL, first, maxPerPage, confirmed, withRaw, consumer);
+    }
 
-        // in case of overflow we log the problem
-        if(overflow) {
-            String message = StringManager.string(StringManager.ISSUES_OVERFLOW_MSG);
-            LOGGER.warning(message);
-        }
+    /**
+     * Collect the issues of a partition, split it if it contains too many issues
+     * @param partition the partition to collect
+     * @param first the first page of the partition
+     * @param maxPerPage number of issues per page
+     * @param confirmed equals "true" if Unconfirmed and "false" if confirmed
+     * @param withRaw true to get the raw format of the issues
+     * @param consumer consumer of the pages
+     * @throws BadSonarQubeRequestException A request is not recognized by the server
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private void crawlPartition(final IssuesPartition partition, final JsonPage first, final int maxPerPage,
+                                final String confirmed, final boolean withRaw,
+                                final PageFetcher.PageConsumer<JsonPage> consumer)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final int number = first.getTotal();
+        final List<IssuesPartition> partitions =
+                number > MAXIMUM_ISSUES_LIMIT ? partition.split() : Collections.emptyList();
 
-        // return the issues
-        return res;
+        if(partitions.isEmpty()) {
+            // the first page is already known, others are requested
+            final int total = fetchPages(
+                    page -> page == 1 ? first : getIssuesPage(page, maxPerPage, confirmed, partition, withRaw),
+                    JsonPage::getTotal, maxPerPage, MAXIMUM_ISSUES_LIMIT, consumer);
+            // in case of overflow we log the problem
+            logOverflow(total);
+        } else {
+            // request the first page of each sub partition in parallel, then collect them in order
+            getPageFetcher().fetchEach(
+                    index -> getIssuesPage(1, maxPerPage, confirmed, partitions.get(index - 1), withRaw),
+                    1, partitions.size(),
+                    (index, jsonPage) -> crawlPartition(partitions.get(index - 1), jsonPage, maxPerPage, confirmed,
+                            withRaw, consumer));
+        }
     }
 
     /**
-     * Find the display name of the programming language corresponding
-     * to a rule with its key
-     * @param ruleKey key of the rule to find
-     * @param rules array of the rules to browse
-     * @return a String containing the display name of the programming language
+     * Readers binding the fields of a search issues response while it is received
+     * @param withRaw true to bind the raw format of the issues too
+     * @return the readers indexed by field name
      */
-    private String findLanguageOf(String ruleKey, Rule[] rules) {
-        // stop condition for the main loop
-        boolean again = true;
-        // increment for browsing the array
-        int inc = 0;
-
-        // result to return
-        String language = "";
+    protected Map<String, JsonPage.FieldReader> getIssuesReaders(final boolean withRaw) {
+        final Map<String, JsonPage.FieldReader> readers = new HashMap<>();
+        readers.put(ISSUES, withRaw ? this::readIssuesAndRawIssues : arrayReader(ISSUES, Issue[].class));
+        readers.put(RULES, arrayReader(RULES, Rule[].class));
+        return readers;
+    }
 
-        // we iterate on the array until we find the good key
-        while(again && inc < rules.length) {
-            if(ruleKey.equals(rules[inc].getKey())) {
-                again = false;
-                language = rules[inc].getLangName();
-            }
-            inc++;
+    /**
+     * Bind each issue of a streamed page both as an Issue and as a raw map
+     * @param reader reader positioned on the issues array
+     * @param page page receiving the issues
+     * @throws IOException if the response cannot be read
+     */
+    private void readIssuesAndRawIssues(final JsonReader reader, final JsonPage page) throws IOException {
+        final List<Issue> issues = new ArrayList<>();
+        final List<Map<String,String>> raws = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            // only one issue at a time is held as a tree
+            final JsonElement element = getGson().fromJson(reader, JsonElement.class);
+            issues.add(getGson().fromJson(element, Issue.class));
+            raws.add(getGson().fromJson(element, Map.class));
         }
+        reader.endArray();
+        page.put(ISSUES, issues.toArray(new Issue[0]));
+        page.put(RAW_ISSUES, raws.toArray(new Map[0]));
+    }
 
-        return language;
+    /**
+     * Log a warning if there are too many issues to be collected
+     * @param number total number of issues announced by the server
+     */
+    private void logOverflow(final int number) {
+        if(number > MAXIMUM_ISSUES_LIMIT) {
+            String message = StringManager.string(StringManager.ISSUES_OVERFLOW_MSG);
+            LOGGER.warning(message);
+        }
     }
 
     /**
@@ -218,29 +332,32 @@ public abstract class AbstractIssuesProvider extends AbstractDataProvider {
      * @param rules an array of rules containing language information
      */
     private void setIssuesLanguage(Issue[] issues, Rule[] rules) {
-        // rule's key of an issue
-        String rulesKey;
-        // language of the previous rule's key
-        String rulesLanguage;
+        // index the languages of the rules of this page with the ones already known
+        for (Rule rule : rules) {
+            if (rule.getKey() != null && rule.getLangName() != null) {
+                rulesLanguages.put(rule.getKey(), rule.getLangName());
+            }
+        }
 
         // for each issue we associate the corresponding programming language
-        // by browsing the rules array
         for (Issue issue : issues) {
-            rulesKey = issue.getRule();
-            rulesLanguage = findLanguageOf(rulesKey, rules);
-            issue.setLanguage(rulesLanguage);
+            final String language = issue.getRule() == null ? null : rulesLanguages.get(issue.getRule());
+            issue.setLanguage(language == null ? "" : language);
         }
     }
 
     /**
-     * Get a JsonObject from the response of a search issues request.
+     * Get a page of a search issues request with its issues, rules and if needed raw issues.
      * @param page The current page.
      * @param maxPerPage The maximum page size.
      * @param confirmed Equals "true" if Unconfirmed and "false" if confirmed.
-     * @return The response as a JsonObject.
+     * @param partition The subset of issues to search.
+     * @param withRaw True to get the raw format of the issues.
+     * @return The page of issues.
      * @throws BadSonarQubeRequestException A request is not recognized by the server.
      * @throws SonarQubeException When SonarQube server is not callable.
      */
-    protected abstract JsonObject getIssuesAsJsonObject(final int page, final int maxPerPage, final String confirmed)
+    protected abstract JsonPage getIssuesPage(final int page, final int maxPerPage, final String confirmed,
+                                              final IssuesPartition partition, final boolean withRaw)
             throws BadSonarQubeRequestException, SonarQubeException;
-}
\ No newline at end of file
+}
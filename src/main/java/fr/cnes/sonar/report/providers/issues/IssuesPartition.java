@@ -0,0 +1,170 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers.issues;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Subset of the issues of a project, used to split a search
+ * returning more issues than SonarQube can give.
+ *
+ * A search is split by type, then by severity and finally by
+ * creation date windows bisected until they are small enough.
+ */
+public final class IssuesPartition {
+
+    /**
+     * Partition containing all the issues
+     */
+    public static final IssuesPartition ALL = new IssuesPartition(null, null, -1, -1);
+
+    /**
+     * Types of issues returned by the issues search
+     */
+    private static final List<String> TYPES = Collections.unmodifiableList(
+            Arrays.asList("BUG", "VULNERABILITY", "CODE_SMELL"));
+    /**
+     * Severities of issues
+     */
+    private static final List<String> SEVERITIES = Collections.unmodifiableList(
+            Arrays.asList("BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO"));
+    /**
+     * Format of dates given to the issues search
+     */
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ").withZone(ZoneOffset.UTC);
+
+    /**
+     * Type of the issues, null for all types
+     */
+    private final String type;
+    /**
+     * Severity of the issues, null for all severities
+     */
+    private final String severity;
+    /**
+     * Issues are created after this instant in seconds (inclusive), negative if not set
+     */
+    private final long createdAfter;
+    /**
+     * Issues are created before this instant in seconds (exclusive), negative if not set
+     */
+    private final long createdBefore;
+
+    /**
+     * Constructor
+     * @param type type of the issues, null for all types
+     * @param severity severity of the issues, null for all severities
+     * @param createdAfter beginning of the creation window in seconds, negative if not set
+     * @param createdBefore end of the creation window in seconds, negative if not set
+     */
+    private IssuesPartition(final String type, final String severity, final long createdAfter,
+                            final long createdBefore) {
+        this.type = type;
+        this.severity = severity;
+        this.createdAfter = createdAfter;
+        this.createdBefore = createdBefore;
+    }
+
+    /**
+     * Split this partition into smaller disjoint partitions covering the same issues
+     * @return the sub partitions, empty if this partition cannot be split anymore
+     */
+    public List<IssuesPartition> split() {
+        final List<IssuesPartition> partitions = new ArrayList<>();
+        if (type == null) {
+            for (final String t : TYPES) {
+                partitions.add(new IssuesPartition(t, severity, createdAfter, createdBefore));
+            }
+        } else if (severity == null) {
+            for (final String s : SEVERITIES) {
+                partitions.add(new IssuesPartition(type, s, createdAfter, createdBefore));
+            }
+        } else {
+            final long after = createdAfter < 0 ? 0 : createdAfter;
+            final long before = createdBefore < 0 ?
+                    Instant.now().plus(1, ChronoUnit.DAYS).getEpochSecond() : createdBefore;
+            if (before - after > 1) {
+                final long middle = after + (before - after) / 2;
+                partitions.add(new IssuesPartition(type, severity, after, middle));
+                partitions.add(new IssuesPartition(type, severity, middle, before));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Type of the issues
+     * @return the type or null for all types
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Severity of the issues
+     * @return the severity or null for all severities
+     */
+    public String getSeverity() {
+        return severity;
+    }
+
+    /**
+     * Beginning of the creation window (inclusive)
+     * @return the date formatted for SonarQube or null if not set
+     */
+    public String getCreatedAfter() {
+        return createdAfter < 0 ? null : DATE_FORMAT.format(Instant.ofEpochSecond(createdAfter));
+    }
+
+    /**
+     * End of the creation window (exclusive)
+     * @return the date formatted for SonarQube or null if not set
+     */
+    public String getCreatedBefore() {
+        return createdBefore < 0 ? null : DATE_FORMAT.format(Instant.ofEpochSecond(createdBefore));
+    }
+
+    /**
+     * Parameters to add to an issues search url
+     * @return the query parameters, starting with "&amp;", empty for all the issues
+     */
+    public String toQuery() {
+        final StringBuilder query = new StringBuilder();
+        if (type != null) {
+            query.append("&types=").append(type);
+        }
+        if (severity != null) {
+            query.append("&severities=").append(severity);
+        }
+        if (createdAfter >= 0) {
+            query.append("&createdAfter=").append(getCreatedAfter());
+        }
+        if (createdBefore >= 0) {
+            query.append("&createdBefore=").append(getCreatedBefore());
+        }
+        return query.toString();
+    }
+}
@@ -20,6 +20,7 @@ package fr.cnes.sonar.report.providers.issues;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.providers.PageFetcher;
 
 import java.util.List;
 import java.util.Map;
@@ -49,4 +50,13 @@ public interface IssuesProvider {
      * @throws SonarQubeException When SonarQube server is not callable.
      */
     List<Map<String,String>> getRawIssues() throws BadSonarQubeRequestException, SonarQubeException;
+    /**
+     * Stream all the issues of a project in a raw format (map), page by page while they are crawled
+     * @param consumer consumer of the raw issues of each page, pages are given in order
+     * @param keep true to also keep the raw issues for getRawIssues, false to hold only the current page
+     * @throws BadSonarQubeRequestException A request is not recognized by the server
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    void crawlRawIssues(PageFetcher.PageConsumer<List<Map<String,String>>> consumer, boolean keep)
+            throws BadSonarQubeRequestException, SonarQubeException;
 }
\ No newline at end of file
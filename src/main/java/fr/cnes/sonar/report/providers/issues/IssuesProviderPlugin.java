@@ -20,16 +20,20 @@ package fr.cnes.sonar.report.providers.issues;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.Rule;
+import fr.cnes.sonar.report.providers.JsonPage;
+import fr.cnes.sonar.report.providers.PageFetcher;
+import fr.cnes.sonar.report.providers.ProtobufMapper;
 import org.sonarqube.ws.client.WsClient;
 import org.sonarqube.ws.client.issues.SearchRequest;
 import org.sonarqube.ws.Issues.SearchWsResponse;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
-import com.google.gson.JsonObject;
 
 /**
  * Provides issue items in plugin mode
@@ -82,7 +86,39 @@ public class IssuesProviderPlugin extends AbstractIssuesProvider implements Issu
     }
 
     @Override
-    protected JsonObject getIssuesAsJsonObject(final int page, final int maxPerPage, final String confirmed) {
+    public void crawlRawIssues(final PageFetcher.PageConsumer<List<Map<String,String>>> consumer, final boolean keep)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        crawlRawIssuesAbstract(consumer, keep);
+    }
+
+    @Override
+    protected JsonPage getIssuesPage(final int page, final int maxPerPage, final String confirmed,
+                                     final IssuesPartition partition, final boolean withRaw) {
+        final SearchWsResponse searchWsResponse = searchIssues(page, maxPerPage, confirmed, partition);
+        // map the response directly to model objects
+        final JsonPage jsonPage = new JsonPage();
+        jsonPage.setTotal((int) searchWsResponse.getTotal());
+        jsonPage.put(ISSUES, searchWsResponse.getIssuesList().stream()
+                .map(ProtobufMapper::toIssue).toArray(Issue[]::new));
+        jsonPage.put(RULES, searchWsResponse.getRules().getRulesList().stream()
+                .map(ProtobufMapper::toRule).toArray(Rule[]::new));
+        if (withRaw) {
+            jsonPage.put(RAW_ISSUES, searchWsResponse.getIssuesList().stream()
+                    .map(ProtobufMapper::toMap).toArray(Map[]::new));
+        }
+        return jsonPage;
+    }
+
+    /**
+     * Search a page of issues
+     * @param page The current page.
+     * @param maxPerPage The maximum page size.
+     * @param confirmed Equals "true" if Unconfirmed and "false" if confirmed.
+     * @param partition The subset of issues to search.
+     * @return The response of the server.
+     */
+    private SearchWsResponse searchIssues(final int page, final int maxPerPage, final String confirmed,
+                                          final IssuesPartition partition) {
         // prepare the server to get all the issues
         final List<String> projects = new ArrayList<>(Arrays.asList(getProjectKey()));
         final List<String> facets = new ArrayList<>(Arrays.asList(TYPES, RULES, SEVERITIES, "directories", "files", "tags"));
@@ -97,9 +133,20 @@ public class IssuesProviderPlugin extends AbstractIssuesProvider implements Issu
                                                 .setAdditionalFields(additionalFields)
                                                 .setResolved(confirmed)
                                                 .setBranch(getBranch());
+        // restrict the search to the partition
+        if (partition.getType() != null) {
+            searchRequest.setTypes(Collections.singletonList(partition.getType()));
+        }
+        if (partition.getSeverity() != null) {
+            searchRequest.setSeverities(Collections.singletonList(partition.getSeverity()));
+        }
+        if (partition.getCreatedAfter() != null) {
+            searchRequest.setCreatedAfter(partition.getCreatedAfter());
+        }
+        if (partition.getCreatedBefore() != null) {
+            searchRequest.setCreatedBefore(partition.getCreatedBefore());
+        }
         // perform the request to the server
-        final SearchWsResponse searchWsResponse = getWsClient().issues().search(searchRequest);
-        // transform response to JsonObject
-        return responseToJsonObject(searchWsResponse);
-    }    
-}
\ No newline at end of file
+        return getWsClient().issues().search(searchRequest);
+    }
+}
@@ -20,12 +20,12 @@ package fr.cnes.sonar.report.providers.issues;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.providers.JsonPage;
+import fr.cnes.sonar.report.providers.PageFetcher;
 
 import java.util.List;
 import java.util.Map;
 
-import com.google.gson.JsonObject;
-
 /**
  * Provides issue items in standalone mode
  */
@@ -78,12 +78,31 @@ public class IssuesProviderStandalone extends AbstractIssuesProvider implements
     }
 
     @Override
-    protected JsonObject getIssuesAsJsonObject(final int page, final int maxPerPage, final String confirmed)
+    public void crawlRawIssues(final PageFetcher.PageConsumer<List<Map<String,String>>> consumer, final boolean keep)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        crawlRawIssuesAbstract(consumer, keep);
+    }
+
+    @Override
+    protected JsonPage getIssuesPage(final int page, final int maxPerPage, final String confirmed,
+                                     final IssuesPartition partition, final boolean withRaw)
             throws BadSonarQubeRequestException, SonarQubeException {
-        // prepare the server to get all the issues
-        final String request = String.format(getRequest(GET_ISSUES_REQUEST), getServer(), getProjectKey(), maxPerPage,
-                page, confirmed, getBranch());
-        // perform the request to the server
-        return request(request);
+        // perform the request to the server, the response is bound while it is received
+        return requestPage(getIssuesUrl(page, maxPerPage, confirmed, partition), getIssuesReaders(withRaw));
+    }
+
+    /**
+     * Url of a page of a search issues request
+     * @param page The current page.
+     * @param maxPerPage The maximum page size.
+     * @param confirmed Equals "true" if Unconfirmed and "false" if confirmed.
+     * @param partition The subset of issues to search.
+     * @return the url of the request
+     */
+    private String getIssuesUrl(final int page, final int maxPerPage, final String confirmed,
+                                final IssuesPartition partition) {
+        // prepare the server to get all the issues of the partition
+        return String.format(getRequest(GET_ISSUES_REQUEST), getServer(), getProjectKey(), maxPerPage,
+                page, confirmed, getBranch()) + partition.toQuery();
     }
 }
@@ -49,6 +49,6 @@ public class LanguageProviderStandalone extends AbstractLanguageProvider impleme
 
     @Override
     protected JsonObject getLanguagesAsJsonObject() throws BadSonarQubeRequestException, SonarQubeException {
-        return request(String.format(getRequest(GET_LANGUAGES), getServer()));
+        return sharedRequest(String.format(getRequest(GET_LANGUAGES), getServer()));
     }
 }
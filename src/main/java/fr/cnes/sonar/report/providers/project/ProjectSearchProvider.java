@@ -0,0 +1,81 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package fr.cnes.sonar.report.providers.project;
+
+import com.google.gson.JsonElement;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.utils.StringManager;
+import fr.cnes.sonar.report.utils.UrlEncoder;
+import fr.cnes.sonar.report.providers.AbstractDataProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides the keys of the projects of a server in standalone mode, used to select the projects of a batch.
+ * The user needs the permission to browse all projects (api/projects/search is an administration service).
+ */
+public class ProjectSearchProvider extends AbstractDataProvider {
+
+    /**
+     *  Name of the request for searching projects
+     */
+    private static final String GET_PROJECTS_REQUEST = "GET_PROJECTS_REQUEST";
+    /**
+     *  Name of the filter of the projects search
+     */
+    private static final String GET_PROJECTS_QUERY = "GET_PROJECTS_QUERY";
+    /**
+     * Field containing the projects in the response
+     */
+    private static final String COMPONENTS = "components";
+
+    /**
+     * Complete constructor.
+     * @param pServer SonarQube server.
+     * @param pToken String representing the user token.
+     */
+    public ProjectSearchProvider(final String pServer, final String pToken) {
+        super(pServer, pToken, StringManager.EMPTY);
+    }
+
+    /**
+     * Search the projects whose name or key contains a text
+     * @param query the text to search, empty to get all the projects
+     * @return the keys of the projects, in the order of the server
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    public List<String> getProjectKeys(final String query) throws BadSonarQubeRequestException, SonarQubeException {
+        final List<String> keys = new ArrayList<>();
+        final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
+        final String filter = query.isEmpty() ? StringManager.EMPTY
+                : String.format(getRequest(GET_PROJECTS_QUERY), UrlEncoder.urlEncodeString(query));
+        fetchPages(page -> request(String.format(getRequest(GET_PROJECTS_REQUEST), getServer(), maxPerPage, page)
+                + filter),
+                AbstractDataProvider::pagingTotalOf, maxPerPage, Integer.MAX_VALUE, (page, jo) -> {
+                    for (JsonElement component : jo.getAsJsonArray(COMPONENTS)) {
+                        keys.add(component.getAsJsonObject().get(KEY).getAsString());
+                    }
+                });
+        return keys;
+    }
+}
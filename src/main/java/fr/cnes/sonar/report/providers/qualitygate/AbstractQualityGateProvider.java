@@ -26,10 +26,12 @@ import fr.cnes.sonar.report.providers.AbstractDataProvider;
 import org.sonarqube.ws.client.WsClient;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -114,6 +116,22 @@ public abstract class AbstractQualityGateProvider extends AbstractDataProvider {
      * Value of the parameter "type" of the JSON response
      */
     private static final String MILLISEC = "MILLISEC";
+    /**
+     * Name of the property for the time to live of metric catalogs in seconds
+     */
+    private static final String METRICS_CACHE_TTL = "METRICS_CACHE_TTL";
+    /**
+     * Key of the catalog of the local server in plugin mode
+     */
+    private static final String LOCAL_SERVER = "local";
+    /**
+     * Catalogs of metrics shared by all providers, indexed by server
+     */
+    private static final Map<String, MetricCatalog> METRIC_CATALOGS = new ConcurrentHashMap<>();
+    /**
+     * Locks serializing the loading of the catalog of each server
+     */
+    private static final Map<String, Object> METRIC_CATALOG_LOCKS = new ConcurrentHashMap<>();
 
     /**
      * Complete constructor.
@@ -229,14 +247,14 @@ public abstract class AbstractQualityGateProvider extends AbstractDataProvider {
             JsonObject conditionObject = condition.getAsJsonObject();
             String status = conditionObject.get(STATUS).getAsString();
             String metricKey = conditionObject.get(METRIC_KEY).getAsString();
-            final JsonObject metricResult = getMetricAsJsonObject(metricKey);
-            String name = metricResult.get(METRICS).getAsJsonArray().get(0).getAsJsonObject().get(NAME).getAsString();
+            final JsonObject metric = findMetric(metricKey);
+            String name = metric.get(NAME).getAsString();
             // add the detailed explanation on why the condition failed if it's the case
             if (status.equals(ERROR)) {
                 String actualValue = conditionObject.get(ACTUAL_VALUE).getAsString();
                 String errorThreshold = conditionObject.get(ERROR_THRESHOLD).getAsString();
                 String comparator = conditionObject.get(COMPARATOR).getAsString();
-                String type = metricResult.get(METRICS).getAsJsonArray().get(0).getAsJsonObject().get(TYPE).getAsString();
+                String type = metric.get(TYPE).getAsString();
                 status = status.concat(getErrorExplanation(actualValue, errorThreshold, comparator, type));
             }
             res.put(name, status);
@@ -244,6 +262,65 @@ public abstract class AbstractQualityGateProvider extends AbstractDataProvider {
         return res;
     }
 
+    /**
+     * Find the definition of a metric in the catalog of the server,
+     * request it alone if the catalog does not know it
+     * @param metricKey key of the metric
+     * @return the definition of the metric, containing its name and type
+     * @throws BadSonarQubeRequestException when the server does not understand the request
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private JsonObject findMetric(final String metricKey) throws BadSonarQubeRequestException, SonarQubeException {
+        JsonObject metric = getMetricCatalog().find(metricKey);
+        if (metric == null) {
+            final JsonObject metricResult = getMetricAsJsonObject(metricKey);
+            metric = metricResult.get(METRICS).getAsJsonArray().get(0).getAsJsonObject();
+        }
+        return metric;
+    }
+
+    /**
+     * Get the catalog of the metrics of the server, load it if unknown or expired
+     * @return the catalog of metrics
+     * @throws BadSonarQubeRequestException when the server does not understand the request
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected MetricCatalog getMetricCatalog() throws BadSonarQubeRequestException, SonarQubeException {
+        final String serverKey = getServer() == null ? LOCAL_SERVER : getServer();
+        final long timeToLive = Long.parseLong(getRequest(METRICS_CACHE_TTL)) * 1000L;
+        MetricCatalog catalog = METRIC_CATALOGS.get(serverKey);
+        if (catalog == null || catalog.isExpired(timeToLive)) {
+            // only one report crawls the catalog, the others wait for it and reuse it
+            synchronized (METRIC_CATALOG_LOCKS.computeIfAbsent(serverKey, key -> new Object())) {
+                catalog = METRIC_CATALOGS.get(serverKey);
+                if (catalog == null || catalog.isExpired(timeToLive)) {
+                    catalog = loadMetricCatalog();
+                    METRIC_CATALOGS.put(serverKey, catalog);
+                }
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Request all the metrics of the server
+     * @return a new catalog of metrics
+     * @throws BadSonarQubeRequestException when the server does not understand the request
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private MetricCatalog loadMetricCatalog() throws BadSonarQubeRequestException, SonarQubeException {
+        final Map<String, JsonObject> metrics = new HashMap<>();
+        final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
+        fetchPages(page -> getMetricsAsJsonObject(page, maxPerPage), jo -> jo.get(TOTAL).getAsInt(), maxPerPage,
+                Integer.MAX_VALUE, (page, jo) -> {
+                    for (JsonElement metric : jo.get(METRICS).getAsJsonArray()) {
+                        final JsonObject metricObject = metric.getAsJsonObject();
+                        metrics.put(metricObject.get(KEY).getAsString(), metricObject);
+                    }
+                });
+        return new MetricCatalog(metrics);
+    }
+
     /**
      * Construct the sentence explaining why a condition failed
      * @param actualValue the actual value in the JSON response
@@ -391,4 +468,15 @@ public abstract class AbstractQualityGateProvider extends AbstractDataProvider {
      */
     protected abstract JsonObject getMetricAsJsonObject(final String metricKey)
             throws BadSonarQubeRequestException, SonarQubeException;
+
+    /**
+     * Get a JsonObject from the response of a search metrics request.
+     * @param page The current page.
+     * @param maxPerPage The maximum page size.
+     * @return The response as a JsonObject.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected abstract JsonObject getMetricsAsJsonObject(final int page, final int maxPerPage)
+            throws BadSonarQubeRequestException, SonarQubeException;
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.providers.qualitygate;
+
+import com.google.gson.JsonObject;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Definitions of all the metrics of a SonarQube server, indexed by key.
+ * A catalog is immutable and expires after a given time to live.
+ */
+public final class MetricCatalog {
+
+    /**
+     * Definitions of the metrics indexed by key
+     */
+    private final Map<String, JsonObject> metrics;
+    /**
+     * Date of the loading of the catalog in milliseconds
+     */
+    private final long loadingDate;
+
+    /**
+     * Constructor
+     * @param metrics definitions of the metrics indexed by key
+     */
+    public MetricCatalog(final Map<String, JsonObject> metrics) {
+        this.metrics = Collections.unmodifiableMap(metrics);
+        this.loadingDate = System.currentTimeMillis();
+    }
+
+    /**
+     * Find the definition of a metric
+     * @param metricKey key of the metric
+     * @return the definition of the metric (containing at least its name and type) or null if unknown
+     */
+    public JsonObject find(final String metricKey) {
+        return metrics.get(metricKey);
+    }
+
+    /**
+     * Number of metrics in the catalog
+     * @return the number of metrics
+     */
+    public int size() {
+        return metrics.size();
+    }
+
+    /**
+     * Check if the catalog is too old to be used
+     * @param timeToLive time to live of a catalog in milliseconds
+     * @return true if the catalog must be loaded again
+     */
+    public boolean isExpired(final long timeToLive) {
+        return System.currentTimeMillis() - loadingDate > timeToLive;
+    }
+}
@@ -122,4 +122,14 @@ public class QualityGateProviderPlugin extends AbstractQualityGateProvider imple
         final ComponentWsResponse componentWsResponse = getWsClient().measures().component(componentRequest);
         return responseToJsonObject(componentWsResponse);
     }
-}
\ No newline at end of file
+
+    @Override
+    protected JsonObject getMetricsAsJsonObject(final int page, final int maxPerPage) {
+        final org.sonarqube.ws.client.metrics.SearchRequest searchRequest =
+                new org.sonarqube.ws.client.metrics.SearchRequest()
+                                                        .setP(String.valueOf(page))
+                                                        .setPs(String.valueOf(maxPerPage));
+        final String searchResponse = getWsClient().metrics().search(searchRequest);
+        return getGson().fromJson(searchResponse, JsonObject.class);
+    }
+}
@@ -49,6 +49,10 @@ public class QualityGateProviderStandalone extends AbstractQualityGateProvider i
      * Name of the request for getting a specific metric
      */
     private static final String GET_METRIC_REQUEST = "GET_METRIC_REQUEST";
+    /**
+     * Name of the request for searching all metrics
+     */
+    private static final String GET_METRICS_REQUEST = "GET_METRICS_REQUEST";
 
     /**
      * Complete constructor.
@@ -81,13 +85,13 @@ public class QualityGateProviderStandalone extends AbstractQualityGateProvider i
 
     @Override
     protected JsonObject getQualityGatesAsJsonObject() throws BadSonarQubeRequestException, SonarQubeException {
-        return request(String.format(getRequest(GET_QUALITY_GATES_REQUEST), getServer()));
+        return sharedRequest(String.format(getRequest(GET_QUALITY_GATES_REQUEST), getServer()));
     }
 
     @Override
     protected JsonObject getQualityGatesDetailsAsJsonObject(final QualityGate qualityGate)
             throws BadSonarQubeRequestException, SonarQubeException {
-        return request(String.format(getRequest(GET_QUALITY_GATES_DETAILS_REQUEST), getServer(),
+        return sharedRequest(String.format(getRequest(GET_QUALITY_GATES_DETAILS_REQUEST), getServer(),
                 UrlEncoder.urlEncodeString(qualityGate.getName())));
     }
 
@@ -108,4 +112,10 @@ public class QualityGateProviderStandalone extends AbstractQualityGateProvider i
         return request(String.format(getRequest(GET_METRIC_REQUEST), getServer(), getBranch(), getProjectKey(),
                 metricKey));
     }
+
+    @Override
+    protected JsonObject getMetricsAsJsonObject(final int page, final int maxPerPage)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return request(String.format(getRequest(GET_METRICS_REQUEST), getServer(), maxPerPage, page));
+    }
 }
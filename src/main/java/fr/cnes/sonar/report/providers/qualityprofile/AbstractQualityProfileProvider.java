@@ -25,13 +25,20 @@ import fr.cnes.sonar.report.model.Project;
 import fr.cnes.sonar.report.model.QualityProfile;
 import fr.cnes.sonar.report.model.Rule;
 import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.providers.JsonPage;
 import fr.cnes.sonar.report.utils.StringManager;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
 import org.sonarqube.ws.client.WsClient;
 
@@ -52,6 +59,18 @@ public abstract class AbstractQualityProfileProvider extends AbstractDataProvide
      * Field to search in json to get profiles
      */
     protected static final String ACTIVES = "actives";
+    /**
+     * Field in json response for the severity of an active rule
+     */
+    private static final String SEVERITY = "severity";
+    /**
+     * Name of the property for the directory where profiles are kept between runs, empty to keep them in memory
+     */
+    private static final String PROFILES_CACHE_DIR = "PROFILES_CACHE_DIR";
+    /**
+     * Key of the profiles of the local server in plugin mode
+     */
+    private static final String LOCAL_SERVER = "local";
 
     /**
      * Complete constructor.
@@ -84,69 +103,104 @@ public abstract class AbstractQualityProfileProvider extends AbstractDataProvide
         // initializing returned list
         final List<QualityProfile> res = new ArrayList<>();
 
-        JsonObject jo = getQualityProfilesAsJsonObject();
+        final JsonObject jo = getQualityProfilesAsJsonObject();
 
         // Get quality profiles resources
         final ProfileMetaData[] metaData = (getGson().fromJson(
                 jo.get(PROFILES), ProfileMetaData[].class));
+        final ProfileCache cache = getProfileCache();
+        final String serverKey = getServer() == null ? LOCAL_SERVER : getServer();
         for (ProfileMetaData profileMetaData : metaData) {
-            final ProfileData profileData = new ProfileData();
-            
-            final String xml = getQualityProfilesConfAsXml(profileMetaData);
-            // add configuration as string to the profile
-            profileData.setConf(xml);
-
-            // get the rules of the profile
-            // stop condition
-            boolean goon = true;
-            // page result index
-            int page = 1;
-            // contain the resulted rules
-            final List<Rule> rules = new ArrayList<>();
-            // profile's key formatted for server (%20 instead of ' ')
-            final String profileKey = profileMetaData.getKey().replaceAll(
-                    String.valueOf(StringManager.SPACE),
-                    StringManager.URI_SPACE);
-            // continue until there are no more results
-            while(goon) {
-                jo = getQualityProfilesRulesAsJsonObject(page, profileKey);
-                // convert json to Rule objects
-                final Rule [] tmp = (getGson().fromJson(jo.get(RULES), Rule[].class));
-
-                // Redefine the rule's severity, based on the active Quality Profile (not only the default one)
-                for (Rule r: tmp) {
-                    // If the rule is active in the Quality Profile
-                    if(jo.get(ACTIVES).getAsJsonObject().has(r.getKey())) {
-                        // Retrieve the severity set in the Quality Profile, and override the rule's default severity
-                        String severity = jo.get(ACTIVES).getAsJsonObject().get(r.getKey()).getAsJsonArray().get(0)
-                                .getAsJsonObject().get("severity").getAsString();
-                        r.setSeverity(severity);
-                    }
+            ProfileCache.Entry cached;
+            // a profile needed by several reports at the same time is downloaded once
+            synchronized (cache.lock(serverKey, profileMetaData.getKey())) {
+                cached = cache.get(serverKey, profileMetaData.getKey());
+                if (cached == null || !cached.hasSameRules(profileMetaData)) {
+                    cached = new ProfileCache.Entry(profileMetaData, getQualityProfilesConfAsXml(profileMetaData),
+                            getProfileRules(profileMetaData));
+                    cache.put(serverKey, profileMetaData.getKey(), cached);
                 }
-
-                // add rules to the result list
-                rules.addAll(Arrays.asList(tmp));
-
-                // check if there are other pages
-                final int number = (jo.get(TOTAL).getAsInt());
-                goon = page* Integer.valueOf(getRequest(MAX_PER_PAGE_SONARQUBE)) < number;
-                page++;
             }
-            profileData.setRules(rules);
 
-            jo = getQualityProfilesProjectsAsJsonObject(profileMetaData);
-            // convert json to Project objects
-            final Project[] projects = (getGson().fromJson(jo.get(RESULTS), Project[].class));
+            final ProfileData profileData = new ProfileData();
+            // add configuration as string to the profile
+            profileData.setConf(cached.getConf());
+            profileData.setRules(new ArrayList<>(cached.getRules()));
 
             // create and add the new quality profile
             final QualityProfile qualityProfile = new QualityProfile(profileData, profileMetaData);
-            qualityProfile.setProjects(projects);
+            // projects are not cached: the projects visible depend on the user
+            qualityProfile.setProjects(getProfileProjects(profileMetaData));
             res.add(qualityProfile);
         }
 
         return res;
     }
 
+    /**
+     * Cache of the profiles, kept on disk if a directory is given by the PROFILES_CACHE_DIR
+     * system property or request property
+     * @return the cache shared by the providers
+     */
+    protected ProfileCache getProfileCache() {
+        final String directory = System.getProperty(PROFILES_CACHE_DIR, getRequest(PROFILES_CACHE_DIR));
+        return ProfileCache.getInstance(directory == null || directory.trim().isEmpty() ? null
+                : new File(directory.trim()));
+    }
+
+    /**
+     * Get the active rules of a profile with their severity in the profile
+     * @param profileMetaData The quality profile metadata.
+     * @return the rules
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private List<Rule> getProfileRules(final ProfileMetaData profileMetaData)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // contain the resulted rules
+        final List<Rule> rules = new ArrayList<>();
+        // profile's key formatted for server (%20 instead of ' ')
+        final String profileKey = profileMetaData.getKey().replaceAll(
+                String.valueOf(StringManager.SPACE),
+                StringManager.URI_SPACE);
+        // continue until there are no more results
+        fetchPages(page -> getQualityProfilesRulesPage(page, profileKey), JsonPage::getTotal,
+                Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE)), Integer.MAX_VALUE, (page, rulesPage) -> {
+                    // Rule objects and their severity in the Quality Profile
+                    final Rule [] tmp = rulesPage.get(RULES) == null ? new Rule[0] : rulesPage.get(RULES);
+                    final Map<String, String> actives = rulesPage.get(ACTIVES) == null ?
+                            Collections.emptyMap() : rulesPage.get(ACTIVES);
+
+                    // Redefine the rule's severity, based on the active Quality Profile (not only the default one)
+                    for (Rule r: tmp) {
+                        // If the rule is active in the Quality Profile
+                        final String severity = actives.get(r.getKey());
+                        if(severity != null) {
+                            // Override the rule's default severity
+                            r.setSeverity(severity);
+                        }
+                    }
+
+                    // add rules to the result list
+                    rules.addAll(Arrays.asList(tmp));
+                });
+        return rules;
+    }
+
+    /**
+     * Get the projects using a profile
+     * @param profileMetaData The quality profile metadata.
+     * @return the projects
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private Project[] getProfileProjects(final ProfileMetaData profileMetaData)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final JsonObject jo = getQualityProfilesProjectsAsJsonObject(profileMetaData);
+        // convert json to Project objects
+        return getGson().fromJson(jo.get(RESULTS), Project[].class);
+    }
+
     /**
      * Get a JsonObject from the response of a search quality profiles request.
      * @return The response as a JsonObject.
@@ -165,6 +219,52 @@ public abstract class AbstractQualityProfileProvider extends AbstractDataProvide
     protected abstract String getQualityProfilesConfAsXml(final ProfileMetaData profileMetaData)
             throws BadSonarQubeRequestException, SonarQubeException;
 
+    /**
+     * Get a page of a search rules request with its rules and their severity in the quality profile.
+     * By default the page is read from the JsonObject response.
+     * @param page The current page.
+     * @param profileKey The key of the quality profile.
+     * @return The page of rules.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected JsonPage getQualityProfilesRulesPage(final int page, final String profileKey)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        final Map<String, JsonPage.FieldReader> readers = new HashMap<>();
+        readers.put(RULES, arrayReader(RULES, Rule[].class));
+        readers.put(ACTIVES, AbstractQualityProfileProvider::readActiveSeverities);
+        return JsonPage.read(getQualityProfilesRulesAsJsonObject(page, profileKey), readers);
+    }
+
+    /**
+     * Read the severity of each active rule, the first activation of a rule gives its severity
+     * @param reader reader positioned on the actives object
+     * @param page page receiving the severities indexed by rule key
+     * @throws IOException if the response cannot be read
+     */
+    private static void readActiveSeverities(final JsonReader reader, final JsonPage page) throws IOException {
+        final Map<String, String> severities = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String ruleKey = reader.nextName();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (SEVERITY.equals(reader.nextName()) && !severities.containsKey(ruleKey)) {
+                        severities.put(ruleKey, reader.nextString());
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+        page.put(ACTIVES, severities);
+    }
+
     /**
      * Get a JsonObject from the response of a search rules request.
      * @param page The current page.
@@ -0,0 +1,307 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package fr.cnes.sonar.report.providers.qualityprofile;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+
+import fr.cnes.sonar.report.model.ProfileMetaData;
+import fr.cnes.sonar.report.model.Rule;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Quality profiles already downloaded, shared by all the reports of the process.
+ * A profile is indexed by server and key, its configuration and rules are valid as long as its
+ * rulesUpdatedAt does not change. Its projects are not kept: they depend on the permissions of the user.
+ * Only the most recently used profiles are kept in memory, they can also be kept on disk
+ * to be reused by the next runs.
+ */
+public final class ProfileCache {
+
+    /** Logger of this class */
+    private static final Logger LOGGER = Logger.getLogger(ProfileCache.class.getName());
+
+    /**
+     * Extension of the files of the profiles kept on disk
+     */
+    private static final String FILE_EXTENSION = ".json.gz";
+    /**
+     * Maximum number of profiles kept in memory
+     */
+    static final int MAX_PROFILES = 64;
+    /**
+     * Number of locks shared by the profiles being downloaded
+     */
+    private static final int LOCKS = 32;
+    /**
+     * Caches indexed by directory, the empty path is the cache kept in memory only
+     */
+    private static final Map<String, ProfileCache> CACHES = new ConcurrentHashMap<>();
+
+    /**
+     * Directory where profiles are kept, null to keep them in memory only
+     */
+    private final File directory;
+    /**
+     * Profiles indexed by server and key, from the least to the most recently used
+     */
+    private final Map<String, Entry> profiles;
+    /**
+     * Locks of the profiles being downloaded, a profile uses the lock given by the hash of its index
+     */
+    private final Object[] locks = new Object[LOCKS];
+    /**
+     * Json tool of the files
+     */
+    private final Gson gson = new Gson();
+
+    /**
+     * Constructor
+     * @param pDirectory directory where profiles are kept, null to keep them in memory only
+     */
+    ProfileCache(final File pDirectory) {
+        this(pDirectory, MAX_PROFILES);
+    }
+
+    /**
+     * Constructor
+     * @param pDirectory directory where profiles are kept, null to keep them in memory only
+     * @param maxProfiles maximum number of profiles kept in memory
+     */
+    ProfileCache(final File pDirectory, final int maxProfiles) {
+        this.directory = pDirectory;
+        this.profiles = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return size() > maxProfiles;
+            }
+        });
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Get the cache of a directory
+     * @param pDirectory directory where profiles are kept, null to keep them in memory only
+     * @return the cache shared by all the providers using this directory
+     */
+    public static ProfileCache getInstance(final File pDirectory) {
+        return CACHES.computeIfAbsent(pDirectory == null ? "" : pDirectory.getAbsolutePath(),
+                path -> new ProfileCache(pDirectory));
+    }
+
+    /**
+     * Index of a profile
+     * @param server the server of the profile
+     * @param profileKey key of the profile
+     * @return the index
+     */
+    private static String index(final String server, final String profileKey) {
+        return server + '\n' + profileKey;
+    }
+
+    /**
+     * Lock to hold while a profile is downloaded, so it is downloaded once
+     * when several reports need it at the same time
+     * @param server the server of the profile
+     * @param profileKey key of the profile
+     * @return the lock of the profile
+     */
+    public Object lock(final String server, final String profileKey) {
+        return locks[Math.floorMod(index(server, profileKey).hashCode(), locks.length)];
+    }
+
+    /**
+     * Get a profile, it is read from disk if it is not in memory
+     * @param server the server of the profile
+     * @param profileKey key of the profile
+     * @return the profile, null if unknown
+     */
+    public Entry get(final String server, final String profileKey) {
+        final String index = index(server, profileKey);
+        Entry entry = profiles.get(index);
+        if (entry == null && directory != null) {
+            entry = read(getFile(index));
+            if (entry != null) {
+                profiles.put(index, entry);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Add or replace a profile
+     * @param server the server of the profile
+     * @param profileKey key of the profile
+     * @param entry the profile
+     */
+    public void put(final String server, final String profileKey, final Entry entry) {
+        final String index = index(server, profileKey);
+        profiles.put(index, entry);
+        if (directory != null) {
+            write(getFile(index), entry);
+        }
+    }
+
+    /**
+     * Number of profiles in memory
+     * @return the number of profiles
+     */
+    public int size() {
+        return profiles.size();
+    }
+
+    /**
+     * File of a profile on disk, named after a digest of its index
+     * @param index index of the profile
+     * @return the file
+     */
+    private File getFile(final String index) {
+        return new File(directory, Hashing.sha256().hashString(index, StandardCharsets.UTF_8) + FILE_EXTENSION);
+    }
+
+    /**
+     * Read a profile from disk
+     * @param file file of the profile
+     * @return the profile, null if it cannot be read
+     */
+    private Entry read(final File file) {
+        Entry entry = null;
+        if (file.isFile()) {
+            try (Reader reader = new InputStreamReader(new GZIPInputStream(Files.newInputStream(file.toPath())),
+                    StandardCharsets.UTF_8)) {
+                entry = gson.fromJson(reader, Entry.class);
+                if (entry != null && !entry.isComplete()) {
+                    entry = null;
+                }
+            } catch (IOException | RuntimeException e) {
+                // the profile is downloaded again
+                LOGGER.log(Level.WARNING, e, () -> "Unable to read the cached quality profile " + file);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Write a profile on disk, the file is replaced at once so concurrent runs never read a partial file
+     * @param file file of the profile
+     * @param entry the profile
+     */
+    private void write(final File file, final Entry entry) {
+        try {
+            Files.createDirectories(directory.toPath());
+            final File tmp = File.createTempFile("profile", ".tmp", directory);
+            try {
+                try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tmp.toPath())),
+                        StandardCharsets.UTF_8)) {
+                    gson.toJson(entry, writer);
+                }
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        } catch (IOException e) {
+            // the profile is still cached in memory
+            LOGGER.log(Level.WARNING, e, () -> "Unable to keep the quality profile on disk: " + file);
+        }
+    }
+
+    /**
+     * A downloaded profile
+     */
+    public static final class Entry {
+        /**
+         * Name of the profile, its configuration is exported by name
+         */
+        private final String name;
+        /**
+         * Date of the last change of the rules of the profile
+         */
+        private final String rulesUpdatedAt;
+        /**
+         * Configuration of the profile (xml export)
+         */
+        private final String conf;
+        /**
+         * Active rules of the profile
+         */
+        private final List<Rule> rules;
+
+        /**
+         * Constructor
+         * @param metaData the profile when it was downloaded
+         * @param pConf configuration of the profile
+         * @param pRules active rules of the profile
+         */
+        public Entry(final ProfileMetaData metaData, final String pConf, final List<Rule> pRules) {
+            this.name = metaData.getName();
+            this.rulesUpdatedAt = metaData.getRulesUpdatedAt();
+            this.conf = pConf;
+            this.rules = new ArrayList<>(pRules);
+        }
+
+        /**
+         * Tell if the configuration and the rules are still valid
+         * @param metaData the profile as it is now
+         * @return false if the rules changed since the download, or if it cannot be known
+         */
+        public boolean hasSameRules(final ProfileMetaData metaData) {
+            return rulesUpdatedAt != null && rulesUpdatedAt.equals(metaData.getRulesUpdatedAt())
+                    && Objects.equals(name, metaData.getName());
+        }
+
+        /**
+         * Check that a profile read from disk has all its fields
+         * @return true if the profile can be used
+         */
+        private boolean isComplete() {
+            return conf != null && rules != null;
+        }
+
+        public String getConf() {
+            return conf;
+        }
+
+        public List<Rule> getRules() {
+            return Collections.unmodifiableList(rules);
+        }
+    }
+}
@@ -21,16 +21,22 @@ import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.ProfileMetaData;
 import fr.cnes.sonar.report.model.QualityProfile;
+import fr.cnes.sonar.report.model.Rule;
+import fr.cnes.sonar.report.providers.JsonPage;
+import fr.cnes.sonar.report.providers.ProtobufMapper;
 import org.sonarqube.ws.client.WsClient;
 import org.sonarqube.ws.client.qualityprofiles.ExportRequest;
 import org.sonarqube.ws.client.qualityprofiles.ProjectsRequest;
 import org.sonarqube.ws.client.qualityprofiles.SearchRequest;
 import org.sonarqube.ws.Qualityprofiles.SearchWsResponse;
+import org.sonarqube.ws.Rules;
 import org.sonarqube.ws.Rules.SearchResponse;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.google.gson.JsonObject;
 
@@ -75,6 +81,36 @@ public class QualityProfileProviderPlugin extends AbstractQualityProfileProvider
 
     @Override
     protected JsonObject getQualityProfilesRulesAsJsonObject(final int page, final String profileKey) {
+        // transform response to JsonObject
+        return responseToJsonObject(searchRules(page, profileKey));
+    }
+
+    @Override
+    protected JsonPage getQualityProfilesRulesPage(final int page, final String profileKey) {
+        final SearchResponse searchRulesResponse = searchRules(page, profileKey);
+        // map the response directly to model objects
+        final JsonPage jsonPage = new JsonPage();
+        jsonPage.setTotal((int) searchRulesResponse.getTotal());
+        jsonPage.put(RULES, searchRulesResponse.getRulesList().stream()
+                .map(ProtobufMapper::toRule).toArray(Rule[]::new));
+        // the first activation of a rule gives its severity
+        final Map<String, String> severities = new HashMap<>();
+        for (Map.Entry<String, Rules.ActiveList> active : searchRulesResponse.getActives().getActivesMap().entrySet()) {
+            if (active.getValue().getActiveListCount() > 0) {
+                severities.put(active.getKey(), active.getValue().getActiveList(0).getSeverity());
+            }
+        }
+        jsonPage.put(ACTIVES, severities);
+        return jsonPage;
+    }
+
+    /**
+     * Search a page of the rules activated in a quality profile
+     * @param page The current page.
+     * @param profileKey The key of the quality profile.
+     * @return The response of the server.
+     */
+    private SearchResponse searchRules(final int page, final String profileKey) {
         // prepare the request
         final List<String> f = new ArrayList<>(Arrays.asList("htmlDesc", "name", "repo", "severity", "defaultRemFn", ACTIVES));
         final String ps = String.valueOf(Integer.valueOf(getRequest(MAX_PER_PAGE_SONARQUBE)));
@@ -87,9 +123,7 @@ public class QualityProfileProviderPlugin extends AbstractQualityProfileProvider
                                                     .setP(p)
                                                     .setActivation("true");
         // perform the previous request to sonarqube server
-        final SearchResponse searchRulesResponse = getWsClient().rules().search(searchRulesRequest);
-        // transform response to JsonObject
-        return responseToJsonObject(searchRulesResponse);
+        return getWsClient().rules().search(searchRulesRequest);
     }
 
     @Override
@@ -22,10 +22,15 @@ import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Comment;
 import fr.cnes.sonar.report.model.SecurityHotspot;
 import fr.cnes.sonar.report.providers.AbstractDataProvider;
+import fr.cnes.sonar.report.providers.JsonPage;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import com.google.gson.JsonObject;
 
@@ -38,7 +43,7 @@ public abstract class AbstractSecurityHotspotsProvider extends AbstractDataProvi
     /**
      * Field to search in json to get security hotspots
      */
-    private static final String HOTSPOTS = "hotspots";
+    protected static final String HOTSPOTS = "hotspots";
     /**
      * Field to search in json to get the security hotspot's resolution
      */
@@ -68,6 +73,11 @@ public abstract class AbstractSecurityHotspotsProvider extends AbstractDataProvi
      */
     protected static final String REVIEWED = "REVIEWED";
 
+    /**
+     * Content of the rules already requested, indexed by key
+     */
+    private final Map<String, JsonObject> rules = new ConcurrentHashMap<>();
+
     /**
      * Complete constructor.
      * @param pServer SonarQube server.
@@ -101,54 +111,87 @@ public abstract class AbstractSecurityHotspotsProvider extends AbstractDataProvi
             throws BadSonarQubeRequestException, SonarQubeException {
         // results variable
         final List<SecurityHotspot> res = new ArrayList<>();
-        // stop condition
-        boolean goOn = true;
-        // current page
-        int page = 1;
         // get maximum number of results per page
         final int maxPerPage = Integer.parseInt(getRequest(MAX_PER_PAGE_SONARQUBE));
 
         // search all security hotspots of the project
-        while(goOn) {
-            final JsonObject searchHotspotsResult = getSecurityHotspotsAsJsonObject(page, maxPerPage, status);
-            // transform json to SecurityHotspot[]
-            SecurityHotspot[] securityHotspotTemp = getGson().fromJson(searchHotspotsResult.get(HOTSPOTS),
-                    SecurityHotspot[].class);
-            // perform requests to get more information about each security hotspot
-            for (SecurityHotspot securityHotspot : securityHotspotTemp) {
-                final String securityHotspotKey = securityHotspot.getKey();
-                final JsonObject showHotspotsResult = getSecurityHotspotAsJsonObject(securityHotspotKey);
-                JsonObject rule = showHotspotsResult.get(RULE).getAsJsonObject();
-                String key = rule.get(KEY).getAsString();
-                Comment[] comments = getGson().fromJson(showHotspotsResult.get(COMMENTS), Comment[].class);
-                securityHotspot.setRule(key);
-                securityHotspot.setComments(comments);
-                if(status.equals(REVIEWED)) {
-                    String resolution = showHotspotsResult.get(RESOLUTION).getAsString();
-                    securityHotspot.setResolution(resolution);
-                }
-                final String securityHotspotRule = securityHotspot.getRule();
-                final JsonObject showRuleResult = getRuleAsJsonObject(securityHotspotRule);
-                JsonObject ruleContent = showRuleResult.get(RULE).getAsJsonObject();
-                String severity = ruleContent.get(SEVERITY).getAsString();
-                String language = ruleContent.get(LANGUAGE).getAsString();
-                securityHotspot.setSeverity(severity);
-                securityHotspot.setLanguage(language);
-            }
-            // add security hotspots to the final result
-            res.addAll(Arrays.asList(securityHotspotTemp));
-            // get total number of items
-            JsonObject paging = searchHotspotsResult.get(PAGING).getAsJsonObject();
-            int number = paging.get(TOTAL).getAsInt();
-            // update stop condition and increment current page
-            goOn = page*maxPerPage < number;
-            page++;
-        }
+        fetchPages(page -> getSecurityHotspotsPage(page, maxPerPage, status),
+                JsonPage::getTotal, maxPerPage, Integer.MAX_VALUE, (page, searchHotspotsResult) -> {
+                    // security hotspots of the page
+                    final SecurityHotspot[] securityHotspotTemp = searchHotspotsResult.get(HOTSPOTS) == null ?
+                            new SecurityHotspot[0] : searchHotspotsResult.get(HOTSPOTS);
+                    // perform requests to get more information about each security hotspot
+                    enrichSecurityHotspots(securityHotspotTemp, status);
+                    // add security hotspots to the final result
+                    res.addAll(Arrays.asList(securityHotspotTemp));
+                });
 
         // return the security hotspots
         return res;
     }
 
+    /**
+     * Complete security hotspots with their details and the severity and language of their rule.
+     * Details are requested through the paging engine, so at most MAX_PARALLEL_PAGE_REQUESTS at the same time
+     * in standalone mode and one by one in plugin mode. Each distinct rule is requested only once.
+     * @param securityHotspots the security hotspots to complete
+     * @param status The status of security hotspots
+     * @throws BadSonarQubeRequestException A request is not recognized by the server
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    private void enrichSecurityHotspots(final SecurityHotspot[] securityHotspots, final String status)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        // request details of each security hotspot
+        getPageFetcher().fetchEach(index -> getSecurityHotspotAsJsonObject(securityHotspots[index - 1].getKey()),
+                1, securityHotspots.length, (index, showHotspotsResult) -> {
+                    final SecurityHotspot securityHotspot = securityHotspots[index - 1];
+                    JsonObject rule = showHotspotsResult.get(RULE).getAsJsonObject();
+                    String key = rule.get(KEY).getAsString();
+                    Comment[] comments = getGson().fromJson(showHotspotsResult.get(COMMENTS), Comment[].class);
+                    securityHotspot.setRule(key);
+                    securityHotspot.setComments(comments);
+                    if(status.equals(REVIEWED)) {
+                        String resolution = showHotspotsResult.get(RESOLUTION).getAsString();
+                        securityHotspot.setResolution(resolution);
+                    }
+                });
+
+        // request each rule not already known
+        final List<String> unknownRules = Arrays.stream(securityHotspots)
+                .map(SecurityHotspot::getRule)
+                .filter(rule -> !rules.containsKey(rule))
+                .distinct()
+                .collect(Collectors.toList());
+        getPageFetcher().fetchEach(index -> getRuleAsJsonObject(unknownRules.get(index - 1)),
+                1, unknownRules.size(), (index, showRuleResult) ->
+                        rules.put(unknownRules.get(index - 1), showRuleResult.get(RULE).getAsJsonObject()));
+
+        // set severity and language from the rule
+        for (SecurityHotspot securityHotspot : securityHotspots) {
+            final JsonObject ruleContent = rules.get(securityHotspot.getRule());
+            String severity = ruleContent.get(SEVERITY).getAsString();
+            String language = ruleContent.get(LANGUAGE).getAsString();
+            securityHotspot.setSeverity(severity);
+            securityHotspot.setLanguage(language);
+        }
+    }
+
+    /**
+     * Get a page of a search hotspots request with its security hotspots.
+     * By default the page is read from the JsonObject response.
+     * @param page The current page.
+     * @param maxPerPage The maximum page size.
+     * @param status The status of security hotspots.
+     * @return The page of security hotspots.
+     * @throws BadSonarQubeRequestException A request is not recognized by the server.
+     * @throws SonarQubeException When SonarQube server is not callable.
+     */
+    protected JsonPage getSecurityHotspotsPage(final int page, final int maxPerPage, final String status)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        return JsonPage.read(getSecurityHotspotsAsJsonObject(page, maxPerPage, status),
+                Collections.singletonMap(HOTSPOTS, arrayReader(HOTSPOTS, SecurityHotspot[].class)));
+    }
+
     /**
      * Get a JsonObject from the response of a search hotspots request.
      * @param page The current page.
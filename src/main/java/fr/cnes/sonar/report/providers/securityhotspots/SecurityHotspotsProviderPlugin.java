@@ -20,6 +20,8 @@ package fr.cnes.sonar.report.providers.securityhotspots;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.SecurityHotspot;
+import fr.cnes.sonar.report.providers.JsonPage;
+import fr.cnes.sonar.report.providers.ProtobufMapper;
 import org.sonarqube.ws.client.WsClient;
 import org.sonarqube.ws.client.hotspots.SearchRequest;
 import org.sonarqube.ws.client.hotspots.ShowRequest;
@@ -69,6 +71,29 @@ public class SecurityHotspotsProviderPlugin extends AbstractSecurityHotspotsProv
 
     @Override
     protected JsonObject getSecurityHotspotsAsJsonObject(final int page, final int maxPerPage, final String status) {
+        // transform response to JsonObject
+        return responseToJsonObject(searchSecurityHotspots(page, maxPerPage, status));
+    }
+
+    @Override
+    protected JsonPage getSecurityHotspotsPage(final int page, final int maxPerPage, final String status) {
+        final SearchWsResponse searchWsResponse = searchSecurityHotspots(page, maxPerPage, status);
+        // map the response directly to model objects
+        final JsonPage jsonPage = new JsonPage();
+        jsonPage.setTotal(searchWsResponse.getPaging().getTotal());
+        jsonPage.put(HOTSPOTS, searchWsResponse.getHotspotsList().stream()
+                .map(ProtobufMapper::toSecurityHotspot).toArray(SecurityHotspot[]::new));
+        return jsonPage;
+    }
+
+    /**
+     * Search a page of security hotspots
+     * @param page The current page.
+     * @param maxPerPage The maximum page size.
+     * @param status The status of security hotspots.
+     * @return The response of the server.
+     */
+    private SearchWsResponse searchSecurityHotspots(final int page, final int maxPerPage, final String status) {
         // prepare the request to get all the security hotspots
         final String p = String.valueOf(page);
         final String ps = String.valueOf(maxPerPage);
@@ -79,9 +104,7 @@ public class SecurityHotspotsProviderPlugin extends AbstractSecurityHotspotsProv
                                                 .setPs(ps)
                                                 .setStatus(status);
         // perform the request to the server
-        final SearchWsResponse searchWsResponse = getWsClient().hotspots().search(searchRequest);
-        // transform response to JsonObject
-        return responseToJsonObject(searchWsResponse);
+        return getWsClient().hotspots().search(searchRequest);
     }
 
     @Override
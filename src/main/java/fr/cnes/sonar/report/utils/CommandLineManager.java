@@ -62,7 +62,9 @@ public class CommandLineManager {
             {"m", "disable-markdown", Boolean.FALSE.toString(), "Disable Markdown generation"},
             {"n", "template-markdown", Boolean.TRUE.toString(), "Path to the report template in markdown. Default: usage of internal template."},
             {"r", "template-report", Boolean.TRUE.toString(), "Path to the report template. Default: usage of internal template."},
-            {"x", "template-spreadsheet", Boolean.TRUE.toString(), "Path to the spreadsheet template. Default: usage of internal template."}
+            {"x", "template-spreadsheet", Boolean.TRUE.toString(), "Path to the spreadsheet template. Default: usage of internal template."},
+            {"k", "projects", Boolean.TRUE.toString(), "Batch mode: file listing one project key per line, glob on the project keys (e.g. 'team-*') or 'search:<text>' to select projects with api/projects/search. Each report is written in a folder named after its project."},
+            {"j", "parallelism", Boolean.TRUE.toString(), "Number of reports generated at the same time in batch mode. Default: 1."}
     };
 
     /**
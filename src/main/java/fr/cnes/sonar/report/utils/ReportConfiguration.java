@@ -61,6 +61,10 @@ public class ReportConfiguration {
     private String templateSpreadsheet;
     /** Options for n. */
     private String templateMarkdown;
+    /** Options for k. */
+    private String projects;
+    /** Options for j. */
+    private int parallelism;
 
     /**
      * Private constructor, use create method instead.
@@ -79,6 +83,8 @@ public class ReportConfiguration {
      * @param templateReport Value for r option.
      * @param templateSpreadsheet Value for x option.
      * @param branch Value for b option.
+     * @param projects Value for k option.
+     * @param parallelism Value for j option.
      */
     private ReportConfiguration(final boolean help, final boolean version, final String server,
                                 final String token, final String project, final String output,
@@ -86,7 +92,8 @@ public class ReportConfiguration {
                                 final boolean enableConf, final boolean enableReport,
                                 final boolean enableSpreadsheet, final boolean enableCSV,
                                 final boolean enableMarkdown, String templateReport,
-                                final String templateSpreadsheet, final String templateMarkdown, final String branch) {
+                                final String templateSpreadsheet, final String templateMarkdown, final String branch,
+                                final String projects, final int parallelism) {
         this.help = help;
         this.version = version;
         this.server = server;
@@ -105,6 +112,8 @@ public class ReportConfiguration {
         this.templateSpreadsheet = templateSpreadsheet;
         this.templateMarkdown = templateMarkdown;
         this.branch = branch;
+        this.projects = projects;
+        this.parallelism = parallelism;
     }
 
     /**
@@ -139,10 +148,45 @@ public class ReportConfiguration {
                 commandLineManager.getOptionValue("r", StringManager.EMPTY),
                 commandLineManager.getOptionValue("x", StringManager.EMPTY),
                 commandLineManager.getOptionValue("n", StringManager.EMPTY),
-                branch.isEmpty()?StringManager.NO_BRANCH:branch
+                branch.isEmpty()?StringManager.NO_BRANCH:branch,
+                commandLineManager.getOptionValue("k", StringManager.EMPTY),
+                parseParallelism(commandLineManager.getOptionValue("j", "1"))
         );
     }
 
+    /**
+     * Parse the number of reports generated at the same time.
+     *
+     * @param value Value of the j option.
+     * @return The number of reports, at least 1.
+     */
+    private static int parseParallelism(final String value) {
+        final String message = String.format("Please provide a number of reports greater than 0 with the -j argument, not '%s'.", value);
+        final int parallelism;
+        try {
+            parallelism = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(message, e);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(message);
+        }
+        return parallelism;
+    }
+
+    /**
+     * Create the configuration of a report of a batch.
+     *
+     * @param pProject Key of the project of the report.
+     * @param pOutput Output path of the report.
+     * @return A copy of this configuration for a single project.
+     */
+    public ReportConfiguration forProject(final String pProject, final String pOutput) {
+        return new ReportConfiguration(help, version, server, token, pProject, pOutput, language, author, date,
+                enableConf, enableReport, enableSpreadsheet, enableCSV, enableMarkdown, templateReport,
+                templateSpreadsheet, templateMarkdown, branch, StringManager.EMPTY, 1);
+    }
+
     public boolean isHelp() {
         return help;
     }
@@ -210,4 +254,12 @@ public class ReportConfiguration {
     public String getTemplateMarkdown(){
         return templateMarkdown;
     }
+
+    public String getProjects() {
+        return projects;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
 }
@@ -0,0 +1,104 @@
+package fr.cnes.sonar.plugin.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+public class ReportCacheTest {
+
+    /**
+     * Create a file of the cache with a given size
+     */
+    private static File newZip(ReportCache cache, int size) throws Exception {
+        File file = cache.newFile();
+        Files.write(file.toPath(), new byte[size]);
+        return file;
+    }
+
+    /**
+     * Tell if a zip is in the cache
+     */
+    private static boolean contains(ReportCache cache, String key) throws Exception {
+        try (InputStream input = cache.open(key)) {
+            return input != null;
+        }
+    }
+
+    @Test
+    public void testKeyDependsOnAllParts() {
+        String key = ReportCache.key(Arrays.asList("2020-01-01T00:00:00+0000", "project"));
+        assertEquals(64, key.length());
+        assertEquals(key, ReportCache.key(Arrays.asList("2020-01-01T00:00:00+0000", "project")));
+        assertNotEquals(key, ReportCache.key(Arrays.asList("2020-01-02T00:00:00+0000", "project")));
+        // parts are separated, they cannot be mixed up
+        assertNotEquals(ReportCache.key(Arrays.asList("ab", "c")), ReportCache.key(Arrays.asList("a", "bc")));
+    }
+
+    @Test
+    public void testChecksumOfMissingFile() throws Exception {
+        assertEquals("", ReportCache.checksum(new File("target/missing-template.docx")));
+    }
+
+    @Test
+    public void testPutAndOpen() throws Exception {
+        ReportCache cache = new ReportCache(Files.createTempDirectory("cache").toFile(), 1024);
+        assertTrue(cache.isEnabled());
+        assertNull(cache.open("key"));
+
+        File zip = newZip(cache, 10);
+        cache.put("key", zip);
+        assertFalse(zip.exists());
+        try (InputStream cached = cache.open("key")) {
+            assertNotNull(cached);
+            assertEquals(10, IOUtils.toByteArray(cached).length);
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        File directory = Files.createTempDirectory("cache").toFile();
+        ReportCache cache = new ReportCache(directory, 250);
+        cache.put("first", newZip(cache, 100));
+        cache.put("second", newZip(cache, 100));
+        // the first zip becomes the most recently used
+        assertTrue(new File(directory, "second.zip").setLastModified(System.currentTimeMillis() - 60000));
+        assertTrue(contains(cache, "first"));
+
+        cache.put("third", newZip(cache, 100));
+        assertTrue(contains(cache, "first"));
+        assertFalse(contains(cache, "second"));
+        assertTrue(contains(cache, "third"));
+    }
+
+    @Test
+    public void testZipBeingReadSurvivesEviction() throws Exception {
+        File directory = Files.createTempDirectory("cache").toFile();
+        ReportCache cache = new ReportCache(directory, 150);
+        cache.put("first", newZip(cache, 100));
+        try (InputStream cached = cache.open("first")) {
+            // the opened zip is evicted while it is sent
+            assertTrue(new File(directory, "first.zip").setLastModified(System.currentTimeMillis() - 60000));
+            cache.put("second", newZip(cache, 100));
+            assertFalse(contains(cache, "first"));
+            assertEquals(100, IOUtils.toByteArray(cached).length);
+        }
+    }
+
+    @Test
+    public void testEmptyCacheIsDisabled() throws Exception {
+        ReportCache cache = new ReportCache(new File("target/disabled-cache"), 0);
+        assertFalse(cache.isEnabled());
+        assertNull(cache.open("key"));
+    }
+}
@@ -0,0 +1,96 @@
+package fr.cnes.sonar.plugin.ws;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.plugin.tools.ZipStream;
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.factory.ReportFactory;
+
+public class ExportTaskTest {
+
+    /**
+     * Write a file of the report and give it to the listener
+     */
+    private static void generate(File directory, String name, ReportFactory.ArtifactListener listener)
+            throws IOException {
+        File file = new File(directory, name);
+        Files.write(file.toPath(), "# report".getBytes(StandardCharsets.UTF_8));
+        listener.generated(file);
+    }
+
+    @Test
+    public void testZipIsFinished() throws Exception {
+        File directory = Files.createTempDirectory("report").toFile();
+        File output = File.createTempFile("report", ".zip");
+        ZipStream zip = new ZipStream(directory, () -> Files.newOutputStream(output.toPath()),
+                ZipStream.COMPRESSED_EXTENSIONS);
+
+        ExportTask.writeZip(zip, listener -> {
+            generate(directory, "report.md", listener);
+            generate(directory, "issues.csv", listener);
+        });
+
+        try (ZipFile result = new ZipFile(output)) {
+            assertNotNull(result.getEntry("report.md"));
+            assertNotNull(result.getEntry("issues.csv"));
+        }
+    }
+
+    @Test
+    public void testFailureAfterFirstFileLeavesZipUnfinished() throws Exception {
+        File directory = Files.createTempDirectory("report").toFile();
+        File output = File.createTempFile("report", ".zip");
+        ZipStream zip = new ZipStream(directory, () -> Files.newOutputStream(output.toPath()),
+                ZipStream.COMPRESSED_EXTENSIONS);
+
+        try {
+            ExportTask.writeZip(zip, listener -> {
+                generate(directory, "report.md", listener);
+                throw new IOException("exporter failure");
+            });
+            fail("The failure must be thrown");
+        } catch (IOException e) {
+            assertEquals("exporter failure", e.getMessage());
+        }
+        assertTrue(zip.isStarted());
+
+        // the truncated zip has no end, it cannot be taken for a complete report
+        try (ZipFile result = new ZipFile(output)) {
+            fail("The zip must not be readable");
+        } catch (ZipException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFailureBeforeFirstFileSendsNothing() throws Exception {
+        File directory = Files.createTempDirectory("report").toFile();
+        ZipStream zip = new ZipStream(directory, () -> {
+            throw new IOException("the response must not be opened");
+        }, ZipStream.COMPRESSED_EXTENSIONS);
+
+        try {
+            ExportTask.writeZip(zip, listener -> {
+                throw new BadSonarQubeRequestException("bad token");
+            });
+            fail("The failure must be thrown");
+        } catch (BadSonarQubeRequestException e) {
+            assertEquals("bad token", e.getMessage());
+        }
+        // the error can still be sent instead of the zip
+        assertFalse(zip.isStarted());
+    }
+}
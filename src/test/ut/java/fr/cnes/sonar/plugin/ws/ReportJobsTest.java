@@ -0,0 +1,132 @@
+package fr.cnes.sonar.plugin.ws;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+
+import org.junit.Test;
+
+public class ReportJobsTest {
+
+    /**
+     * Wait for the end of a job
+     */
+    private static void await(ReportJobs.Job job) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10000;
+        while ((job.getState() == ReportJobs.State.QUEUED || job.getState() == ReportJobs.State.RUNNING)
+                && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testJobIsZipped() throws Exception {
+        ReportJobs jobs = new ReportJobs(1, 1, 1, 3600);
+        ReportJobs.Job job = jobs.submit("token", "report.zip", (directory, listener) -> {
+            File file = new File(directory, "report.md");
+            Files.write(file.toPath(), "# report".getBytes(StandardCharsets.UTF_8));
+            listener.generated(file);
+        });
+        await(job);
+
+        assertEquals(ReportJobs.State.SUCCESS, job.getState());
+        assertEquals("report.zip", job.getName());
+        try (ZipFile zip = new ZipFile(job.getZip())) {
+            assertNotNull(zip.getEntry("report.md"));
+        }
+        // only the owner can see the job
+        assertNotNull(jobs.get(job.getId(), "token"));
+        assertNull(jobs.get(job.getId(), "other"));
+    }
+
+    @Test
+    public void testFailedJob() throws Exception {
+        ReportJobs jobs = new ReportJobs(1, 1, 1, 3600);
+        ReportJobs.Job job = jobs.submit("token", "report.zip", (directory, listener) -> {
+            throw new IllegalStateException("failure");
+        });
+        await(job);
+
+        assertEquals(ReportJobs.State.FAILED, job.getState());
+        assertEquals("failure", job.getError());
+        assertFalse(job.getZip().exists());
+    }
+
+    @Test
+    public void testLimits() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ReportJobs jobs = new ReportJobs(1, 1, 1, 3600);
+        ReportJobs.Generator blocked = (directory, listener) -> release.await(10, TimeUnit.SECONDS);
+
+        ReportJobs.Job running = jobs.submit("first", "report.zip", blocked);
+        // a second job of the same user is rejected
+        try {
+            jobs.submit("first", "report.zip", blocked);
+            assertTrue(false);
+        } catch (ReportJobs.RejectedJobException e) {
+            assertTrue(e.getMessage().contains("user"));
+        }
+        // wait for the first job to leave the queue
+        long end = System.currentTimeMillis() + 10000;
+        while (jobs.getRunningCount() == 0 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        // the queue holds one job, the next one is rejected
+        ReportJobs.Job queued = jobs.submit("second", "report.zip", blocked);
+        assertEquals(1, jobs.getQueuedCount());
+        try {
+            jobs.submit("third", "report.zip", blocked);
+            assertTrue(false);
+        } catch (ReportJobs.RejectedJobException e) {
+            assertTrue(e.getMessage().contains("queue"));
+        }
+
+        release.countDown();
+        await(running);
+        await(queued);
+        assertEquals(ReportJobs.State.SUCCESS, queued.getState());
+    }
+
+    @Test
+    public void testExpiredJobIsDeleted() throws Exception {
+        ReportJobs jobs = new ReportJobs(1, 1, 1, 0);
+        ReportJobs.Job job = jobs.submit("token", "report.zip", (directory, listener) -> { });
+        await(job);
+        Thread.sleep(5);
+
+        assertNull(jobs.get(job.getId(), "token"));
+        assertFalse(job.getZip().exists());
+    }
+
+    @Test
+    public void testDownloadedJobIsNotPurged() throws Exception {
+        ReportJobs jobs = new ReportJobs(1, 1, 1, 0);
+        ReportJobs.Job job = jobs.submit("token", "report.zip", (directory, listener) -> { });
+        await(job);
+        Thread.sleep(5);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertTrue(jobs.sendZip(job, () -> {
+            // the job expires while it is downloaded
+            jobs.purge();
+            assertTrue(job.getZip().exists());
+            return output;
+        }));
+        assertTrue(output.size() > 0);
+
+        // the download is over, the job can be purged
+        jobs.purge();
+        assertFalse(job.getZip().exists());
+        assertFalse(jobs.sendZip(job, () -> output));
+    }
+}
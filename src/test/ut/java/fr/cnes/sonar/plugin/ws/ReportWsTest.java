@@ -47,6 +47,21 @@ public class ReportWsTest {
         testActionMd();
         testActionToken();
         testActionXlsx();
+        testJobActions();
+    }
+
+    public void testJobActions() {
+        // Control the background actions
+        WebService.Action submit = this.controller.action(PluginStringManager.getProperty("api.submit.actionKey"));
+        assertNotNull(submit);
+        assertTrue(submit.isPost());
+        assertNotNull(submit.param(PluginStringManager.getProperty("api.report.args.key")));
+        for (String action : new String[]{"api.status.actionKey", "api.download.actionKey"}) {
+            WebService.Action job = this.controller.action(PluginStringManager.getProperty(action));
+            assertNotNull(job);
+            assertEquals(true, job.param(PluginStringManager.getProperty("api.jobs.args.id")).isRequired());
+            assertEquals(true, job.param(PluginStringManager.getProperty("api.report.args.token")).isRequired());
+        }
     }
 
     public void testWebservice() {
@@ -61,7 +76,7 @@ public class ReportWsTest {
         assertEquals(PluginStringManager.getProperty("api.url"), this.controller.path());
         assertEquals(PluginStringManager.getProperty("api.description"), this.controller.description());
         assertEquals(PluginStringManager.getProperty("plugin.since"), this.controller.since());
-        assertEquals(1, this.controller.actions().size());
+        assertEquals(4, this.controller.actions().size());
     }
 
     public void testAction() {
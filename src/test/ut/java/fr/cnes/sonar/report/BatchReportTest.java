@@ -0,0 +1,82 @@
+package fr.cnes.sonar.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.report.utils.ReportConfiguration;
+
+public class BatchReportTest {
+
+    @Test
+    public void testProjectsFromFile() throws Exception {
+        File file = File.createTempFile("projects", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), Arrays.asList("# nightly reports", "project-a", "", "  project-b ", "project-a"),
+                StandardCharsets.UTF_8);
+        // a file does not need the server
+        assertEquals(Arrays.asList("project-a", "project-b"),
+                BatchReport.getProjectKeys(file.getPath(), "http://localhost:9000", "token"));
+    }
+
+    @Test
+    public void testGlob() {
+        Pattern glob = BatchReport.globToPattern("team-*:app?");
+        assertTrue(glob.matcher("team-a:app1").matches());
+        assertTrue(glob.matcher("team-:app2").matches());
+        assertFalse(glob.matcher("team-a:app12").matches());
+        // other characters are not regular expressions
+        assertFalse(BatchReport.globToPattern("a.b").matcher("axb").matches());
+    }
+
+    @Test
+    public void testFolderName() {
+        assertEquals("org_project-1.0", BatchReport.getFolderName("org:project-1.0"));
+    }
+
+    @Test
+    public void testFolderNamesDoNotCollide() {
+        Map<String, String> names = BatchReport.getFolderNames(
+                Arrays.asList("org:app", "org_app", "org/app", "ORG_APP", "org_app-2"));
+        assertEquals("org_app", names.get("org:app"));
+        assertEquals("org_app-2", names.get("org_app"));
+        assertEquals("org_app-3", names.get("org/app"));
+        assertEquals("ORG_APP-4", names.get("ORG_APP"));
+        assertEquals("org_app-2-2", names.get("org_app-2"));
+    }
+
+    @Test
+    public void testBatchConfiguration() {
+        ReportConfiguration conf = ReportConfiguration.create(new String[] {"-k", "team-*", "-j", "4", "-o", "out"});
+        assertEquals("team-*", conf.getProjects());
+        assertEquals(4, conf.getParallelism());
+
+        ReportConfiguration projectConf = conf.forProject("team-a", "out/team-a");
+        assertEquals("team-a", projectConf.getProject());
+        assertEquals("out/team-a", projectConf.getOutput());
+        assertEquals("", projectConf.getProjects());
+        assertEquals(conf.getLanguage(), projectConf.getLanguage());
+    }
+
+    @Test
+    public void testInvalidParallelismIsRejected() {
+        for (String parallelism : Arrays.asList("abc", "0", "-2")) {
+            try {
+                ReportConfiguration.create(new String[] {"-k", "team-*", "-j", parallelism});
+                fail("The parallelism " + parallelism + " must be rejected");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("-j"));
+            }
+        }
+    }
+}
@@ -18,14 +18,24 @@
 package fr.cnes.sonar.report;
 
 import fr.cnes.sonar.plugin.tools.ZipFolder;
+import fr.cnes.sonar.plugin.tools.ZipStream;
 import fr.cnes.sonar.report.model.Report;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -92,4 +102,39 @@ public class ReportTest {
         File zip = new File(TARGET+".zip");
         assertTrue(zip.exists());
     }
+
+    @Test
+    public void zipStreamTest() throws IOException
+    {
+        File folder = new File(TARGET + "/stream");
+        File conf = new File(TARGET + "/stream/conf");
+        conf.mkdirs();
+        File docx = new File(TARGET + "/stream/report.docx");
+        File xml = new File(TARGET + "/stream/conf/profile.xml");
+        Files.write(docx.toPath(), "docx".getBytes(StandardCharsets.UTF_8));
+        Files.write(xml.toPath(), "<profile/>".getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ZipStream zip = new ZipStream(folder, () -> output, ZipStream.COMPRESSED_EXTENSIONS);
+        assertFalse(zip.isStarted());
+        zip.generated(docx);
+        assertTrue(zip.isStarted());
+        zip.generated(xml);
+        zip.close();
+
+        // files are deleted once sent
+        assertFalse(docx.exists());
+        assertFalse(xml.exists());
+
+        try (ZipInputStream input = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            ZipEntry entry = input.getNextEntry();
+            assertEquals("report.docx", entry.getName());
+            assertEquals(ZipEntry.STORED, entry.getMethod());
+            assertEquals("docx", IOUtils.toString(input, StandardCharsets.UTF_8));
+            entry = input.getNextEntry();
+            assertEquals("conf/profile.xml", entry.getName());
+            assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+            assertEquals("<profile/>", IOUtils.toString(input, StandardCharsets.UTF_8));
+        }
+    }
 }
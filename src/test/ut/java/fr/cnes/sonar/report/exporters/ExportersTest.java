@@ -22,12 +22,28 @@ import fr.cnes.sonar.report.CommonTest;
 import fr.cnes.sonar.report.exceptions.BadExportationDataTypeException;
 import fr.cnes.sonar.report.exporters.docx.DocXExporter;
 import fr.cnes.sonar.report.exporters.xlsx.XlsXExporter;
+import fr.cnes.sonar.report.exporters.xlsx.XlsXTools;
+import org.apache.poi.ss.util.AreaReference;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFTable;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Test the creation of files from an abstract report
@@ -86,6 +102,79 @@ public class ExportersTest extends CommonTest {
         Assert.assertNotNull(xe.export(report, TARGET+"/test.xlsx", ""));
     }
 
+    /**
+     * Assert that the streaming mode of XlsxExporter
+     * writes the same cells and keeps the template tables
+     * @throws Exception ...
+     */
+    @Test
+    public void xlsxStreamingExportTest() throws Exception {
+        final File inMemory = new XlsXExporter(Long.MAX_VALUE).export(report, TARGET+"/test-memory.xlsx", "");
+        final File streamed = new XlsXExporter(0).export(report, TARGET+"/test-streamed.xlsx", "");
+
+        try(XSSFWorkbook expected = new XSSFWorkbook(inMemory); XSSFWorkbook actual = new XSSFWorkbook(streamed)) {
+            Assert.assertEquals(expected.getNumberOfSheets(), actual.getNumberOfSheets());
+            final DataFormatter formatter = new DataFormatter();
+            for (String name : new String[]{"Issues", "Unconfirmed", "All", "Security Hotspots", "Metrics"}) {
+                final XSSFSheet expectedSheet = expected.getSheet(name);
+                final XSSFSheet actualSheet = actual.getSheet(name);
+                // tables keep their range
+                Assert.assertEquals(expectedSheet.getTables().get(0).getCTTable().getRef(),
+                        actualSheet.getTables().get(0).getCTTable().getRef());
+                final int rows = expectedSheet.getTables().get(0).getEndCellReference().getRow();
+                for (int i = 0; i <= rows; i++) {
+                    final Row expectedRow = expectedSheet.getRow(i);
+                    final Row actualRow = actualSheet.getRow(i);
+                    // empty template rows are not kept by the streaming mode
+                    for (int j = 0; expectedRow != null && j < expectedRow.getLastCellNum(); j++) {
+                        Assert.assertEquals(name + " cell " + i + "," + j,
+                                formatter.formatCellValue(expectedRow.getCell(j)),
+                                actualRow == null ? "" : formatter.formatCellValue(actualRow.getCell(j)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Assert that the streaming mode of XlsxExporter
+     * keeps the rows of a custom template which are above the header of a table
+     * @throws Exception ...
+     */
+    @Test
+    public void xlsxStreamingKeepsRowsAboveTableTest() throws Exception {
+        final File template = new File(TARGET + "/offset-template.xlsx");
+        try(InputStream in = getClass().getResourceAsStream("/template/issues-template.xlsx");
+            XSSFWorkbook workbook = new XSSFWorkbook(in);
+            FileOutputStream out = new FileOutputStream(template)) {
+            // move the header of the issues table two rows down, below a title
+            final XSSFSheet sheet = workbook.getSheet("Issues");
+            final XSSFTable table = XlsXTools.findTableByName(sheet, "selected");
+            final Row header = sheet.getRow(0);
+            final Row moved = sheet.createRow(2);
+            for (int j = 0; j < header.getLastCellNum(); j++) {
+                moved.createCell(j).setCellValue(header.getCell(j).getStringCellValue());
+            }
+            sheet.removeRow(header);
+            sheet.createRow(0).createCell(0).setCellValue("Title");
+            final AreaReference area = new AreaReference(table.getCTTable().getRef());
+            table.getCTTable().setRef(new AreaReference(new CellReference(2, 0),
+                    new CellReference(3, area.getLastCell().getCol())).formatAsString());
+            workbook.write(out);
+        }
+
+        final File streamed = new XlsXExporter(0).export(report, TARGET+"/test-offset.xlsx", template.getPath());
+
+        try(XSSFWorkbook actual = new XSSFWorkbook(streamed)) {
+            final XSSFSheet sheet = actual.getSheet("Issues");
+            final DataFormatter formatter = new DataFormatter();
+            Assert.assertEquals("Title", formatter.formatCellValue(sheet.getRow(0).getCell(0)));
+            Assert.assertEquals(2, sheet.getTables().get(0).getStartCellReference().getRow());
+            Assert.assertEquals(report.getIssues().get(0).getRule(),
+                    formatter.formatCellValue(sheet.getRow(3).getCell(0)));
+        }
+    }
+
     /**
      * Assert that there are no exception in a normal use
      * of JsonExporter
@@ -133,6 +222,67 @@ public class ExportersTest extends CommonTest {
         Assert.assertNotNull(xe.export(report, TARGET+"/test.csv", "test.csv"));
     }
 
+    /**
+     * Assert that rows from any source are written with their values in the schema's columns
+     * @throws Exception ...
+     */
+    @Test
+    public void csvWriteRowsTest() throws Exception {
+        final Map<String, Object> first = new LinkedHashMap<>();
+        first.put("key", "é1");
+        first.put("comments", Arrays.asList("a", "b"));
+        final Map<String, Object> second = new LinkedHashMap<>();
+        second.put("line", 12.0);
+        final List<Map<String, Object>> rows = Arrays.asList(first, second);
+
+        final StringBuilder out = new StringBuilder();
+        CSVExporter.writeRows(out, TableSchema.of(rows), rows);
+
+        Assert.assertEquals("key\tcomments\tline\r\né1\ta / b / \t-\r\n-\t-\t12.0\r\n", out.toString());
+    }
+
+    /**
+     * Assert that issues written page by page give the same file as issues written at once,
+     * even when a column only appears in a later page
+     * @throws Exception ...
+     */
+    @Test
+    public void csvStreamExportTest() throws Exception {
+        final Map<String, String> first = new LinkedHashMap<>();
+        first.put("key", "é1");
+        first.put("message", "tab\there");
+        final Map<String, String> second = new LinkedHashMap<>();
+        second.put("key", "2");
+        second.put("line", "12");
+        final Map<String, String> third = new LinkedHashMap<>();
+        third.put("message", "multi\nline");
+        third.put("key", "3");
+
+        final StringBuilder expected = new StringBuilder();
+        final List<Map<String, String>> all = Arrays.asList(first, second, third);
+        CSVExporter.writeRows(expected, TableSchema.of(all), all);
+
+        final CSVExporter xe = new CSVExporter();
+        try(CSVExporter.RawIssuesStream stream = new CSVExporter.RawIssuesStream()) {
+            stream.accept(1, Arrays.asList(first));
+            stream.accept(2, Arrays.asList(second, third));
+            final File file = xe.export(stream, TARGET+"/test-stream.csv", "test.csv");
+            Assert.assertEquals(expected.toString(),
+                    new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        }
+
+        // without late column the rows are copied as they are
+        final StringBuilder firstOnly = new StringBuilder();
+        CSVExporter.writeRows(firstOnly, TableSchema.of(Arrays.asList(first)), Arrays.asList(first, first));
+        try(CSVExporter.RawIssuesStream stream = new CSVExporter.RawIssuesStream()) {
+            stream.accept(1, Arrays.asList(first));
+            stream.accept(2, Arrays.asList(first));
+            final File file = xe.export(stream, TARGET+"/test-stream-copy.csv", "test.csv");
+            Assert.assertEquals(firstOnly.toString(),
+                    new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        }
+    }
+
     /**
      * Assert that there are bad data type exception in case
      * of using bad resource to export for DocxExporter
@@ -0,0 +1,54 @@
+package fr.cnes.sonar.report.exporters;
+
+import fr.cnes.sonar.report.CommonTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TableSchemaTest extends CommonTest {
+
+    @Test
+    public void headersInOrderOfAppearanceTest() {
+        List<Map<String, String>> rows = new ArrayList<>();
+        Map<String, String> first = new LinkedHashMap<>();
+        first.put("key", "1");
+        first.put("rule", "java:S100");
+        Map<String, String> second = new LinkedHashMap<>();
+        second.put("rule", "java:S112");
+        second.put("line", "12");
+        rows.add(first);
+        rows.add(null);
+        rows.add(second);
+
+        TableSchema schema = TableSchema.of(rows);
+
+        Assert.assertEquals(Arrays.asList("key", "rule", "line"), schema.getHeaders());
+        Assert.assertEquals(3, schema.size());
+        Assert.assertEquals(2, schema.indexOf("line"));
+        Assert.assertEquals(-1, schema.indexOf("unknown"));
+        Assert.assertArrayEquals(new Object[]{null, "java:S112", "12"}, schema.toColumns(second));
+    }
+
+    @Test
+    public void extendKeepsKnownColumnsTest() {
+        Map<String, String> first = new LinkedHashMap<>();
+        first.put("key", "1");
+        first.put("rule", "java:S100");
+        TableSchema schema = TableSchema.of(Arrays.asList(first));
+
+        // a page without new key gives the same schema
+        Assert.assertSame(schema, schema.extend(Arrays.asList(first)));
+
+        Map<String, String> second = new LinkedHashMap<>();
+        second.put("line", "12");
+        second.put("key", "2");
+        TableSchema extended = schema.extend(Arrays.asList(second, null, second));
+        Assert.assertEquals(Arrays.asList("key", "rule", "line"), extended.getHeaders());
+        Assert.assertEquals(Arrays.asList("key", "rule"), schema.getHeaders());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of cnesreport.
+ *
+ * cnesreport is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * cnesreport is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with cnesreport.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fr.cnes.sonar.report.exporters.docx;
+
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+public class DocXTemplateTest {
+
+    /**
+     * Assert that the default template is scanned once and shared
+     * @throws Exception ...
+     */
+    @Test
+    public void templateIsCachedTest() throws Exception {
+        final DocXTemplate template = DocXTemplate.get(new File(""));
+        Assert.assertSame(template, DocXTemplate.get(new File("")));
+        Assert.assertTrue(template.getPlanSize() > 0);
+    }
+
+    /**
+     * Copy the default template to a new file
+     */
+    private static File copyDefault() throws Exception {
+        final File file = File.createTempFile("template", ".docx");
+        file.deleteOnExit();
+        try (InputStream input = DocXTemplate.class.getResourceAsStream(DocXTemplate.DEFAULT_TEMPLATE)) {
+            Files.copy(input, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    /**
+     * Assert that a template edited in place replaces its previous version in the cache
+     * @throws Exception ...
+     */
+    @Test
+    public void editedTemplateReplacesPreviousVersionTest() throws Exception {
+        final File file = copyDefault();
+        final DocXTemplate first = DocXTemplate.get(file);
+        final int size = DocXTemplate.size();
+        Assert.assertSame(first, DocXTemplate.get(file));
+
+        Assert.assertTrue(file.setLastModified(file.lastModified() - 60000));
+        final DocXTemplate edited = DocXTemplate.get(file);
+        Assert.assertNotSame(first, edited);
+        Assert.assertEquals(size, DocXTemplate.size());
+    }
+
+    /**
+     * Assert that only the most recently used templates are kept
+     * @throws Exception ...
+     */
+    @Test
+    public void templatesAreBoundedTest() throws Exception {
+        final File first = copyDefault();
+        final DocXTemplate template = DocXTemplate.get(first);
+        for (int i = 0; i < DocXTemplate.MAX_TEMPLATES; i++) {
+            DocXTemplate.get(copyDefault());
+        }
+        Assert.assertEquals(DocXTemplate.MAX_TEMPLATES, DocXTemplate.size());
+        // the least recently used template was evicted, it is read again
+        Assert.assertNotSame(template, DocXTemplate.get(first));
+    }
+
+    /**
+     * Assert that values are written literally and that
+     * placeholders without value are kept
+     * @throws Exception ...
+     */
+    @Test
+    public void fillTest() throws Exception {
+        final DocXTemplate template = DocXTemplate.get(new File(""));
+        final Map<String, String> values = new HashMap<>();
+        values.put("XX-PROJECTNAME-XX", "$1 \\ project");
+
+        try (XWPFDocument document = template.open()) {
+            template.fill(document, values);
+            final String text = new XWPFWordExtractor(document).getText();
+            Assert.assertTrue(text.contains("$1 \\ project"));
+            Assert.assertFalse(text.contains("XX-PROJECTNAME-XX"));
+            Assert.assertTrue(text.contains("XX-AUTHOR-XX"));
+        }
+
+        // the cached template is not modified by a fill
+        try (XWPFDocument document = template.open()) {
+            Assert.assertTrue(new XWPFWordExtractor(document).getText().contains("XX-PROJECTNAME-XX"));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package fr.cnes.sonar.report.factory;
+
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import fr.cnes.sonar.report.exceptions.UnknownQualityGateException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class StageGraphTest {
+
+    @Test
+    public void testIndependentStagesRunConcurrently()
+            throws BadSonarQubeRequestException, UnknownQualityGateException, SonarQubeException {
+        final List<String> done = new CopyOnWriteArrayList<>();
+        // both stages wait for each other, they can only finish if they run at the same time
+        final CountDownLatch latch = new CountDownLatch(2);
+        final StageGraph.Stage meeting = () -> {
+            latch.countDown();
+            try {
+                Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        final StageGraph graph = new StageGraph()
+                .add("first", () -> done.add("first"))
+                .add("a", meeting, "first")
+                .add("b", meeting, "first")
+                .add("last", () -> done.add("last"), "a", "b");
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            graph.execute(executor);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals("first", done.get(0));
+        Assert.assertEquals("last", done.get(1));
+        Assert.assertEquals(4, graph.getTimings().size());
+    }
+
+    @Test
+    public void testFailureStopsDependentStages()
+            throws BadSonarQubeRequestException, UnknownQualityGateException {
+        final List<String> done = new CopyOnWriteArrayList<>();
+        final StageGraph graph = new StageGraph()
+                .add("check", () -> {
+                    throw new SonarQubeException("Unknown project");
+                })
+                .add("measures", () -> done.add("measures"), "check");
+        try {
+            graph.execute(Runnable::run);
+            Assert.fail("The failure should have been thrown.");
+        } catch (SonarQubeException e) {
+            Assert.assertEquals("Unknown project", e.getMessage());
+        }
+        Assert.assertTrue(done.isEmpty());
+        Assert.assertTrue(graph.getTimings().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDependency() {
+        new StageGraph().add("measures", () -> { }, "check");
+    }
+}
@@ -0,0 +1,81 @@
+package fr.cnes.sonar.report.model;
+
+import fr.cnes.sonar.report.CommonTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ComponentTableTest extends CommonTest {
+
+    private static Component component(String id, String path, String... measures) {
+        Component component = new Component();
+        component.setId(id);
+        component.setName(id);
+        component.setPath(path);
+        List<Measure> list = new ArrayList<>();
+        for (int i = 0; i < measures.length; i += 2) {
+            list.add(new Measure(measures[i], measures[i + 1]));
+        }
+        component.setMeasures(list);
+        return component;
+    }
+
+    @Test
+    public void rowsMatchComponentMapsTest() {
+        Component c1 = component("1", "src/A.java", "ncloc", "10", "complexity", "2");
+        Component c2 = component("2", "src/B.java", "ncloc", "10");
+        Component c3 = component("3", "src/C.java", "coverage", "50.5");
+
+        ComponentTable table = new ComponentTable();
+        table.addComponent(c1);
+        table.addComponent(c2);
+        table.addComponent(c3);
+
+        assertEquals(3, table.size());
+        assertEquals(Arrays.asList("ID", "Name", "Path", "ncloc", "complexity", "coverage"), table.getColumns());
+        assertEquals(c1.toMap(), table.get(0));
+        assertEquals(c2.toMap(), table.get(1));
+        assertEquals(c3.toMap(), table.get(2));
+        assertFalse(table.get(1).containsKey("complexity"));
+        assertNull(table.get(1).get("complexity"));
+
+        // equal values share one dictionary entry
+        assertEquals(1, table.getDictionary("ncloc").size());
+        assertSame(table.getValue("ncloc", 0), table.getValue("ncloc", 1));
+        assertEquals(ComponentTable.ABSENT, table.getCode("coverage", 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(3));
+        assertThrows(UnsupportedOperationException.class, () -> table.add(new HashMap<>()));
+    }
+
+    @Test
+    public void metricStatsFromTableTest() {
+        ComponentTable table = new ComponentTable();
+        List<Map<String, String>> maps = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Component c = component(String.valueOf(i), "src/" + i, "ncloc", String.valueOf(i % 7),
+                    "alert_status", "OK");
+            table.addComponent(c);
+            maps.add(c.toMap());
+        }
+
+        Components fromTable = new Components();
+        fromTable.setComponentsList(table);
+        Components fromMaps = new Components();
+        fromMaps.setComponentsList(maps);
+
+        assertEquals(fromMaps.getMetricStats(), fromTable.getMetricStats());
+        assertEquals(Double.valueOf(6), fromTable.getMetricStats().get("maxncloc"));
+        assertNull(fromTable.getMetricStats().get("maxalert_status"));
+    }
+}
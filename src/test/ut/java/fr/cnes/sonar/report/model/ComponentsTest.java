@@ -8,9 +8,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import org.junit.Test;
 
+import org.apache.commons.math3.util.Precision;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 public class ComponentsTest extends CommonTest {
 
@@ -117,6 +121,31 @@ public class ComponentsTest extends CommonTest {
         assertEquals(expected,components.getMetricStats());
     }
 
+    @Test
+    public void getMedianMetricMatchesSortedValuesTest() {
+        ArrayList<Map<String,String>> componentsTest = new ArrayList<>();
+        ComponentsWrapper components = new ComponentsWrapper();
+        Random random = new Random(42);
+
+        for (int size = 1; size <= 50; size++) {
+            componentsTest.clear();
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                // few distinct values to also cover duplicates
+                values[i] = random.nextInt(10);
+                Map<String,String> component = new HashMap<>();
+                component.put("Test", String.valueOf(values[i]));
+                componentsTest.add(component);
+            }
+            components.setComponentsList(componentsTest);
+
+            Arrays.sort(values);
+            double expected = size % 2 == 1 ? values[size / 2] : (values[size / 2 - 1] + values[size / 2]) / 2;
+            assertEquals(Precision.round(expected, 1), components.getMedianMetricPublic("Test"));
+            assertEquals(Precision.round(expected, 1), components.getMetricStats().get("medianTest"));
+        }
+    }
+
     /**
      * Wrapper on Components for testing purposes
      */
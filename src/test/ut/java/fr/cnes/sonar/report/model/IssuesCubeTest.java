@@ -0,0 +1,79 @@
+package fr.cnes.sonar.report.model;
+
+import fr.cnes.sonar.report.CommonTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class IssuesCubeTest extends CommonTest {
+
+    private static Issue issue(String rule, String type, String severity, String language) {
+        Issue issue = new Issue();
+        issue.setRule(rule);
+        issue.setType(type);
+        issue.setSeverity(severity);
+        issue.setLanguage(language);
+        return issue;
+    }
+
+    @Test
+    public void emptyCubeTest() {
+        IssuesCube cube = new IssuesCube();
+        assertEquals(0, cube.count("BUG", "MAJOR"));
+        assertEquals(0, cube.count(null, null, null, null));
+        assertTrue(cube.countByRule().isEmpty());
+        assertTrue(cube.getRules().isEmpty());
+    }
+
+    @Test
+    public void countIssuesTest() {
+        List<Issue> issues = new ArrayList<>();
+        issues.add(issue("java:S100", "CODE_SMELL", "MINOR", "Java"));
+        issues.add(issue("java:S100", "CODE_SMELL", "MINOR", "Java"));
+        issues.add(issue("java:S112", "BUG", "MAJOR", "Java"));
+        issues.add(issue("py:S1", "BUG", "MAJOR", "Python"));
+        issues.add(issue(null, "BUG", "BLOCKER", "Python"));
+
+        IssuesCube cube = new IssuesCube(issues);
+
+        assertEquals(5, cube.count(null, null, null, null));
+        assertEquals(2, cube.count("CODE_SMELL", "MINOR"));
+        assertEquals(2, cube.count("BUG", "MAJOR"));
+        assertEquals(0, cube.count("VULNERABILITY", "MAJOR"));
+        assertEquals(1, cube.count(null, "BUG", "MAJOR", "Python"));
+        assertEquals(3, cube.count(null, null, null, "Java"));
+
+        Map<String, Long> byRule = cube.countByRule();
+        assertEquals(4, byRule.size());
+        assertEquals(Long.valueOf(2), byRule.get("java:S100"));
+        assertEquals(Long.valueOf(1), byRule.get("py:S1"));
+        // issues without rule are counted apart
+        assertEquals(Long.valueOf(1), byRule.get(null));
+        assertEquals(4, cube.getRules().size());
+    }
+
+    @Test
+    public void sparseCellsTest() {
+        List<Issue> issues = new ArrayList<>();
+        // many rules, types, severities and languages but few combinations
+        for (int i = 0; i < 5000; i++) {
+            issues.add(issue("rule" + i, i % 2 == 0 ? "BUG" : "CODE_SMELL", "MAJOR", "lang" + (i % 40)));
+        }
+        issues.add(issue("rule0", "BUG", "MAJOR", "lang0"));
+
+        IssuesCube cube = new IssuesCube(issues);
+
+        assertEquals(5001, cube.count(null, null, null, null));
+        assertEquals(2501, cube.count("BUG", "MAJOR"));
+        assertEquals(2, cube.count("rule0", null, null, null));
+        assertEquals(0, cube.count("rule1", "BUG", null, null));
+        assertEquals(126, cube.count(null, null, null, "lang0"));
+        assertEquals(Long.valueOf(2), cube.countByRule().get("rule0"));
+    }
+}
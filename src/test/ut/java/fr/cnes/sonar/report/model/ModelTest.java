@@ -72,4 +72,57 @@ public class ModelTest extends CommonTest {
 
         Assert.assertEquals(true, project.getLanguages().isEmpty());
     }
+
+    @Test
+    public void reportRuleIndexTest() {
+        Rule first = new Rule();
+        first.setKey("java:S100");
+        first.setSeverity("MINOR");
+        Rule duplicate = new Rule();
+        duplicate.setKey("java:S100");
+        duplicate.setSeverity("MAJOR");
+        Rule other = new Rule();
+        other.setKey("java:S112");
+
+        ProfileData data1 = new ProfileData();
+        List<Rule> rules1 = new ArrayList<>();
+        rules1.add(first);
+        data1.setRules(rules1);
+        ProfileData data2 = new ProfileData();
+        List<Rule> rules2 = new ArrayList<>();
+        rules2.add(duplicate);
+        rules2.add(other);
+        data2.setRules(rules2);
+        List<QualityProfile> profiles = new ArrayList<>();
+        profiles.add(new QualityProfile(data1, new ProfileMetaData()));
+        profiles.add(new QualityProfile(data2, new ProfileMetaData()));
+
+        Report report = new Report();
+        Assert.assertNull(report.getRule("java:S100"));
+        report.setQualityProfiles(profiles);
+        // the first profile containing the rule gives it
+        Assert.assertSame(first, report.getRule("java:S100"));
+        Assert.assertSame(other, report.getRule("java:S112"));
+        Assert.assertNull(report.getRule("java:S999"));
+    }
+
+    @Test
+    public void reportListsAreUnmodifiableViewsTest() {
+        List<Issue> issues = new ArrayList<>();
+        issues.add(new Issue());
+
+        Report report = new Report();
+        report.setIssues(issues);
+        // the report keeps its own copy
+        issues.add(new Issue());
+        Assert.assertEquals(1, report.getIssues().size());
+        // getters share the same list without copying it
+        Assert.assertSame(report.getIssues(), report.getIssues());
+        try {
+            report.getIssues().add(new Issue());
+            Assert.fail("Issues of a report should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            Assert.assertEquals(1, report.getIssues().size());
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package fr.cnes.sonar.report.model;
+
+import fr.cnes.sonar.report.CommonTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RawIssueTableTest extends CommonTest {
+
+    @Test
+    public void rowsMatchRawIssuesTest() {
+        List<Map<String, Object>> issues = new ArrayList<>();
+        RawIssueTable table = new RawIssueTable();
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> issue = new LinkedHashMap<>();
+            issue.put("key", "AX" + i);
+            issue.put("rule", "java:S" + (i % 5));
+            issue.put("severity", i % 2 == 0 ? "MAJOR" : "MINOR");
+            issue.put("line", (double) i);
+            if (i % 3 == 0) {
+                issue.put("tags", Arrays.asList("cwe", "cert"));
+            }
+            issues.add(issue);
+            table.addIssue(issue);
+        }
+
+        assertEquals(500, table.size());
+        assertEquals(Arrays.asList("key", "rule", "severity", "line", "tags"), table.getColumns());
+        for (int i = 0; i < issues.size(); i++) {
+            assertEquals(issues.get(i), table.get(i));
+        }
+        // low-cardinality columns keep their values once
+        assertEquals(5, table.getDictionary("rule").size());
+        assertSame(table.getValue("severity", 0), table.getValue("severity", 2));
+        // mostly distinct columns drop their dictionary
+        assertTrue(table.getDictionary("key").isEmpty());
+        assertEquals("AX499", table.getValue("key", 499));
+        assertEquals(ColumnTable.ABSENT, table.getCode("tags", 1));
+    }
+}
@@ -0,0 +1,51 @@
+package fr.cnes.sonar.report.providers;
+
+import com.google.gson.Gson;
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.model.Component;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Map;
+
+public class JsonPageTest {
+
+    private static final Map<String, JsonPage.FieldReader> READERS = Collections.singletonMap("components",
+            (reader, page) -> page.put("components", new Gson().fromJson(reader, Component[].class)));
+
+    @Test
+    public void testFieldsAreBound() throws BadSonarQubeRequestException {
+        final JsonPage page = JsonPage.read(new StringReader(
+                "{\"paging\":{\"pageIndex\":1,\"pageSize\":500,\"total\":2}," +
+                "\"baseComponent\":{\"key\":\"project\",\"measures\":[]}," +
+                "\"components\":[{\"key\":\"a\"},{\"key\":\"b\"}]}"), READERS);
+        Assert.assertEquals(2, page.getTotal());
+        final Component[] components = page.get("components");
+        Assert.assertEquals(2, components.length);
+        Assert.assertNull(page.get("baseComponent"));
+    }
+
+    @Test
+    public void testRootTotalHasPriority() throws BadSonarQubeRequestException {
+        final JsonPage page = JsonPage.read(new StringReader(
+                "{\"paging\":{\"total\":10000},\"total\":12345,\"issues\":[]}"), READERS);
+        Assert.assertEquals(12345, page.getTotal());
+    }
+
+    @Test
+    public void testErrorIsThrown() {
+        try {
+            JsonPage.read(new StringReader("{\"errors\":[{\"msg\":\"Component not found\"}]}"), READERS);
+            Assert.fail("The error should have been thrown.");
+        } catch (BadSonarQubeRequestException e) {
+            Assert.assertEquals("Component not found", e.getMessage());
+        }
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void testMalformedResponse() throws BadSonarQubeRequestException {
+        JsonPage.read(new StringReader("<html>Bad gateway</html>"), READERS);
+    }
+}
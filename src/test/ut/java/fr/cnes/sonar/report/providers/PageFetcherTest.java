@@ -0,0 +1,97 @@
+package fr.cnes.sonar.report.providers;
+
+import com.google.gson.JsonObject;
+import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PageFetcherTest {
+
+    private static final int MAX_PER_PAGE = 10;
+
+    /**
+     * Build a fake page response
+     * @param page index of the page
+     * @param total total number of items
+     * @return the fake response
+     */
+    private static JsonObject page(int page, int total) {
+        final JsonObject jo = new JsonObject();
+        jo.addProperty("page", page);
+        jo.addProperty("total", total);
+        return jo;
+    }
+
+    @Test
+    public void testPagesAreConsumedInOrder() throws BadSonarQubeRequestException, SonarQubeException {
+        final List<Integer> consumed = new ArrayList<>();
+        final int total = new PageFetcher(4).fetch(p -> page(p, 95), jo -> jo.get("total").getAsInt(),
+                MAX_PER_PAGE, Integer.MAX_VALUE, (p, jo) -> {
+                    Assert.assertEquals(p, jo.get("page").getAsInt());
+                    consumed.add(p);
+                });
+        Assert.assertEquals(95, total);
+        Assert.assertEquals(10, consumed.size());
+        for (int i = 0; i < consumed.size(); i++) {
+            Assert.assertEquals(i + 1, consumed.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testLimitStopsPaging() throws BadSonarQubeRequestException, SonarQubeException {
+        final List<Integer> consumed = new ArrayList<>();
+        final int total = new PageFetcher(1).fetch(p -> page(p, 1000), jo -> jo.get("total").getAsInt(),
+                MAX_PER_PAGE, 30, (p, jo) -> consumed.add(p));
+        Assert.assertEquals(1000, total);
+        Assert.assertEquals(3, consumed.size());
+    }
+
+    @Test(expected = BadSonarQubeRequestException.class)
+    public void testFailureIsPropagated() throws BadSonarQubeRequestException, SonarQubeException {
+        new PageFetcher(4).fetch(p -> {
+            if (p == 5) {
+                throw new BadSonarQubeRequestException("page 5");
+            }
+            return page(p, 100);
+        }, jo -> jo.get("total").getAsInt(), MAX_PER_PAGE, Integer.MAX_VALUE, (p, jo) -> { });
+    }
+
+    @Test
+    public void testServerRequestsAreBoundedAcrossFetchers() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        final PageFetcher.PageRequest<JsonObject> request = p -> {
+            maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return page(p, 200);
+        };
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    new PageFetcher("bounded-server", 2).fetch(request, jo -> jo.get("total").getAsInt(),
+                            MAX_PER_PAGE, Integer.MAX_VALUE, (p, jo) -> { });
+                } catch (BadSonarQubeRequestException | SonarQubeException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        // the first pages are requested by the calling threads, other pages by the 2 shared workers
+        Assert.assertTrue(maximum.get() <= 2 + threads.size());
+    }
+}
@@ -0,0 +1,82 @@
+package fr.cnes.sonar.report.providers;
+
+import com.google.gson.Gson;
+import fr.cnes.sonar.report.model.Component;
+import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.model.Rule;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonar.core.util.ProtobufJsonFormat;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.Measures;
+import org.sonarqube.ws.Rules;
+
+import java.util.Map;
+
+public class ProtobufMapperTest {
+
+    private final Gson gson = new Gson();
+
+    private final Issues.Issue issue = Issues.Issue.newBuilder()
+            .setKey("AX-1")
+            .setRule("java:S100")
+            .setSeverity(Common.Severity.MAJOR)
+            .setComponent("project:src/Main.java")
+            .setProject("project")
+            .setLine(42)
+            .setStatus("OPEN")
+            .setEffort("5min")
+            .setType(Common.RuleType.CODE_SMELL)
+            .setMessage("Rename this method.")
+            .setTextRange(Common.TextRange.newBuilder().setStartLine(42).setEndLine(42))
+            .setComments(Issues.Comments.newBuilder().addComments(
+                    Common.Comment.newBuilder().setKey("c1").setLogin("admin").setMarkdown("ok").setUpdatable(true)))
+            .build();
+
+    @Test
+    public void testIssueIsMappedLikeJson() {
+        final Issue expected = gson.fromJson(ProtobufJsonFormat.toJson(issue), Issue.class);
+        final Issue actual = ProtobufMapper.toIssue(issue);
+        Assert.assertEquals(expected.toString(), actual.toString());
+        Assert.assertEquals("42", actual.getLine());
+        Assert.assertEquals("MAJOR", actual.getSeverity());
+        // missing fields keep their default value
+        Assert.assertEquals("", actual.getResolution());
+    }
+
+    @Test
+    public void testRawIssueIsMappedLikeJson() {
+        final Map<?, ?> expected = gson.fromJson(ProtobufJsonFormat.toJson(issue), Map.class);
+        final Map<String, String> actual = ProtobufMapper.toMap(issue);
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        for (final String key : actual.keySet()) {
+            Assert.assertEquals(key, String.valueOf(expected.get(key)), String.valueOf(actual.get(key)));
+        }
+    }
+
+    @Test
+    public void testRulesAreMappedLikeJson() {
+        final Common.Rule issueRule = Common.Rule.newBuilder().setKey("java:S100").setName("Method names")
+                .setLang("java").setLangName("Java").setStatus(Common.RuleStatus.READY).build();
+        Assert.assertEquals(gson.toJson(gson.fromJson(ProtobufJsonFormat.toJson(issueRule), Rule.class)),
+                gson.toJson(ProtobufMapper.toRule(issueRule)));
+
+        final Rules.Rule rule = Rules.Rule.newBuilder().setKey("java:S100").setRepo("java").setName("Method names")
+                .setSeverity("MINOR").setType(Common.RuleType.CODE_SMELL).setHtmlDesc("<p>desc</p>")
+                .setDebtRemFnCoeff("5min").setLang("java").setLangName("Java").build();
+        Assert.assertEquals(gson.toJson(gson.fromJson(ProtobufJsonFormat.toJson(rule), Rule.class)),
+                gson.toJson(ProtobufMapper.toRule(rule)));
+    }
+
+    @Test
+    public void testComponentIsMappedLikeJson() {
+        final Measures.Component component = Measures.Component.newBuilder().setKey("project:src/Main.java")
+                .setName("Main.java").setPath("src/Main.java")
+                .addMeasures(Measures.Measure.newBuilder().setMetric("ncloc").setValue("120"))
+                .addMeasures(Measures.Measure.newBuilder().setMetric("coverage").setValue("80.5"))
+                .build();
+        final Component expected = gson.fromJson(ProtobufJsonFormat.toJson(component), Component.class);
+        Assert.assertEquals(expected.toMap(), ProtobufMapper.toComponent(component).toMap());
+    }
+}
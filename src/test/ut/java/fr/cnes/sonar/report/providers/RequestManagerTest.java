@@ -5,6 +5,7 @@ import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class RequestManagerTest extends CommonTest {
@@ -43,4 +44,44 @@ public class RequestManagerTest extends CommonTest {
         req.get(HOST, TOKEN);
     }
     
+    /**
+     * Send a request to an unreachable server, its connector is created anyway
+     */
+    private static void getUnreachable(RequestManager req, String url, String token) {
+        try {
+            req.get(url, token);
+        } catch (SonarQubeException | BadSonarQubeRequestException e) {
+            // This SonarQube URL is unreachable
+        }
+    }
+
+    @Test
+    public void testConnectorReuse() {
+        RequestManager req = RequestManager.getInstance();
+        // an origin and a token used by no other test
+        final String origin = "http://reuse-" + System.nanoTime() + ".fake:9393";
+        final String token = "reuse-token-" + System.nanoTime();
+        final long before = req.getConnectorsCreated();
+
+        // Several requests on the same server with the same token share a single connector
+        getUnreachable(req, origin + "/api/issues/search?p=1", token);
+        getUnreachable(req, origin + "/api/rules/show?key=java:S100", token);
+        Assert.assertEquals(1, req.getConnectorsCreated() - before);
+
+        // Another token or another server needs its own connector
+        getUnreachable(req, origin + "/api/issues/search?p=1", token + "-other");
+        Assert.assertEquals(2, req.getConnectorsCreated() - before);
+        getUnreachable(req, origin.replace(":9393", ":9394") + "/api/issues/search?p=1", token);
+        Assert.assertEquals(3, req.getConnectorsCreated() - before);
+    }
+
+    @Test
+    public void testExtractOrigin() {
+        Assert.assertEquals("https://sonar.example.org:9000",
+                RequestManager.extractOrigin("https://sonar.example.org:9000/sonar/api/issues/search?p=1"));
+        Assert.assertEquals("http://sonarqube.fake:9393", RequestManager.extractOrigin(HOST));
+        Assert.assertEquals("http://sonarqube.fake", RequestManager.extractOrigin("http://sonarqube.fake?p=1#top"));
+        Assert.assertEquals("http://sonarqube.fake:9393", RequestManager.extractOrigin("http://sonarqube.fake:9393"));
+    }
+
 }
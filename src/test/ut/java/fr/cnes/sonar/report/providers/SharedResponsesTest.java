@@ -0,0 +1,92 @@
+package fr.cnes.sonar.report.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.report.exceptions.SonarQubeException;
+
+public class SharedResponsesTest {
+
+    @Test
+    public void testResponseIsRequestedOnce() throws Exception {
+        SharedResponses responses = new SharedResponses();
+        AtomicInteger calls = new AtomicInteger();
+        SharedResponses.Loader loader = () -> "{\"call\":" + calls.incrementAndGet() + "}";
+        assertEquals("{\"call\":1}", responses.get("token", "url", loader));
+        assertEquals("{\"call\":1}", responses.get("token", "url", loader));
+
+        // responses are not shared between users
+        assertEquals("{\"call\":2}", responses.get("other", "url", loader));
+        assertEquals(2, responses.size());
+    }
+
+    @Test
+    public void testFailureIsNotShared() throws Exception {
+        SharedResponses responses = new SharedResponses();
+        try {
+            responses.get("token", "url", () -> {
+                throw new SonarQubeException("down");
+            });
+        } catch (SonarQubeException e) {
+            assertEquals("down", e.getMessage());
+        }
+        assertEquals(0, responses.size());
+        assertEquals("{}", responses.get("token", "url", () -> "{}"));
+    }
+
+    @Test(timeout = 10000)
+    public void testErrorReleasesWaitingReports() throws Exception {
+        SharedResponses responses = new SharedResponses();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch waiting = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> responses.get("token", "url", () -> {
+                loading.countDown();
+                try {
+                    waiting.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new OutOfMemoryError("no memory");
+            }));
+            loading.await();
+            // the second report waits for the response requested by the first one
+            executor.shutdown();
+            Thread release = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                waiting.countDown();
+            });
+            release.start();
+            try {
+                responses.get("token", "url", () -> "{}");
+            } catch (OutOfMemoryError e) {
+                assertEquals("no memory", e.getMessage());
+            }
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+            try {
+                first.get();
+                fail("The error must be thrown");
+            } catch (ExecutionException e) {
+                assertEquals(OutOfMemoryError.class, e.getCause().getClass());
+            }
+            assertEquals(0, responses.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -20,6 +20,8 @@ package fr.cnes.sonar.report.providers.issues;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +33,8 @@ import org.junit.Test;
 import fr.cnes.sonar.report.exceptions.BadSonarQubeRequestException;
 import fr.cnes.sonar.report.exceptions.SonarQubeException;
 import fr.cnes.sonar.report.model.Issue;
+import fr.cnes.sonar.report.providers.JsonPage;
+import fr.cnes.sonar.report.providers.PageFetcher;
 
 
 public class AbstractIssuesProviderTest {
@@ -136,6 +140,36 @@ public class AbstractIssuesProviderTest {
         assertEquals("", issuesByStatus.get(0).getLanguage());
     }
 
+    @Test
+    public void testRulesLanguagesAreSharedBetweenCrawls() throws BadSonarQubeRequestException, SonarQubeException {
+        // First crawl knows the rule of the issue
+        JsonObject issue = new JsonObject();
+        issue.addProperty("key", "AXs6TiZb_DAZnba7Q_0P");
+        issue.addProperty("rule", "java:S112");
+        JsonArray issues = new JsonArray();
+        issues.add(issue);
+        JsonObject rule = new JsonObject();
+        rule.addProperty("key", "java:S112");
+        rule.addProperty("langName", "Java");
+        JsonArray rules = new JsonArray();
+        rules.add(rule);
+        JsonObject withRules = new JsonObject();
+        withRules.addProperty("total", 1);
+        withRules.add("issues", issues);
+        withRules.add("rules", rules);
+        // Second crawl does not receive the rule anymore
+        JsonObject withoutRules = new JsonObject();
+        withoutRules.addProperty("total", 1);
+        withoutRules.add("issues", issues);
+        withoutRules.add("rules", new JsonArray());
+
+        FakeIssuesProvider provider = new FakeIssuesProvider();
+        provider.setFakeObject(withRules);
+        assertEquals("Java", provider.getIssuesByStatus().get(0).getLanguage());
+        provider.setFakeObject(withoutRules);
+        assertEquals("Java", provider.getConfirmedIssues().get(0).getLanguage());
+    }
+
     @Test
     public void testMultiplePages() throws BadSonarQubeRequestException, SonarQubeException {
         // Creates a response from SonarQube with some issues matching rules
@@ -191,14 +225,105 @@ public class AbstractIssuesProviderTest {
         response.add("issues", issues);
         response.add("rules", rules);
 
+        // Each type of issue contains less issues than the limit
+        JsonObject partitionResponse = new JsonObject();
+        partitionResponse.addProperty("total", 1);
+        partitionResponse.add("issues", issues);
+        partitionResponse.add("rules", rules);
+
         FakeIssuesProvider provider = new FakeIssuesProvider();
         provider.setFakeObject(response);
+        provider.setFakePartitionObject(partitionResponse);
 
         // Call methods from abstract class & check result
         List<Issue> issuesByStatus = provider.getIssuesByStatus();
         List<Map<String,String>> rawIssues = provider.getRawIssues();
         assertTrue(issuesByStatus.size() <= MAXIMUM_ISSUES_LIMIT);
         assertTrue(rawIssues.size() <= MAXIMUM_ISSUES_LIMIT);
+        // the search is split by type and issues are de-duplicated by key
+        assertEquals(1, issuesByStatus.size());
+        assertEquals(1 + 3 + 1 + 3, provider.getRequestsCount());
+    }
+
+    @Test
+    public void testPartitionSplit() {
+        List<IssuesPartition> types = IssuesPartition.ALL.split();
+        assertEquals(3, types.size());
+        assertEquals("&types=BUG", types.get(0).toQuery());
+        List<IssuesPartition> severities = types.get(0).split();
+        assertEquals(5, severities.size());
+        assertEquals("&types=BUG&severities=BLOCKER", severities.get(0).toQuery());
+        List<IssuesPartition> windows = severities.get(0).split();
+        assertEquals(2, windows.size());
+        assertEquals("1970-01-01T00:00:00+0000", windows.get(0).getCreatedAfter());
+        assertEquals(windows.get(0).getCreatedBefore(), windows.get(1).getCreatedAfter());
+    }
+
+    @Test
+    public void testConfirmedAndRawIssuesShareRequests() throws BadSonarQubeRequestException, SonarQubeException {
+        JsonObject issue = new JsonObject();
+        issue.addProperty("key", "AXs6TiZb_DAZnba7Q_0P");
+        issue.addProperty("rule", "java:S112");
+        JsonArray issues = new JsonArray();
+        issues.add(issue);
+
+        JsonObject response = new JsonObject();
+        response.addProperty("total", 1);
+        response.add("issues", issues);
+        response.add("rules", new JsonArray());
+
+        FakeIssuesProvider provider = new FakeIssuesProvider();
+        provider.setFakeObject(response);
+
+        // Raw issues must come from the pages already requested for confirmed issues
+        List<Issue> confirmedIssues = provider.getConfirmedIssues();
+        List<Map<String,String>> rawIssues = provider.getRawIssues();
+        assertEquals(1, provider.getRequestsCount());
+        assertEquals(1, confirmedIssues.size());
+        assertEquals(1, rawIssues.size());
+        assertEquals("AXs6TiZb_DAZnba7Q_0P", rawIssues.get(0).get("key"));
+    }
+
+    @Test
+    public void testRawIssuesAreStreamedByPage() throws BadSonarQubeRequestException, SonarQubeException {
+        JsonObject issue = new JsonObject();
+        issue.addProperty("key", "AXs6TiZb_DAZnba7Q_0P");
+        issue.addProperty("rule", "java:S112");
+        JsonArray issues = new JsonArray();
+        issues.add(issue);
+
+        FakeIssuesProvider provider = new FakeIssuesProvider();
+
+        JsonObject response = new JsonObject();
+        int maxPerPage = Integer.parseInt(provider.getProperty(MAX_PER_PAGE_SONARQUBE));
+        response.addProperty("total", maxPerPage * 2);
+        response.add("issues", issues);
+        response.add("rules", new JsonArray());
+        provider.setFakeObject(response);
+
+        // Each page is given in order as soon as it is collected
+        List<Integer> pages = new ArrayList<>();
+        provider.crawlRawIssues((page, rows) -> {
+            pages.add(page);
+            assertEquals(1, rows.size());
+            assertEquals("AXs6TiZb_DAZnba7Q_0P", rows.get(0).get("key"));
+        }, false);
+        assertEquals(Arrays.asList(1, 2), pages);
+        assertEquals(2, provider.getRequestsCount());
+
+        // the same crawl collected the confirmed issues
+        assertEquals(2, provider.getConfirmedIssues().size());
+        assertEquals(2, provider.getRequestsCount());
+
+        // raw issues were not kept, they are crawled again if needed
+        assertEquals(2, provider.getRawIssues().size());
+        assertEquals(4, provider.getRequestsCount());
+
+        // once kept, they are given as a single page
+        pages.clear();
+        provider.crawlRawIssues((page, rows) -> pages.add(page), true);
+        assertEquals(Arrays.asList(1), pages);
+        assertEquals(4, provider.getRequestsCount());
     }
 
 }
@@ -211,6 +336,12 @@ class FakeIssuesProvider extends AbstractIssuesProvider {
     // Stores the fake JsonObject that the fake API will return
     private JsonObject fakeObject;
 
+    // Stores the fake JsonObject that the fake API will return for a partition of the issues
+    private JsonObject fakePartitionObject;
+
+    // Number of requests sent to the fake API
+    private int requestsCount = 0;
+
     public FakeIssuesProvider() {
         super("server", "token", "project", "branch");
     }
@@ -223,6 +354,14 @@ class FakeIssuesProvider extends AbstractIssuesProvider {
         this.fakeObject = pFake;
     }
 
+    /**
+     * Sets the fake JsonObject that the API should return for a partition of the issues
+     * @param pFake The fake JsonObject response from API
+     */
+    public void setFakePartitionObject(JsonObject pFake) {
+        this.fakePartitionObject = pFake;
+    }
+
     /**
      * Fake implementation of interface
      */
@@ -237,11 +376,37 @@ class FakeIssuesProvider extends AbstractIssuesProvider {
         return getRawIssuesAbstract();
     }
 
+    /**
+     * Fake implementation of interface
+     */
+    public void crawlRawIssues(final PageFetcher.PageConsumer<List<Map<String,String>>> consumer, final boolean keep)
+            throws BadSonarQubeRequestException, SonarQubeException {
+        crawlRawIssuesAbstract(consumer, keep);
+    }
+
     /**
      * Implements a fake method to return the response from API
      */
-    public JsonObject getIssuesAsJsonObject(final int page, final int maxPerPage, final String confirmed) throws BadSonarQubeRequestException, SonarQubeException {
-        return this.fakeObject;
+    protected JsonPage getIssuesPage(final int page, final int maxPerPage, final String confirmed, final IssuesPartition partition, final boolean withRaw) throws BadSonarQubeRequestException, SonarQubeException {
+        this.requestsCount++;
+        if (partition != IssuesPartition.ALL && this.fakePartitionObject != null) {
+            return JsonPage.read(this.fakePartitionObject, getIssuesReaders(withRaw));
+        }
+        return JsonPage.read(this.fakeObject, getIssuesReaders(withRaw));
+    }
+
+    /**
+     * Fake implementation of interface
+     */
+    public List<Issue> getConfirmedIssues() throws BadSonarQubeRequestException, SonarQubeException {
+        return getIssuesByStatusAbstract(CONFIRMED);
+    }
+
+    /**
+     * Number of requests sent to the fake API
+     */
+    public int getRequestsCount() {
+        return this.requestsCount;
     }
 
     /**
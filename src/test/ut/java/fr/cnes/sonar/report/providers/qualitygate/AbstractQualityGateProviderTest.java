@@ -24,6 +24,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -234,6 +240,34 @@ public class AbstractQualityGateProviderTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void metricCatalogIsLoadedOnceByConcurrentReportsTest() throws Exception {
+        // A server of its own so that the catalog is not already shared by the other tests
+        final String server = "concurrent-" + System.nanoTime();
+        final AtomicInteger requests = new AtomicInteger();
+        final int reports = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(reports);
+        try {
+            final List<Future<MetricCatalog>> catalogs = new ArrayList<>();
+            for (int i = 0; i < reports; i++) {
+                final QualityGateProviderWrapper provider = new QualityGateProviderWrapper(server, requests, 50);
+                catalogs.add(executor.submit(() -> {
+                    start.await();
+                    return provider.getMetricCatalog();
+                }));
+            }
+            start.countDown();
+            final MetricCatalog first = catalogs.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<MetricCatalog> catalog : catalogs) {
+                assertTrue(first == catalog.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, requests.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Wrapper on QualityGateProvider for testing purposes
      */
@@ -244,9 +278,18 @@ public class AbstractQualityGateProviderTest {
         private JsonObject fakeQualityGatesDetails;
         private JsonObject fakeProject;
         private JsonObject fakeQualityGateStatus;
+        // Counts the requests of the metrics catalog and slows them down
+        private final AtomicInteger metricsRequests;
+        private final long metricsDelay;
 
         public QualityGateProviderWrapper() {
-            super("server", "token", "project", "branch");
+            this("server", new AtomicInteger(), 0);
+        }
+
+        public QualityGateProviderWrapper(String server, AtomicInteger metricsRequests, long metricsDelay) {
+            super(server, "token", "project", "branch");
+            this.metricsRequests = metricsRequests;
+            this.metricsDelay = metricsDelay;
         }
 
         /**
@@ -305,6 +348,30 @@ public class AbstractQualityGateProviderTest {
             return responseMetric;
         }
 
+        protected JsonObject getMetricsAsJsonObject(final int page, final int maxPerPage)
+                throws BadSonarQubeRequestException, SonarQubeException {
+            metricsRequests.incrementAndGet();
+            if (metricsDelay > 0) {
+                try {
+                    Thread.sleep(metricsDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            // Create fake metrics catalog, metric_2 is unknown
+            JsonObject metric = new JsonObject();
+            metric.addProperty("key", "metric_1");
+            metric.addProperty("name", "metric_1_TEST");
+            metric.addProperty("type", "PERCENT");
+            JsonArray metrics = new JsonArray();
+            metrics.add(metric);
+            JsonObject responseMetrics = new JsonObject();
+            responseMetrics.add("metrics", metrics);
+            responseMetrics.addProperty("total", 1);
+
+            return responseMetrics;
+        }
+
         /**
          * Wrapper public methods to call corresponding parent private methods
          */
@@ -93,6 +93,85 @@ public class AbstractQualityProfileProviderTest {
         }
     }
 
+    /**
+     * Build a fake search response with a single profile
+     */
+    private static JsonObject profileSearch(String key, String rulesUpdatedAt, String lastUsed) {
+        JsonObject profile = new JsonObject();
+        profile.addProperty("key", key);
+        profile.addProperty("name", "Sonar way");
+        profile.addProperty("rulesUpdatedAt", rulesUpdatedAt);
+        profile.addProperty("lastUsed", lastUsed);
+        JsonArray profiles = new JsonArray();
+        profiles.add(profile);
+        JsonObject qualityProfiles = new JsonObject();
+        qualityProfiles.add("profiles", profiles);
+        return qualityProfiles;
+    }
+
+    @Test
+    public void profilesAreRevalidatedOnChangeTest() throws BadSonarQubeRequestException, SonarQubeException {
+        JsonObject rules = new JsonObject();
+        rules.add("rules", new JsonArray());
+        rules.addProperty("total", 0);
+        JsonObject projects = new JsonObject();
+        projects.add("results", new JsonArray());
+
+        QualityProfileProviderWrapper provider = new QualityProfileProviderWrapper();
+        provider.setFakeXmlConf("<profile/>");
+        provider.setFakeRules(rules);
+        provider.setFakeProjects(projects);
+
+        // first report downloads the profile
+        provider.setFakeQualityProfiles(profileSearch("cached-key", "2020-01-01", "2020-01-02"));
+        assertEquals("<profile/>", provider.getQualityProfiles().get(0).getConf());
+        assertEquals(1, provider.confRequests);
+        assertEquals(1, provider.projectsRequests);
+
+        // same rules: the profile is not downloaded again, its projects always are
+        provider.setFakeXmlConf("<changed/>");
+        provider.setFakeQualityProfiles(profileSearch("cached-key", "2020-01-01", "2020-01-03"));
+        assertEquals("<profile/>", provider.getQualityProfiles().get(0).getConf());
+        assertEquals(1, provider.confRequests);
+        assertEquals(2, provider.projectsRequests);
+
+        // rules changed: the profile is downloaded again
+        provider.setFakeQualityProfiles(profileSearch("cached-key", "2020-02-01", "2020-01-03"));
+        assertEquals("<changed/>", provider.getQualityProfiles().get(0).getConf());
+        assertEquals(2, provider.confRequests);
+        assertEquals(3, provider.projectsRequests);
+    }
+
+    @Test
+    public void projectsAreNotSharedBetweenUsersTest() throws BadSonarQubeRequestException, SonarQubeException {
+        JsonObject rules = new JsonObject();
+        rules.add("rules", new JsonArray());
+        rules.addProperty("total", 0);
+        JsonObject project = new JsonObject();
+        project.addProperty("key", "private-project");
+        JsonArray results = new JsonArray();
+        results.add(project);
+        JsonObject adminProjects = new JsonObject();
+        adminProjects.add("results", results);
+        JsonObject userProjects = new JsonObject();
+        userProjects.add("results", new JsonArray());
+
+        QualityProfileProviderWrapper admin = new QualityProfileProviderWrapper();
+        admin.setFakeQualityProfiles(profileSearch("shared-key", "2020-01-01", "2020-01-02"));
+        admin.setFakeXmlConf("<profile/>");
+        admin.setFakeRules(rules);
+        admin.setFakeProjects(adminProjects);
+        assertEquals(1, admin.getQualityProfiles().get(0).getProjects().length);
+
+        // another user of the same server does not see the projects of the first one
+        QualityProfileProviderWrapper user = new QualityProfileProviderWrapper();
+        user.setFakeQualityProfiles(profileSearch("shared-key", "2020-01-01", "2020-01-02"));
+        user.setFakeRules(rules);
+        user.setFakeProjects(userProjects);
+        assertEquals(0, user.getQualityProfiles().get(0).getProjects().length);
+        assertEquals(0, user.confRequests);
+    }
+
     /**
      * Test class in order to test the abstract provider class
      */
@@ -103,6 +182,9 @@ public class AbstractQualityProfileProviderTest {
         private String fakeXmlConf;
         private JsonObject fakeRules;
         private JsonObject fakeProjects;
+        // Number of profiles and projects lists downloaded
+        private int confRequests;
+        private int projectsRequests;
 
         public QualityProfileProviderWrapper() {
             super("server", "token", "project");
@@ -138,6 +220,7 @@ public class AbstractQualityProfileProviderTest {
 
         protected String getQualityProfilesConfAsXml(final ProfileMetaData profileMetaData)
                 throws BadSonarQubeRequestException, SonarQubeException {
+            confRequests++;
             return this.fakeXmlConf;
         }
 
@@ -148,6 +231,7 @@ public class AbstractQualityProfileProviderTest {
 
         protected JsonObject getQualityProfilesProjectsAsJsonObject(final ProfileMetaData profileMetaData)
                 throws BadSonarQubeRequestException, SonarQubeException {
+            projectsRequests++;
             return this.fakeProjects;
         }
 
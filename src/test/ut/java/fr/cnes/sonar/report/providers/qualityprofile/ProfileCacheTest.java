@@ -0,0 +1,87 @@
+package fr.cnes.sonar.report.providers.qualityprofile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import fr.cnes.sonar.report.model.ProfileMetaData;
+import fr.cnes.sonar.report.model.Rule;
+
+public class ProfileCacheTest {
+
+    private static ProfileMetaData metaData(String rulesUpdatedAt, String lastUsed) {
+        ProfileMetaData metaData = new ProfileMetaData();
+        metaData.setKey("profile");
+        metaData.setName("Sonar way");
+        metaData.setRulesUpdatedAt(rulesUpdatedAt);
+        metaData.setLastUsed(lastUsed);
+        return metaData;
+    }
+
+    @Test
+    public void testValidity() {
+        ProfileCache.Entry entry = new ProfileCache.Entry(metaData("2020-01-01", "2020-01-02"), "<profile/>",
+                Collections.emptyList());
+        assertTrue(entry.hasSameRules(metaData("2020-01-01", "2020-01-03")));
+        assertFalse(entry.hasSameRules(metaData("2020-02-01", "2020-01-02")));
+
+        // without date, the profile cannot be revalidated
+        ProfileCache.Entry unknown = new ProfileCache.Entry(metaData(null, null), "<profile/>",
+                Collections.emptyList());
+        assertFalse(unknown.hasSameRules(metaData(null, null)));
+    }
+
+    @Test
+    public void testProfilesAreKeptOnDisk() throws Exception {
+        File directory = Files.createTempDirectory("profiles").toFile();
+        Rule rule = new Rule();
+        rule.setKey("squid:S1");
+        rule.setHtmlDesc("<p>description</p>");
+
+        new ProfileCache(directory).put("http://server", "profile", new ProfileCache.Entry(
+                metaData("2020-01-01", "2020-01-02"), "<profile/>", Collections.singletonList(rule)));
+
+        // a new run reads the profile from disk
+        ProfileCache.Entry entry = new ProfileCache(directory).get("http://server", "profile");
+        assertNotNull(entry);
+        assertEquals("<profile/>", entry.getConf());
+        assertEquals("squid:S1", entry.getRules().get(0).getKey());
+        assertEquals("<p>description</p>", entry.getRules().get(0).getHtmlDesc());
+        assertTrue(entry.hasSameRules(metaData("2020-01-01", "2020-01-02")));
+
+        // profiles of other servers are not shared
+        assertNull(new ProfileCache(directory).get("http://other", "profile"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        ProfileCache cache = new ProfileCache(null, 2);
+        ProfileMetaData metaData = metaData("2020-01-01", "2020-01-02");
+        cache.put("http://server", "first", new ProfileCache.Entry(metaData, "<first/>", Collections.emptyList()));
+        cache.put("http://server", "second", new ProfileCache.Entry(metaData, "<second/>", Collections.emptyList()));
+        // the first profile becomes the most recently used
+        assertNotNull(cache.get("http://server", "first"));
+
+        cache.put("http://server", "third", new ProfileCache.Entry(metaData, "<third/>", Collections.emptyList()));
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("http://server", "first"));
+        assertNull(cache.get("http://server", "second"));
+        assertNotNull(cache.get("http://server", "third"));
+        // locks are shared by the profiles, their number does not grow
+        assertSame(cache.lock("http://server", "first"), cache.lock("http://server", "first"));
+    }
+
+    @Test
+    public void testInstanceIsShared() {
+        assertSame(ProfileCache.getInstance(null), ProfileCache.getInstance(null));
+    }
+}
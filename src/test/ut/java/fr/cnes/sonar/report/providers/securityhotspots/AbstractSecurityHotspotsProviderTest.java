@@ -107,6 +107,44 @@ public class AbstractSecurityHotspotsProviderTest {
         }
     }
 
+    @Test
+    public void getSecurityHotspotsRuleRequestedOnceTest() throws BadSonarQubeRequestException, SonarQubeException {
+        // Create list of security hotspots sharing the same rule
+        JsonArray hotspotsList = new JsonArray();
+        for (int i = 0; i < 10; i++) {
+            JsonObject hotspot = new JsonObject();
+            hotspot.addProperty("key", "key_" + i);
+            hotspotsList.add(hotspot);
+        }
+        JsonObject paging = new JsonObject();
+        paging.addProperty("total", 10);
+        JsonObject hotspots = new JsonObject();
+        hotspots.add("hotspots", hotspotsList);
+        hotspots.add("paging", paging);
+
+        JsonObject hotspotRule = new JsonObject();
+        hotspotRule.addProperty("key", "rule_1");
+        JsonObject hotspotDetails = new JsonObject();
+        hotspotDetails.add("rule", hotspotRule);
+        hotspotDetails.add("comments", new JsonArray());
+        hotspotDetails.addProperty("resolution", "SAFE");
+
+        JsonObject rule = new JsonObject();
+        rule.addProperty("severity", "MAJOR");
+        rule.addProperty("langName", "Java");
+        JsonObject ruleDetails = new JsonObject();
+        ruleDetails.add("rule", rule);
+
+        SecurityHotspotsProviderWrapper provider = new SecurityHotspotsProviderWrapper();
+        provider.setFakeHotspots(hotspots);
+        provider.setFakeHotspot(hotspotDetails);
+        provider.setFakeRule(ruleDetails);
+
+        assertEquals(10, provider.getSecurityHotspotsByStatus("TO_REVIEW").size());
+        assertEquals(10, provider.getSecurityHotspotsByStatus("REVIEWED").size());
+        assertEquals(1, provider.ruleRequests);
+    }
+
     /**
      * Test class in order to test the abstract provider class
      */
@@ -115,6 +153,7 @@ public class AbstractSecurityHotspotsProviderTest {
         JsonObject hotspots;
         JsonObject hotspot;
         JsonObject rule;
+        int ruleRequests = 0;
 
         public SecurityHotspotsProviderWrapper() {
             super("server", "token", "project", "branch");
@@ -152,6 +191,7 @@ public class AbstractSecurityHotspotsProviderTest {
 
         protected JsonObject getRuleAsJsonObject(final String securityHotspotRule)
                 throws BadSonarQubeRequestException, SonarQubeException {
+            this.ruleRequests++;
             return this.rule;
         }
 